@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The JARs the benchmarks run on: one of the test fixtures in <code>src/test/resources/jars</code>, or a large
+ * generated JAR.
+ * <ul>
+ * <li><code>generated-&lt;copies&gt;x-&lt;fixture&gt;</code> holds the entries of the fixture that many times, each copy
+ * under its own directory, such as <code>copy3/org/apache/tools/ant/Task.class</code>.</li>
+ * <li><code>synthetic-&lt;classes&gt;.jar</code> is a {@link SyntheticJar} with that many classes and as many
+ * resources, spread over one package per 100 classes, each class referencing 20 others, with
+ * <code>META-INF/versions</code> layers for Java 11, 17 and 21 and an embedded POM.</li>
+ * </ul>
+ */
+public final class BenchmarkJars {
+    private static final Pattern GENERATED = Pattern.compile("generated-(\\d+)x-(.+)");
+
+    private static final Pattern SYNTHETIC = Pattern.compile("synthetic-(\\d+)\\.jar");
+
+    private BenchmarkJars() {
+        // no instances
+    }
+
+    /**
+     * Get a benchmark JAR, generating it in the temporary directory if needed.
+     *
+     * @param name the name of a fixture, or of a generated JAR
+     * @return the JAR file
+     * @throws IOException if the JAR cannot be generated
+     * @throws URISyntaxException if the fixture cannot be located
+     */
+    public static File getJar(String name) throws IOException, URISyntaxException {
+        File generated = new File(System.getProperty("java.io.tmpdir"), "maven-shared-jar-benchmark-" + name);
+        Matcher matcher = GENERATED.matcher(name);
+        if (matcher.matches()) {
+            if (!generated.isFile()) {
+                generate(getJar(matcher.group(2)), Integer.parseInt(matcher.group(1)), generated);
+            }
+            return generated;
+        }
+        matcher = SYNTHETIC.matcher(name);
+        if (matcher.matches()) {
+            if (!generated.isFile()) {
+                int classes = Integer.parseInt(matcher.group(1));
+                File tmp = File.createTempFile("generating-", ".jar", generated.getParentFile());
+                new SyntheticJar()
+                        .classes(classes)
+                        .packages(Math.max(1, classes / 100))
+                        .importFanOut(20)
+                        .resources(classes)
+                        .releases(11, 17, 21)
+                        .pom("org.example.synthetic", "synthetic-" + classes, "1.0")
+                        .write(tmp.toPath());
+                rename(tmp, generated);
+            }
+            return generated;
+        }
+        return new File(BenchmarkJars.class.getResource("/jars/" + name).toURI());
+    }
+
+    private static void generate(File fixture, int copies, File generated) throws IOException {
+        File tmp = File.createTempFile("generating-", ".jar", generated.getParentFile());
+        byte[] buffer = new byte[8192];
+        try (JarFile jarFile = new JarFile(fixture);
+                JarOutputStream out = new JarOutputStream(Files.newOutputStream(tmp.toPath()))) {
+            for (int copy = 0; copy < copies; copy++) {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.isDirectory() || entry.getName().startsWith("META-INF/")) {
+                        continue;
+                    }
+                    out.putNextEntry(new JarEntry("copy" + copy + "/" + entry.getName()));
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        copy(in, out, buffer);
+                    }
+                    out.closeEntry();
+                }
+            }
+        }
+        rename(tmp, generated);
+    }
+
+    private static void rename(File tmp, File generated) throws IOException {
+        if (!tmp.renameTo(generated) && !generated.isFile()) {
+            throw new IOException("Unable to create " + generated);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Compares analyzing the classes of a JAR, as on a cold run, against loading the results cached by a previous analysis
+ * from a {@link JarAnalysisCache}, as on a warm run over an unchanged JAR. Both open the JAR, as the cache needs its
+ * size and last modified time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarAnalysisCacheBenchmark {
+    @Param({"ant.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    private final JarClassesAnalysis analysis = new JarClassesAnalysis();
+
+    private File file;
+
+    private Path cacheDir;
+
+    private JarAnalysisCache cache;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+        cacheDir = Files.createTempDirectory("jar-analysis-cache");
+        cache = new JarAnalysisCache(cacheDir);
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            analysis.analyze(jarAnalyzer);
+            cache.store(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(cacheDir.toFile());
+    }
+
+    @Benchmark
+    public JarClasses analyze() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return analysis.analyze(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarClasses loadFromCache() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            if (!cache.load(jarAnalyzer)) {
+                throw new IllegalStateException("Not cached: " + file);
+            }
+            return jarAnalyzer.getJarData().getJarClasses();
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures opening a JAR with the {@link JarAnalyzer} and listing its entries, then reading the content of its classes,
+ * with the central directory read by a {@link java.util.jar.JarFile} or memory mapped.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarAnalyzerBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar", "generated-20x-ant.jar", "synthetic-50000.jar"})
+    public String jar;
+
+    @Param({"false", "true"})
+    public boolean mapCentralDirectory;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+    }
+
+    @Benchmark
+    public int openAndListClasses() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file, mapCentralDirectory);
+        try {
+            return jarAnalyzer.getClassEntries().size();
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public int openAndListMavenPoms() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file, mapCentralDirectory);
+        try {
+            int count = 0;
+            for (JarEntry entry : jarAnalyzer.getMavenPomEntries()) {
+                count += entry.getName().length();
+            }
+            return count;
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public void readClasses(Blackhole blackhole) throws Exception {
+        byte[] buffer = new byte[8192];
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file, mapCentralDirectory);
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    int read;
+                    while ((read = is.read(buffer)) != -1) {
+                        blackhole.consume(read);
+                    }
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
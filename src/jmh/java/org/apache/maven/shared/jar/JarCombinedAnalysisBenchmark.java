@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarFileHashAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares computing the file hash, the bytecode hash and the classes of a JAR with the separate analyses, which
+ * inflate every class entry twice, against the {@link JarCombinedAnalysis}, which inflates it once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarCombinedAnalysisBenchmark {
+    @Param({"ant.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    private final JarClassesAnalysis classesAnalysis = new JarClassesAnalysis();
+
+    private final JarFileHashAnalyzer fileHashAnalyzer = new JarFileHashAnalyzer();
+
+    private final JarBytecodeHashAnalyzer bytecodeHashAnalyzer = new JarBytecodeHashAnalyzer();
+
+    private final JarCombinedAnalysis combinedAnalysis = new JarCombinedAnalysis(classesAnalysis);
+
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+    }
+
+    @Benchmark
+    public JarData separate() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            fileHashAnalyzer.computeHash(jarAnalyzer);
+            bytecodeHashAnalyzer.computeHash(jarAnalyzer);
+            classesAnalysis.analyze(jarAnalyzer);
+            return jarAnalyzer.getJarData();
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarData combined() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return combinedAnalysis.analyze(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
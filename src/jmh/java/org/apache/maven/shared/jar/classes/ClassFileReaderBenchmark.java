@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link ClassFileReader} implementations on the classes of a JAR, held in memory so that only the
+ * parsing is measured. Run with <code>-prof gc</code> to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassFileReaderBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar"})
+    public String jar;
+
+    @Param({"bcel", "constantPool"})
+    public String reader;
+
+    /**
+     * The facets to gather: all of them, or only the class names and versions.
+     */
+    @Param({"all", "none"})
+    public String facets;
+
+    private ClassFileReader classFileReader;
+
+    private JarClassesOptions options;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<byte[]> classes = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        classFileReader = "bcel".equals(reader) ? new BcelClassFileReader() : new ConstantPoolClassFileReader();
+        options = "all".equals(facets) ? JarClassesOptions.all() : JarClassesOptions.of();
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(BenchmarkJars.getJar(jar));
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = is.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    names.add(entry.getName());
+                    classes.add(out.toByteArray());
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < classes.size(); i++) {
+            blackhole.consume(
+                    classFileReader.read(new ByteArrayInputStream(classes.get(i)), names.get(i), options));
+        }
+    }
+}
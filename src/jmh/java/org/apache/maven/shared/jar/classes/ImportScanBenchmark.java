@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Constant;
+import org.apache.bcel.classfile.ConstantClass;
+import org.apache.bcel.classfile.ConstantPool;
+import org.apache.bcel.classfile.ConstantUtf8;
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the import scanner of the {@link ImportVisitor} with the former regular expression based implementation,
+ * on all the class and UTF8 constants of a JAR.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportScanBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar"})
+    public String jar;
+
+    private final List<String> classConstants = new ArrayList<>();
+
+    private final List<String> utf8Constants = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(BenchmarkJars.getJar(jar));
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    ConstantPool constantPool =
+                            new ClassParser(is, entry.getName()).parse().getConstantPool();
+                    for (Constant constant : constantPool.getConstantPool()) {
+                        if (constant instanceof ConstantClass) {
+                            classConstants.add(((ConstantClass) constant).getBytes(constantPool));
+                        } else if (constant instanceof ConstantUtf8) {
+                            utf8Constants.add(((ConstantUtf8) constant).getBytes());
+                        }
+                    }
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public List<String> scanner() {
+        List<String> imports = new UniqueList<>();
+        for (String name : classConstants) {
+            ImportVisitor.addClassImport(name, imports);
+        }
+        for (String value : utf8Constants) {
+            ImportVisitor.addUtf8Imports(value, imports);
+        }
+        return imports;
+    }
+
+    @Benchmark
+    public List<String> regex() {
+        List<String> imports = new UniqueList<>();
+        for (String name : classConstants) {
+            RegexImports.addClassImport(name, imports);
+        }
+        for (String value : utf8Constants) {
+            RegexImports.addUtf8Imports(value, imports);
+        }
+        return imports;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the class parsing throughput of reopening the JAR for every class, as BCEL does when given a file name,
+ * against reading every class from the JAR file already held open by the {@link JarAnalyzer}. The
+ * {@link ClassCounter#classes} counter reports the number of classes parsed per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarClassesAnalysisBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar", "jxr.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    private final JarClassesAnalysis analysis = new JarClassesAnalysis();
+
+    private File file;
+
+    private JarAnalyzer jarAnalyzer;
+
+    private List<JarEntry> classEntries;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ClassCounter {
+        public long classes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            classes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+        jarAnalyzer = new JarAnalyzer(file);
+        classEntries = jarAnalyzer.getClassEntries();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jarAnalyzer.closeQuietly();
+    }
+
+    @Benchmark
+    public void parseReopeningJarPerClass(ClassCounter counter, Blackhole blackhole) throws Exception {
+        String jarFilename = file.getAbsolutePath();
+        for (JarEntry entry : classEntries) {
+            JavaClass javaClass = new ClassParser(jarFilename, entry.getName()).parse();
+            blackhole.consume(javaClass);
+            counter.classes++;
+        }
+    }
+
+    @Benchmark
+    public void parseFromOpenJarFile(ClassCounter counter, Blackhole blackhole) throws Exception {
+        for (JarEntry entry : classEntries) {
+            try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                JavaClass javaClass = new ClassParser(is, entry.getName()).parse();
+                blackhole.consume(javaClass);
+            }
+            counter.classes++;
+        }
+    }
+
+    @Benchmark
+    public JarClasses analyze(ClassCounter counter) throws Exception {
+        JarAnalyzer analyzer = new JarAnalyzer(file);
+        try {
+            counter.classes += classEntries.size();
+            return analysis.analyze(analyzer);
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarClasses analyzeParallel(ClassCounter counter) throws Exception {
+        JarAnalyzer analyzer = new JarAnalyzer(file);
+        try {
+            counter.classes += classEntries.size();
+            return analysis.analyze(analyzer, ForkJoinPool.commonPool());
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarClasses analyzeJdkRevision(ClassCounter counter) throws Exception {
+        JarAnalyzer analyzer = new JarAnalyzer(file);
+        try {
+            counter.classes += classEntries.size();
+            return analysis.analyzeJdkRevision(analyzer, false);
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+}
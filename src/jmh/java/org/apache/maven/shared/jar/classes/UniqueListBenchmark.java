@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+
+import org.apache.commons.collections4.list.SetUniqueList;
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the unique lists the classes analysis can merge the per-class imports and methods into. Run with
+ * <code>-prof gc</code>: as nothing is discarded but the growth of the arrays, the normalized allocation rate is close
+ * to the footprint of the merged lists.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UniqueListBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar"})
+    public String jar;
+
+    @Param({"setUniqueList", "uniqueList"})
+    public String list;
+
+    private final List<ClassDetails> details = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        ClassFileReader reader = new ConstantPoolClassFileReader();
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(BenchmarkJars.getJar(jar));
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    details.add(reader.read(is, entry.getName(), JarClassesOptions.all()));
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public List<List<String>> merge() {
+        List<String> imports = newList();
+        List<String> methods = newList();
+        for (ClassDetails classDetails : details) {
+            imports.addAll(classDetails.getImports());
+            methods.addAll(classDetails.getMethods());
+        }
+        List<List<String>> lists = new ArrayList<>(2);
+        lists.add(imports);
+        lists.add(methods);
+        return lists;
+    }
+
+    private List<String> newList() {
+        return "uniqueList".equals(list) ? new UniqueList<>() : SetUniqueList.setUniqueList(new ArrayList<>());
+    }
+}
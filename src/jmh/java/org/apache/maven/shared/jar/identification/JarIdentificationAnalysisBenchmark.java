@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.exposers.EmbeddedMavenModelExposer;
+import org.apache.maven.shared.jar.identification.exposers.FilenameExposer;
+import org.apache.maven.shared.jar.identification.exposers.JarClassesExposer;
+import org.apache.maven.shared.jar.identification.exposers.ManifestExposer;
+import org.apache.maven.shared.jar.identification.exposers.RepositorySearchExposer;
+import org.apache.maven.shared.jar.identification.exposers.StaticMainOutputExposer;
+import org.apache.maven.shared.jar.identification.exposers.TextFileExposer;
+import org.apache.maven.shared.jar.identification.exposers.TimestampExposer;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarFileHashAnalyzer;
+import org.apache.maven.shared.jar.identification.repository.EmptyRepositoryHashSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the identification of a JAR with all the exposers, wired as the container does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarIdentificationAnalysisBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    private File file;
+
+    private JarIdentificationAnalysis analysis;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+        analysis = new JarIdentificationAnalysis(Arrays.asList(
+                new EmbeddedMavenModelExposer(),
+                new FilenameExposer(),
+                new JarClassesExposer(new JarClassesAnalysis()),
+                new ManifestExposer(),
+                new RepositorySearchExposer(
+                        new EmptyRepositoryHashSearch(), new JarFileHashAnalyzer(), new JarBytecodeHashAnalyzer()),
+                new StaticMainOutputExposer(),
+                new TextFileExposer(),
+                new TimestampExposer()));
+    }
+
+    @Benchmark
+    public JarIdentification analyze() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return analysis.analyze(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
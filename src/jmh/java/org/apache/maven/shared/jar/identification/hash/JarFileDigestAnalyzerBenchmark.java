@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.File;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares computing the SHA-1, SHA-256 and SHA-512 digests of a large JAR with one read per algorithm, as done with
+ * {@link DigestUtils} on {@link JarAnalyzer#getInputStream()}, against the single mapped read of the
+ * {@link JarFileDigestAnalyzer}. The generated JARs are a few hundred MB, so that the file is in the page cache but
+ * does not fit in the CPU caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarFileDigestAnalyzerBenchmark {
+    @Param({"generated-100x-ant.jar", "generated-300x-ant.jar"})
+    public String jar;
+
+    private final JarFileDigestAnalyzer analyzer = new JarFileDigestAnalyzer();
+
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+    }
+
+    @Benchmark
+    public Map<String, String> readPerAlgorithm() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            Map<String, String> digests = new LinkedHashMap<>();
+            for (String algorithm : analyzer.getAlgorithms()) {
+                MessageDigest digest = MessageDigest.getInstance(algorithm);
+                try (InputStream inputStream = jarAnalyzer.getInputStream()) {
+                    digests.put(algorithm, Hex.encodeHexString(DigestUtils.digest(digest, inputStream)));
+                }
+            }
+            return digests;
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> singleRead() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return analyzer.computeDigests(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
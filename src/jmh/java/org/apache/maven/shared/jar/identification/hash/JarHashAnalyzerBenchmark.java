@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link JarHashAnalyzer} implementations, each on a freshly opened JAR so that no cached hash is used.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarHashAnalyzerBenchmark {
+    @Param({"ant.jar", "tomcat-jni-9.0.75.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    @Param({"file", "bytecode"})
+    public String analyzer;
+
+    private File file;
+
+    private JarHashAnalyzer hashAnalyzer;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+        hashAnalyzer = "file".equals(analyzer) ? new JarFileHashAnalyzer() : new JarBytecodeHashAnalyzer();
+    }
+
+    @Benchmark
+    public String computeHash() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return hashAnalyzer.computeHash(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential {@link JarBytecodeHashAnalyzer} with the {@link JarMerkleHashAnalyzer}, digesting the
+ * entries in the calling thread or in the common fork join pool, and reusing the digests of a previous analysis of the
+ * unchanged JAR. Each benchmark runs on a freshly opened JAR so that no cached hash is used.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarMerkleHashAnalyzerBenchmark {
+    @Param({"ant.jar", "generated-20x-ant.jar", "synthetic-20000.jar"})
+    public String jar;
+
+    private final JarBytecodeHashAnalyzer bytecodeHashAnalyzer = new JarBytecodeHashAnalyzer();
+
+    private final JarMerkleHashAnalyzer sequentialAnalyzer = new JarMerkleHashAnalyzer(null);
+
+    private final JarMerkleHashAnalyzer parallelAnalyzer = new JarMerkleHashAnalyzer();
+
+    private File file;
+
+    private JarBytecodeDigests previous;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = BenchmarkJars.getJar(jar);
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            previous = sequentialAnalyzer.computeDigests(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public String bytecodeHash() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return bytecodeHashAnalyzer.computeHash(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarBytecodeDigests merkleSequential() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return sequentialAnalyzer.computeDigests(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarBytecodeDigests merkleParallel() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return parallelAnalyzer.computeDigests(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Benchmark
+    public JarBytecodeDigests merkleReusingPrevious() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return parallelAnalyzer.computeDigests(jarAnalyzer, previous);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.jar.identification.repository.LocalRepositoryIndex.IndexedFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lookups of a {@link LocalRepositoryHashSearch} in an index of random hashes, as large as a local
+ * repository or a repository manager, with and without a {@link CachingRepositoryHashSearch}, and the cost of opening
+ * the index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalRepositoryHashSearchBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"10000", "1000000"})
+    public int artifacts;
+
+    private Path indexFile;
+
+    private LocalRepositoryHashSearch search;
+
+    private String[] hits;
+
+    private CachingRepositoryHashSearch cachingSearch;
+
+    private String[] bytecodeHits;
+
+    private String[] misses;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(artifacts);
+        List<IndexedFile> files = new ArrayList<>(artifacts);
+        hits = new String[LOOKUPS];
+        bytecodeHits = new String[LOOKUPS];
+        for (int i = 0; i < artifacts; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            byte[] bytecodeHash = new byte[20];
+            random.nextBytes(bytecodeHash);
+            String path = "org/example/group" + (i % 1000) + "/artifact" + i + "/1.0/artifact" + i + "-1.0.jar";
+            files.add(new IndexedFile(path, i, i, hash, bytecodeHash));
+            if (i < LOOKUPS) {
+                hits[i] = Hex.encodeHexString(hash);
+                bytecodeHits[i] = Hex.encodeHexString(bytecodeHash);
+            }
+        }
+        misses = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            misses[i] = Hex.encodeHexString(hash);
+        }
+        indexFile = Files.createTempFile("repository-index", ".idx");
+        LocalRepositoryIndex.write(indexFile, files);
+        search = new LocalRepositoryHashSearch(indexFile);
+        cachingSearch = new CachingRepositoryHashSearch(
+                search, CachingRepositoryHashSearch.DEFAULT_MAX_HITS, CachingRepositoryHashSearch.DEFAULT_MAX_MISSES);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        search.close();
+        Files.deleteIfExists(indexFile);
+    }
+
+    @Benchmark
+    public List<Artifact> searchHit() {
+        return search.searchFileHash(hits[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<Artifact> searchMiss() {
+        return search.searchFileHash(misses[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<Artifact> searchCachedHit() {
+        return cachingSearch.searchFileHash(hits[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<Artifact> searchCachedMiss() {
+        return cachingSearch.searchFileHash(misses[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<Artifact> searchBytecodeHit() {
+        return search.searchBytecodeHash(bytecodeHits[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public List<Artifact> openAndSearch() throws Exception {
+        try (LocalRepositoryHashSearch opened = new LocalRepositoryHashSearch(indexFile)) {
+            return opened.searchFileHash(hits[next++ & (LOOKUPS - 1)]);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.maven.shared.jar.BenchmarkJars;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the index of a local repository of copies of a few JARs with their bytecode hashes, sequentially
+ * and on all the processors, and updating an index that is already up to date.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalRepositoryIndexerBenchmark {
+    private static final String[] JARS = {"ant.jar", "tomcat-jni-9.0.75.jar", "jxr.jar", "generated-20x-ant.jar"};
+
+    @Param({"200"})
+    public int artifacts;
+
+    private final LocalRepositoryIndexer indexer = new LocalRepositoryIndexer();
+
+    private Path repository;
+
+    private Path indexFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        repository = Files.createTempDirectory("repository");
+        for (int i = 0; i < artifacts; i++) {
+            File jar = BenchmarkJars.getJar(JARS[i % JARS.length]);
+            Path target = repository.resolve("org/example/artifact" + i + "/1.0/artifact" + i + "-1.0.jar");
+            Files.createDirectories(target.getParent());
+            Files.copy(jar.toPath(), target);
+        }
+        indexFile = repository.resolve(".index/hashes.idx");
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteIndex() throws Exception {
+        Files.deleteIfExists(indexFile);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(repository)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int indexFileHashes() throws Exception {
+        return indexer.update(repository, indexFile);
+    }
+
+    @Benchmark
+    public int indexBytecodeHashesSequentially() throws Exception {
+        return indexer.update(repository, indexFile, true, 1);
+    }
+
+    @Benchmark
+    public int indexBytecodeHashesInParallel() throws Exception {
+        return indexer.update(
+                repository, indexFile, true, Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ZIP source reading an archive held in memory. The regions are views of the buffer, which is never copied.
+ */
+class ByteBufferZipSource implements ZipSource {
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer the archive, from its position to its limit
+     */
+    ByteBufferZipSource(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public long size() {
+        return buffer.limit();
+    }
+
+    @Override
+    public ByteBuffer map(long position, int length) throws EOFException {
+        return read(position, length);
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws EOFException {
+        return region(position, length);
+    }
+
+    @Override
+    public InputStream open(long position, long length) throws EOFException {
+        return new ByteBufferInputStream(region(position, length));
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the buffer belongs to the caller
+    }
+
+    private ByteBuffer region(long position, long length) throws EOFException {
+        if (position < 0 || length < 0 || position + length > buffer.limit()) {
+            throw new EOFException("Unexpected end of ZIP archive");
+        }
+        ByteBuffer region = buffer.duplicate();
+        region.position((int) position);
+        region.limit((int) (position + length));
+        return region.slice();
+    }
+
+    /**
+     * Stream over the remaining bytes of a buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.min(Math.max(0, n), buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,692 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Archive read from the central directory of the ZIP file, which is retained as a whole, typically memory mapped,
+ * instead of being parsed into entries when opened. Only the position of each central directory header is kept, and
+ * the entries are views that read the name, sizes, CRC and local header offset from the header on demand: a
+ * {@link JarEntry} is only created, once, when it is requested from the list of entries. When the archive is closed,
+ * the remaining entries are created and the list is detached from the archive, so that a {@link JarData} retaining
+ * the list does not retain the central directory and the source, such as a nested JAR inflated in memory.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+class CentralDirectoryArchive implements JarArchive {
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+    private static final int ZIP64_END_SIZE = 56;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int HEADER_SIZE = 46;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ZipSource source;
+
+    /**
+     * The central directory, in little endian order.
+     */
+    private final ByteBuffer directory;
+
+    /**
+     * The position in the source of the offset 0 of the archive, which is not 0 when data is prepended to it.
+     */
+    private final long base;
+
+    /**
+     * The positions of the central directory headers, in the order of the entry names.
+     */
+    private final int[] headers;
+
+    private final EntryList entries;
+
+    CentralDirectoryArchive(ZipSource source) throws IOException {
+        this.source = source;
+        try {
+            long end = findEnd();
+            ByteBuffer record = source.read(end, END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long count = record.getShort(10) & 0xFFFF;
+            long size = record.getInt(12) & 0xFFFFFFFFL;
+            long offset = record.getInt(16) & 0xFFFFFFFFL;
+            long directoryEnd = end;
+            if (count == 0xFFFF || size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL) {
+                long zip64End = findZip64End(end);
+                if (zip64End >= 0) {
+                    record = source.read(zip64End, ZIP64_END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                    count = record.getLong(32);
+                    size = record.getLong(40);
+                    offset = record.getLong(48);
+                    directoryEnd = zip64End;
+                }
+            }
+            base = directoryEnd - size - offset;
+            if (size > Integer.MAX_VALUE || base < 0 || count < 0) {
+                throw new ZipException("invalid END header (bad central directory offset)");
+            }
+            directory = source.map(base + offset, (int) size).order(ByteOrder.LITTLE_ENDIAN);
+            headers = sort(scan((int) Math.min(count, size / HEADER_SIZE)));
+            entries = new EntryList(this);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<JarEntry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public CharSequence getEntryName(int index) {
+        int header = headers[index];
+        return new RawName(header + HEADER_SIZE, nameLength(header));
+    }
+
+    @Override
+    public InputStream getInputStream(JarEntry entry) throws IOException {
+        int header = findHeader(entry);
+        if (header < 0) {
+            return null;
+        }
+        long data = getDataPosition(header);
+        long compressedSize = getSize(header, 20, 1);
+        switch (directory.getShort(header + 10) & 0xFFFF) {
+            case ZipEntry.STORED:
+                return source.open(data, compressedSize);
+            case ZipEntry.DEFLATED:
+                long size = getSize(header, 24, 0);
+                return new EntryInflaterInputStream(source.open(data, compressedSize), size);
+            default:
+                throw new ZipException("invalid compression method");
+        }
+    }
+
+    @Override
+    public ByteBuffer getStoredContent(JarEntry entry) throws IOException {
+        int header = findHeader(entry);
+        if (header < 0 || (directory.getShort(header + 10) & 0xFFFF) != ZipEntry.STORED) {
+            return null;
+        }
+        long size = getSize(header, 20, 1);
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+        return source.map(getDataPosition(header), (int) size);
+    }
+
+    @Override
+    public InputStream getArchiveInputStream() throws IOException {
+        return source.open(0, source.size());
+    }
+
+    @Override
+    public Manifest getManifest() throws IOException {
+        for (int i = 0; i < headers.length; i++) {
+            if (isManifest(headers[i])) {
+                try (InputStream is = getInputStream(entries.get(i))) {
+                    return new Manifest(is);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        entries.detach();
+        source.close();
+    }
+
+    /**
+     * @return the position of the data of an entry, after its local header
+     */
+    private long getDataPosition(int header) throws IOException {
+        long localHeader = base + getLocalHeaderOffset(header);
+        ByteBuffer local = source.read(localHeader, LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (local.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("invalid LOC header (bad signature)");
+        }
+        return localHeader + LOCAL_HEADER_SIZE + (local.getShort(26) & 0xFFFF) + (local.getShort(28) & 0xFFFF);
+    }
+
+    /**
+     * @return the position of the end of central directory record
+     */
+    private long findEnd() throws IOException {
+        long size = source.size();
+        if (size < END_SIZE) {
+            throw new ZipException("zip file is empty");
+        }
+        int length = (int) Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+        long start = size - length;
+        ByteBuffer tail = source.read(start, length).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = length - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE && i + END_SIZE + (tail.getShort(i + 20) & 0xFFFF) == length) {
+                return start + i;
+            }
+        }
+        throw new ZipException("zip END header not found");
+    }
+
+    /**
+     * @return the position of the ZIP64 end of central directory record, or -1 if there is none
+     */
+    private long findZip64End(long end) throws IOException {
+        long locatorPosition = end - ZIP64_LOCATOR_SIZE;
+        if (locatorPosition < ZIP64_END_SIZE) {
+            return -1;
+        }
+        ByteBuffer locator = source.read(locatorPosition, ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+            return -1;
+        }
+        // the record usually immediately precedes its locator, even when data is prepended to the archive
+        long candidate = locatorPosition - ZIP64_END_SIZE;
+        for (long position : new long[] {candidate, locator.getLong(8)}) {
+            if (position >= 0 && position <= candidate) {
+                ByteBuffer signature = source.read(position, 4).order(ByteOrder.LITTLE_ENDIAN);
+                if (signature.getInt(0) == ZIP64_END_SIGNATURE) {
+                    return position;
+                }
+            }
+        }
+        throw new ZipException("invalid ZIP64 END header");
+    }
+
+    /**
+     * @return the positions of the central directory headers, in the order of the central directory
+     */
+    private int[] scan(int expected) throws ZipException {
+        int[] positions = new int[Math.max(expected, 16)];
+        int count = 0;
+        int limit = directory.limit();
+        boolean ascii = true;
+        for (int position = 0; position < limit; ) {
+            if (position + HEADER_SIZE > limit || directory.getInt(position) != HEADER_SIGNATURE) {
+                throw new ZipException("invalid CEN header (bad signature)");
+            }
+            int nameLength = nameLength(position);
+            int next = position
+                    + HEADER_SIZE
+                    + nameLength
+                    + (directory.getShort(position + 30) & 0xFFFF)
+                    + (directory.getShort(position + 32) & 0xFFFF);
+            if (next > limit) {
+                throw new ZipException("invalid CEN header (bad header size)");
+            }
+            for (int i = position + HEADER_SIZE, last = i + nameLength; i < last && ascii; i++) {
+                ascii = directory.get(i) >= 0;
+            }
+            if (!ascii) {
+                // names are only decoded when requested, so check that they can be as soon as one is not ASCII
+                try {
+                    decode(position + HEADER_SIZE, nameLength);
+                } catch (IllegalArgumentException e) {
+                    throw new ZipException("invalid CEN header (bad entry name)");
+                }
+            }
+            if (count == positions.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(positions, 0, grown, 0, count);
+                positions = grown;
+            }
+            positions[count++] = position;
+            position = next;
+        }
+        if (count == positions.length) {
+            return positions;
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(positions, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    /**
+     * Sort the headers by entry name, keeping the order of the central directory for equal names.
+     */
+    private int[] sort(int[] positions) {
+        int[] buffer = new int[positions.length];
+        int[] from = positions;
+        int[] to = buffer;
+        for (int width = 1; width < positions.length; width *= 2) {
+            for (int low = 0; low < positions.length; low += 2 * width) {
+                int middle = Math.min(low + width, positions.length);
+                int high = Math.min(low + 2 * width, positions.length);
+                if (middle == high || compareNames(from[middle - 1], from[middle]) <= 0) {
+                    // the runs are already in order, as in most archives
+                    System.arraycopy(from, low, to, low, high - low);
+                    continue;
+                }
+                int i = low;
+                int j = middle;
+                for (int k = low; k < high; k++) {
+                    if (i < middle && (j >= high || compareNames(from[i], from[j]) <= 0)) {
+                        to[k] = from[i++];
+                    } else {
+                        to[k] = from[j++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    /**
+     * Compare the names of two headers in the order of {@link String#compareTo(String)}, comparing the bytes as long
+     * as they are ASCII.
+     */
+    private int compareNames(int header1, int header2) {
+        int length1 = nameLength(header1);
+        int length2 = nameLength(header2);
+        int name1 = header1 + HEADER_SIZE;
+        int name2 = header2 + HEADER_SIZE;
+        for (int i = 0, length = Math.min(length1, length2); i < length; i++) {
+            byte b1 = directory.get(name1 + i);
+            byte b2 = directory.get(name2 + i);
+            if (b1 != b2) {
+                if (b1 < 0 || b2 < 0) {
+                    return decode(name1, length1).compareTo(decode(name2, length2));
+                }
+                return b1 - b2;
+            }
+        }
+        return length1 - length2;
+    }
+
+    private int nameLength(int header) {
+        return directory.getShort(header + 28) & 0xFFFF;
+    }
+
+    private String getName(int header) {
+        return decode(header + HEADER_SIZE, nameLength(header));
+    }
+
+    private String decode(int position, int length) {
+        ByteBuffer bytes = directory.duplicate();
+        bytes.position(position);
+        bytes.limit(position + length);
+        try {
+            CharBuffer chars = StandardCharsets.UTF_8
+                    .newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(bytes);
+            return chars.toString();
+        } catch (CharacterCodingException e) {
+            throw new IllegalArgumentException("MALFORMED", e);
+        }
+    }
+
+    private byte[] getBytes(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = directory.duplicate();
+        buffer.position(position);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private boolean isManifest(int header) {
+        int length = nameLength(header);
+        if (length != JarFile.MANIFEST_NAME.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = (char) (directory.get(header + HEADER_SIZE + i) & 0xFF);
+            if (Character.toUpperCase(c) != JarFile.MANIFEST_NAME.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int findHeader(JarEntry entry) {
+        if (entry instanceof CentralDirectoryEntry && ((CentralDirectoryEntry) entry).archive == this) {
+            return headers[((CentralDirectoryEntry) entry).index];
+        }
+        String name = entry.getName();
+        int low = 0;
+        int high = headers.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = getName(headers[middle]).compareTo(name);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                while (middle > 0 && getName(headers[middle - 1]).equals(name)) {
+                    middle--;
+                }
+                return headers[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get a size of an entry, which is in the ZIP64 extra field when the header only has its maximum value.
+     *
+     * @param field the position of the size in the header
+     * @param zip64Index the index of the size in the ZIP64 extra field, when the uncompressed size is there
+     */
+    private long getSize(int header, int field, int zip64Index) throws ZipException {
+        long value = directory.getInt(header + field) & 0xFFFFFFFFL;
+        if (value != 0xFFFFFFFFL) {
+            return value;
+        }
+        int index = zip64Index;
+        if (zip64Index == 1 && (directory.getInt(header + 24) & 0xFFFFFFFFL) != 0xFFFFFFFFL) {
+            index = 0;
+        }
+        return getZip64Value(header, index);
+    }
+
+    private long getLocalHeaderOffset(int header) throws ZipException {
+        long value = directory.getInt(header + 42) & 0xFFFFFFFFL;
+        if (value != 0xFFFFFFFFL) {
+            return value;
+        }
+        int index = 0;
+        if ((directory.getInt(header + 24) & 0xFFFFFFFFL) == 0xFFFFFFFFL) {
+            index++;
+        }
+        if ((directory.getInt(header + 20) & 0xFFFFFFFFL) == 0xFFFFFFFFL) {
+            index++;
+        }
+        return getZip64Value(header, index);
+    }
+
+    /**
+     * @return the value at the given index of the ZIP64 extra field of the header
+     */
+    private long getZip64Value(int header, int index) throws ZipException {
+        int position = header + HEADER_SIZE + nameLength(header);
+        int end = position + (directory.getShort(header + 30) & 0xFFFF);
+        while (position + 4 <= end) {
+            int id = directory.getShort(position) & 0xFFFF;
+            int size = directory.getShort(position + 2) & 0xFFFF;
+            if (id == ZIP64_EXTRA_ID) {
+                if (8 * (index + 1) > size || position + 4 + size > end) {
+                    break;
+                }
+                return directory.getLong(position + 4 + 8 * index);
+            }
+            position += 4 + size;
+        }
+        throw new ZipException("invalid ZIP64 extra field");
+    }
+
+    private JarEntry createEntry(int index) {
+        int header = headers[index];
+        CentralDirectoryEntry entry = new CentralDirectoryEntry(this, getName(header), index);
+        int nameLength = nameLength(header);
+        int extraLength = directory.getShort(header + 30) & 0xFFFF;
+        int commentLength = directory.getShort(header + 32) & 0xFFFF;
+        entry.setMethod(directory.getShort(header + 10) & 0xFFFF);
+        entry.setTime(dosToJavaTime(directory.getInt(header + 12) & 0xFFFFFFFFL));
+        if (extraLength > 0) {
+            entry.setExtra(getBytes(header + HEADER_SIZE + nameLength, extraLength));
+        }
+        try {
+            entry.setCrc(directory.getInt(header + 16) & 0xFFFFFFFFL);
+            entry.setSize(getSize(header, 24, 0));
+            entry.setCompressedSize(getSize(header, 20, 1));
+        } catch (ZipException e) {
+            throw new IllegalStateException("Invalid entry " + entry.getName() + ": " + e.getMessage(), e);
+        }
+        if (commentLength > 0) {
+            entry.setComment(decode(header + HEADER_SIZE + nameLength + extraLength, commentLength));
+        }
+        return entry;
+    }
+
+    /**
+     * Convert a MS-DOS date and time to a Java time, in the default time zone like {@link ZipEntry#getTime()}.
+     */
+    private static long dosToJavaTime(long dosTime) {
+        Calendar calendar = new GregorianCalendar(
+                (int) ((dosTime >> 25) & 0x7f) + 1980,
+                (int) ((dosTime >> 21) & 0x0f) - 1,
+                (int) ((dosTime >> 16) & 0x1f),
+                (int) ((dosTime >> 11) & 0x1f),
+                (int) ((dosTime >> 5) & 0x3f),
+                (int) ((dosTime << 1) & 0x3e));
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Entry created from a central directory header, which remembers its index to be read without a lookup.
+     */
+    private static final class CentralDirectoryEntry extends JarEntry {
+        private final int index;
+
+        /**
+         * The archive of the entry, or <code>null</code> once it is closed.
+         */
+        private volatile CentralDirectoryArchive archive;
+
+        CentralDirectoryEntry(CentralDirectoryArchive archive, String name, int index) {
+            super(name);
+            this.archive = archive;
+            this.index = index;
+        }
+    }
+
+    /**
+     * The entries in the order of their names, created on first access, or all created once the archive is closed.
+     */
+    private static final class EntryList extends AbstractList<JarEntry> implements RandomAccess {
+        private final AtomicReferenceArray<JarEntry> cache;
+
+        /**
+         * The archive of the entries, or <code>null</code> once it is closed.
+         */
+        private volatile CentralDirectoryArchive archive;
+
+        EntryList(CentralDirectoryArchive archive) {
+            this.archive = archive;
+            this.cache = new AtomicReferenceArray<>(archive.headers.length);
+        }
+
+        @Override
+        public JarEntry get(int index) {
+            JarEntry entry = cache.get(index);
+            if (entry == null) {
+                CentralDirectoryArchive archive = this.archive;
+                if (archive == null) {
+                    // the entry could not be created before the archive was closed
+                    throw new IllegalStateException("Invalid entry " + index);
+                }
+                entry = archive.createEntry(index);
+                if (!cache.compareAndSet(index, null, entry)) {
+                    entry = cache.get(index);
+                }
+            }
+            return entry;
+        }
+
+        @Override
+        public int size() {
+            return cache.length();
+        }
+
+        /**
+         * Create the remaining entries, and release the references to the archive.
+         */
+        void detach() {
+            if (archive == null) {
+                return;
+            }
+            for (int i = 0; i < cache.length(); i++) {
+                try {
+                    ((CentralDirectoryEntry) get(i)).archive = null;
+                } catch (IllegalStateException e) {
+                    // an invalid entry stays invalid
+                }
+            }
+            archive = null;
+        }
+    }
+
+    /**
+     * View of the bytes of a name in the central directory, where each byte is a char: ASCII characters are read as
+     * such, and the other characters as one or more non ASCII chars.
+     */
+    private final class RawName implements CharSequence {
+        private final int position;
+
+        private final int length;
+
+        RawName(int position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) (directory.get(position + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > length) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new RawName(position + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return decode(position, length);
+        }
+    }
+
+    /**
+     * Inflater stream of a deflated entry, which ends its inflater when closed. Like the streams of
+     * {@link java.util.zip.ZipFile}, a dummy byte is provided to the inflater after the data, as required when it
+     * does not expect a ZLIB header.
+     */
+    private static final class EntryInflaterInputStream extends InflaterInputStream {
+        private final long size;
+
+        private long read;
+
+        private boolean eof;
+
+        private boolean closed;
+
+        EntryInflaterInputStream(InputStream in, long size) {
+            super(in, new Inflater(true), (int) Math.max(64, Math.min(BUFFER_SIZE, size)));
+            this.size = size;
+        }
+
+        // read() is implemented with this method
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                read += count;
+            }
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                return 0;
+            }
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, size - read));
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inf.end();
+                super.close();
+            }
+        }
+    }
+}
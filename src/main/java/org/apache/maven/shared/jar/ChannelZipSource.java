@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ZIP source reading a file through a channel. When the file is on the default file system, it is read through a
+ * {@link FileChannel}: the retained regions are memory mapped, and the other ones are read with positional reads, which
+ * are safe to run concurrently. On other file systems, such as a ZIP file system, the regions are copied, and the reads
+ * are serialized since they move the position of the channel.
+ */
+class ChannelZipSource implements ZipSource {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final SeekableByteChannel channel;
+
+    private final long size;
+
+    ChannelZipSource(Path path) throws IOException {
+        if (path.getFileSystem() == FileSystems.getDefault()) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } else {
+            channel = Files.newByteChannel(path, StandardOpenOption.READ);
+        }
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer map(long position, int length) throws IOException {
+        if (channel instanceof FileChannel) {
+            return ((FileChannel) channel).map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        return read(position, length);
+    }
+
+    @Override
+    public ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of ZIP archive");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public InputStream open(long position, long length) {
+        return new RegionInputStream(position, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int read(ByteBuffer buffer, long position) throws IOException {
+        if (channel instanceof FileChannel) {
+            return ((FileChannel) channel).read(buffer, position);
+        }
+        synchronized (channel) {
+            channel.position(position);
+            return channel.read(buffer);
+        }
+    }
+
+    /**
+     * Stream of a region of the file, read with buffered positional reads.
+     */
+    private final class RegionInputStream extends InputStream {
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private long position;
+
+        private long remaining;
+
+        RegionInputStream(long position, long length) {
+            this.position = position;
+            this.remaining = length;
+            buffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.min(Math.max(0, n), buffer.remaining() + remaining);
+            int fromBuffer = (int) Math.min(skipped, buffer.remaining());
+            buffer.position(buffer.position() + fromBuffer);
+            position += skipped - fromBuffer;
+            remaining -= skipped - fromBuffer;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, buffer.remaining() + remaining);
+        }
+
+        private boolean fill() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), remaining));
+            int read = ChannelZipSource.this.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of ZIP archive");
+            }
+            position += read;
+            remaining -= read;
+            buffer.flip();
+            return buffer.hasRemaining() || fill();
+        }
+    }
+}
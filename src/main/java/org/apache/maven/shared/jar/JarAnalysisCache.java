@@ -0,0 +1,555 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarVersionedRuntime;
+import org.apache.maven.shared.jar.classes.JarVersionedRuntimes;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the results of the analyses of JAR files, so that the JARs that did not change since a previous
+ * build, such as the artifacts of the local repository, are not analyzed again. The cached results are the classes,
+ * including those of the runtime versions of a Multi-Release JAR, the identification, the file and bytecode hashes and
+ * the file digests found in the {@link JarData}.
+ * <p>
+ * Each JAR has its own entry in the cache directory, keyed by the path of the JAR, and holding its size, last modified
+ * time and file hash. An entry is used when the size and last modified time of the JAR are unchanged, or when the JAR
+ * was touched but its file hash is unchanged. Only the JARs on the default file system are cached, as the JARs held in
+ * memory or nested in another JAR have no last modified time. The results are compressed.
+ * <p>
+ * The cache is bounded in size: once its entries take more than the maximum size, the least recently used entries are
+ * deleted. It can be shared between threads and processes, as the entries are replaced atomically.
+ * <p>
+ * Typical usage:
+ * <pre>
+ *  JarAnalyzer jarAnalyzer = new JarAnalyzer( jarFile );
+ *  try
+ *  {
+ *      if ( !cache.load( jarAnalyzer ) )
+ *      {
+ *          jarClassesAnalysis.analyze( jarAnalyzer );
+ *          jarIdentificationAnalysis.analyze( jarAnalyzer );
+ *          cache.store( jarAnalyzer );
+ *      }
+ *      // use jarAnalyzer.getJarData() in some way
+ *  }
+ *  finally
+ *  {
+ *      jarAnalyzer.closeQuietly();
+ *  }
+ * </pre>
+ *
+ * @since 3.2.1
+ */
+public class JarAnalysisCache {
+    /**
+     * The default maximum size of the cache, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x4A415243;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String ENTRY_SUFFIX = ".jarc";
+
+    private static final String TEMPORARY_PREFIX = "entry-";
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * The age of the temporary files left by a process that died while storing an entry, deleted by the eviction.
+     */
+    private static final long STALE_TEMPORARY_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    /**
+     * The size of the entries, or -1 until the directory is scanned.
+     */
+    private long size = -1;
+
+    /**
+     * Constructor of a cache bounded to {@link #DEFAULT_MAX_SIZE}.
+     *
+     * @param directory the directory to hold the entries in, created if needed
+     */
+    public JarAnalysisCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory to hold the entries in, created if needed
+     * @param maxSize the maximum size of the entries, in bytes
+     */
+    public JarAnalysisCache(Path directory, long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Populate the JAR data with the cached results of a previous analysis of the same JAR, if any. The analyses that
+     * find their results in the JAR data then return them without reading the JAR.
+     *
+     * @param jarAnalyzer the JAR analyzer of the JAR, which must not yet have been closed
+     * @return whether the cached results were loaded
+     */
+    public boolean load(JarAnalyzer jarAnalyzer) {
+        JarData jarData = jarAnalyzer.getJarData();
+        Path jar = getCachedPath(jarData);
+        if (jar == null) {
+            return false;
+        }
+
+        Path entry = getEntry(jar);
+        CachedAnalysis cached;
+        boolean touched;
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT_VERSION
+                    || !jar.toString().equals(in.readUTF())) {
+                return false;
+            }
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            String fileHash = in.readUTF();
+            if (size != attributes.size()) {
+                return false;
+            }
+            touched = lastModified != attributes.lastModifiedTime().toMillis();
+            if (touched && !fileHash.equals(getFileHash(jarAnalyzer))) {
+                return false;
+            }
+
+            cached = new CachedAnalysis(fileHash);
+            cached.read(new DataInputStream(new BufferedInputStream(new InflaterInputStream(in, inflater))));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.warn("Ignoring the unreadable analysis cache entry " + entry + " of " + jar, e);
+            deleteQuietly(entry);
+            return false;
+        } finally {
+            inflater.end();
+        }
+
+        cached.populate(jarAnalyzer);
+        if (touched) {
+            // record the new last modified time, not to hash the JAR again on the next loads
+            store(jarAnalyzer);
+            return true;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Unable to record the use of the analysis cache entry " + entry, e);
+        }
+        return true;
+    }
+
+    /**
+     * Store the results found in the JAR data, replacing the cached results of the JAR if any, and evict the least
+     * recently used entries if the cache is then too large. The file hash is computed if it was not yet.
+     *
+     * @param jarAnalyzer the JAR analyzer of the analyzed JAR, which must not yet have been closed
+     */
+    public void store(JarAnalyzer jarAnalyzer) {
+        JarData jarData = jarAnalyzer.getJarData();
+        Path jar = getCachedPath(jarData);
+        if (jar == null) {
+            return;
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            String fileHash = getFileHash(jarAnalyzer);
+
+            Files.createDirectories(directory);
+            Path entry = getEntry(jar);
+            Path tmp = Files.createTempFile(directory, TEMPORARY_PREFIX, TEMPORARY_SUFFIX);
+            Deflater deflater = new Deflater();
+            try {
+                try (DataOutputStream out =
+                        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeUTF(jar.toString());
+                    out.writeLong(attributes.size());
+                    out.writeLong(attributes.lastModifiedTime().toMillis());
+                    out.writeUTF(fileHash);
+
+                    DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater);
+                    DataOutputStream body = new DataOutputStream(new BufferedOutputStream(deflating));
+                    new CachedAnalysis(jarData).write(body);
+                    body.flush();
+                    deflating.finish();
+                }
+                long written = Files.size(tmp);
+                long replaced = Files.exists(entry) ? Files.size(entry) : 0;
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                added(written - replaced);
+            } finally {
+                deflater.end();
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to cache the analysis of " + jarData.getLocation(), e);
+        }
+    }
+
+    private static Path getCachedPath(JarData jarData) {
+        Path path = jarData.getPath();
+        if (path == null || path.getFileSystem() != FileSystems.getDefault()) {
+            return null;
+        }
+        return path.toAbsolutePath().normalize();
+    }
+
+    private Path getEntry(Path jar) {
+        return directory.resolve(DigestUtils.sha1Hex(jar.toString()) + ENTRY_SUFFIX);
+    }
+
+    private static String getFileHash(JarAnalyzer jarAnalyzer) throws IOException {
+        JarData jarData = jarAnalyzer.getJarData();
+        String fileHash = jarData.getFileHash();
+        if (fileHash == null) {
+            try (InputStream inputStream = jarAnalyzer.getInputStream()) {
+                fileHash = DigestUtils.sha1Hex(inputStream);
+            }
+            jarData.setFileHash(fileHash);
+        }
+        return fileHash;
+    }
+
+    /**
+     * Account for the entry written, and evict the least recently used entries if the cache is too large.
+     */
+    private synchronized void added(long delta) throws IOException {
+        if (size < 0) {
+            deleteStaleTemporaryFiles();
+            size = 0;
+            for (Path entry : listEntries()) {
+                size += sizeQuietly(entry);
+            }
+        } else {
+            size += delta;
+        }
+        if (size > maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() throws IOException {
+        deleteStaleTemporaryFiles();
+        List<Path> entries = listEntries();
+        Map<Path, Long> lastUsed = new LinkedHashMap<>();
+        size = 0;
+        for (Path entry : entries) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                lastUsed.put(entry, attributes.lastModifiedTime().toMillis());
+                size += attributes.size();
+            } catch (NoSuchFileException e) {
+                // evicted by another process
+            }
+        }
+        List<Path> leastRecentlyUsed = new ArrayList<>(lastUsed.keySet());
+        leastRecentlyUsed.sort(Comparator.comparing(lastUsed::get));
+        for (Path entry : leastRecentlyUsed) {
+            if (size <= maxSize) {
+                break;
+            }
+            long entrySize = sizeQuietly(entry);
+            if (deleteQuietly(entry)) {
+                size -= entrySize;
+            }
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Delete the temporary files left by the processes that died while storing an entry. The recent ones may still be
+     * written by another process.
+     */
+    private void deleteStaleTemporaryFiles() throws IOException {
+        long staleTime = System.currentTimeMillis() - STALE_TEMPORARY_AGE;
+        try (DirectoryStream<Path> stream =
+                Files.newDirectoryStream(directory, TEMPORARY_PREFIX + "*" + TEMPORARY_SUFFIX)) {
+            for (Path tmp : stream) {
+                try {
+                    if (Files.getLastModifiedTime(tmp).toMillis() < staleTime) {
+                        deleteQuietly(tmp);
+                    }
+                } catch (NoSuchFileException e) {
+                    // moved or deleted by its process
+                }
+            }
+        }
+    }
+
+    private static long sizeQuietly(Path entry) {
+        try {
+            return Files.size(entry);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private boolean deleteQuietly(Path entry) {
+        try {
+            return Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            logger.debug("Unable to delete the analysis cache entry " + entry, e);
+            return false;
+        }
+    }
+
+    /**
+     * The results of the analyses of a JAR, as cached.
+     */
+    private static final class CachedAnalysis {
+        private final String fileHash;
+
+        private String bytecodeHash;
+
+        private Map<String, String> fileDigests;
+
+        private JarIdentification identification;
+
+        private JarClasses classes;
+
+        private NavigableMap<Integer, JarClasses> versionedClasses;
+
+        CachedAnalysis(String fileHash) {
+            this.fileHash = fileHash;
+        }
+
+        CachedAnalysis(JarData jarData) {
+            this.fileHash = jarData.getFileHash();
+            this.bytecodeHash = jarData.getBytecodeHash();
+            this.fileDigests = jarData.getFileDigests();
+            this.identification = jarData.getJarIdentification();
+            this.classes = jarData.getJarClasses();
+            JarVersionedRuntimes versionedRuntimes = jarData.getVersionedRuntimes();
+            if (versionedRuntimes != null) {
+                versionedClasses = new TreeMap<>();
+                for (Map.Entry<Integer, JarVersionedRuntime> runtime :
+                        versionedRuntimes.getVersionedRuntimeMap().entrySet()) {
+                    versionedClasses.put(runtime.getKey(), runtime.getValue().getJarClasses());
+                }
+            }
+        }
+
+        void write(DataOutput out) throws IOException {
+            writeString(out, bytecodeHash);
+
+            out.writeInt(fileDigests.size());
+            for (Map.Entry<String, String> digest : fileDigests.entrySet()) {
+                out.writeUTF(digest.getKey());
+                out.writeUTF(digest.getValue());
+            }
+
+            out.writeBoolean(identification != null);
+            if (identification != null) {
+                writeString(out, identification.getGroupId());
+                writeString(out, identification.getArtifactId());
+                writeString(out, identification.getVersion());
+                writeString(out, identification.getName());
+                writeString(out, identification.getVendor());
+                writeList(out, identification.getPotentialGroupIds());
+                writeList(out, identification.getPotentialArtifactIds());
+                writeList(out, identification.getPotentialVersions());
+                writeList(out, identification.getPotentialNames());
+                writeList(out, identification.getPotentialVendors());
+            }
+
+            out.writeBoolean(classes != null);
+            if (classes != null) {
+                classes.writeTo(out);
+            }
+
+            out.writeBoolean(versionedClasses != null);
+            if (versionedClasses != null) {
+                out.writeInt(versionedClasses.size());
+                for (Map.Entry<Integer, JarClasses> version : versionedClasses.entrySet()) {
+                    out.writeInt(version.getKey());
+                    version.getValue().writeTo(out);
+                }
+            }
+        }
+
+        void read(DataInput in) throws IOException {
+            bytecodeHash = readString(in);
+
+            fileDigests = new LinkedHashMap<>();
+            int digests = in.readInt();
+            for (int i = 0; i < digests; i++) {
+                fileDigests.put(in.readUTF(), in.readUTF());
+            }
+
+            if (in.readBoolean()) {
+                identification = new JarIdentification();
+                identification.setGroupId(readString(in));
+                identification.setArtifactId(readString(in));
+                identification.setVersion(readString(in));
+                identification.setName(readString(in));
+                identification.setVendor(readString(in));
+                for (String groupId : readList(in)) {
+                    identification.addGroupId(groupId);
+                }
+                for (String artifactId : readList(in)) {
+                    identification.addArtifactId(artifactId);
+                }
+                for (String version : readList(in)) {
+                    identification.addVersion(version);
+                }
+                for (String name : readList(in)) {
+                    identification.addName(name);
+                }
+                for (String vendor : readList(in)) {
+                    identification.addVendor(vendor);
+                }
+            }
+
+            if (in.readBoolean()) {
+                classes = JarClasses.readFrom(in);
+            }
+
+            if (in.readBoolean()) {
+                versionedClasses = new TreeMap<>();
+                int versions = in.readInt();
+                for (int i = 0; i < versions; i++) {
+                    versionedClasses.put(in.readInt(), JarClasses.readFrom(in));
+                }
+            }
+        }
+
+        /**
+         * Populate the JAR data with these results, taking the entries of the runtime versions from the JAR.
+         */
+        void populate(JarAnalyzer jarAnalyzer) {
+            JarData jarData = jarAnalyzer.getJarData();
+            jarData.setFileHash(fileHash);
+            if (bytecodeHash != null) {
+                jarData.setBytecodeHash(bytecodeHash);
+            }
+            if (!fileDigests.isEmpty()) {
+                jarData.setFileDigests(fileDigests);
+            }
+            if (identification != null) {
+                jarData.setJarIdentification(identification);
+            }
+            if (classes != null) {
+                jarData.setJarClasses(classes);
+            }
+            if (versionedClasses != null) {
+                JarEntryIndex entryIndex = jarAnalyzer.getEntryIndex();
+                jarData.setRootEntries(entryIndex.getReleaseEntries(JarEntryIndex.ROOT));
+                NavigableMap<Integer, JarVersionedRuntime> runtimes = new TreeMap<>();
+                for (Map.Entry<Integer, JarClasses> version : versionedClasses.entrySet()) {
+                    runtimes.put(
+                            version.getKey(),
+                            new JarVersionedRuntime(
+                                    entryIndex.getReleaseEntries(version.getKey()), version.getValue()));
+                }
+                jarData.setVersionedRuntimes(new JarVersionedRuntimes(runtimes));
+            }
+        }
+
+        private static void writeString(DataOutput out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readString(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        private static void writeList(DataOutput out, List<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static List<String> readList(DataInput in) throws IOException {
+            int size = in.readInt();
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(in.readUTF());
+            }
+            return values;
+        }
+    }
+}
@@ -18,19 +18,20 @@
  */
 package org.apache.maven.shared.jar;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 
 /**
@@ -69,56 +70,157 @@ public class JarAnalyzer {
      */
     private static final Pattern CLASS_FILTER = Pattern.compile("[A-Za-z0-9]*\\.class$");
 
+    private static final int BUFFER_SIZE = 8192;
+
     /**
-     * Pattern to filter JAR entries for Maven POM files.
+     * The associated JAR archive.
      */
-    private static final Pattern MAVEN_POM_FILTER = Pattern.compile("META-INF/maven/.*/pom\\.xml$");
+    private final JarArchive archive;
 
     /**
-     * Pattern to filter JAR entries for text files that may contain a version.
+     * Contains information about the data collected so far.
      */
-    private static final Pattern VERSION_FILTER = Pattern.compile("[Vv][Ee][Rr][Ss][Ii][Oo][Nn]");
+    private final JarData jarData;
 
     /**
-     * The associated JAR file.
+     * The classification of the entries.
      */
-    private final JarFile jarFile;
+    private final JarEntryIndex entryIndex;
 
     /**
-     * Contains information about the data collected so far.
+     * Constructor. Opens the JAR file, so should be matched by a call to {@link #closeQuietly()}.
+     *
+     * @param file the JAR file to open
+     * @throws java.io.IOException if there is a problem opening the JAR file, or reading the manifest. The JAR file
+     *             will be closed if this occurs.
      */
-    private final JarData jarData;
+    public JarAnalyzer(File file) throws IOException {
+        this(file, false);
+    }
 
     /**
      * Constructor. Opens the JAR file, so should be matched by a call to {@link #closeQuietly()}.
+     * <p>
+     * When <code>mapCentralDirectory</code> is <code>true</code>, the central directory of the JAR is memory mapped
+     * rather than parsed by a {@link JarFile}: the entries are then only created when they are accessed, which avoids
+     * creating them all for the analyses that only need some of them, such as the classes or the Maven POM files.
+     * The entries are read from the same central directory, so the analyses give the same results.
      *
      * @param file the JAR file to open
+     * @param mapCentralDirectory whether to memory map the central directory instead of using a {@link JarFile}
      * @throws java.io.IOException if there is a problem opening the JAR file, or reading the manifest. The JAR file
      *             will be closed if this occurs.
+     * @since 3.2.1
      */
-    public JarAnalyzer(File file) throws IOException {
-        try {
-            this.jarFile = new JarFile(file);
-        } catch (ZipException e) {
-            ZipException ioe = new ZipException("Failed to open file " + file + " : " + e.getMessage());
-            ioe.initCause(e);
-            throw ioe;
-        }
+    public JarAnalyzer(File file, boolean mapCentralDirectory) throws IOException {
+        this(open(file, mapCentralDirectory), (manifest, entries) -> new JarData(file, manifest, entries));
+    }
 
-        // Obtain entries list.
-        List<JarEntry> entries = Collections.list(jarFile.entries());
+    /**
+     * Constructor for a JAR on any file system, such as a JAR in a ZIP file system. Opens the JAR, so should be
+     * matched by a call to {@link #closeQuietly()}. The central directory of the JAR is read as with
+     * {@link #JarAnalyzer(File, boolean)}, memory mapped if the JAR is on the default file system.
+     *
+     * @param path the path of the JAR to open
+     * @throws java.io.IOException if there is a problem opening the JAR, or reading the manifest. The JAR will be
+     *             closed if this occurs.
+     * @since 3.2.1
+     */
+    public JarAnalyzer(Path path) throws IOException {
+        this(open(path), (manifest, entries) -> new JarData(path, manifest, entries));
+    }
 
-        // Sorting of list is done by name to ensure a bytecode hash is always consistent.
-        entries.sort(Comparator.comparing(ZipEntry::getName));
+    /**
+     * Constructor for a JAR held in memory, which is read in place.
+     *
+     * @param name the file name of the JAR, used to identify it, or <code>null</code> if it is unknown
+     * @param content the content of the JAR, which must not be modified while the analyzer is in use
+     * @throws java.io.IOException if there is a problem reading the JAR, or its manifest
+     * @since 3.2.1
+     */
+    public JarAnalyzer(String name, byte[] content) throws IOException {
+        this(name, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Constructor for a JAR held in memory, such as a memory mapped file, which is read in place.
+     *
+     * @param name the file name of the JAR, used to identify it, or <code>null</code> if it is unknown
+     * @param content the content of the JAR, from the position to the limit of the buffer. The position and limit of
+     *            the buffer are not changed, but its content must not be modified while the analyzer is in use.
+     * @throws java.io.IOException if there is a problem reading the JAR, or its manifest
+     * @since 3.2.1
+     */
+    public JarAnalyzer(String name, ByteBuffer content) throws IOException {
+        this(open(new ByteBufferZipSource(content), name), (manifest, entries) -> new JarData(name, manifest, entries));
+    }
+
+    private JarAnalyzer(JarArchive archive, BiFunction<Manifest, List<JarEntry>, JarData> jarDataFactory)
+            throws IOException {
+        this.archive = archive;
+
+        // Entries are sorted by name to ensure a bytecode hash is always consistent.
+        List<JarEntry> entries = archive.getEntries();
 
         Manifest manifest;
         try {
-            manifest = jarFile.getManifest();
+            manifest = archive.getManifest();
         } catch (IOException e) {
             closeQuietly();
             throw e;
         }
-        this.jarData = new JarData(file, manifest, entries);
+        this.jarData = jarDataFactory.apply(manifest, entries);
+        this.entryIndex = new JarEntryIndex(entries, archive::getEntryName);
+    }
+
+    /**
+     * Constructor for a JAR whose entries were already read, such as from a stream.
+     */
+    JarAnalyzer(String name, JarArchive archive) throws IOException {
+        this(archive, (manifest, entries) -> new JarData(name, manifest, entries));
+    }
+
+    /**
+     * Constructor for a JAR nested in the JAR of another analyzer, which is read in place if it is stored, and
+     * inflated in memory otherwise.
+     */
+    private JarAnalyzer(JarAnalyzer parent, JarEntry entry, ByteBuffer content) throws IOException {
+        this(
+                open(new ByteBufferZipSource(content), parent.getJarData().getLocation() + "!/" + entry.getName()),
+                (manifest, entries) -> new JarData(parent.getJarData(), entry.getName(), manifest, entries));
+    }
+
+    private static JarArchive open(File file, boolean mapCentralDirectory) throws IOException {
+        try {
+            if (mapCentralDirectory) {
+                return new CentralDirectoryArchive(new ChannelZipSource(file.toPath()));
+            }
+            return new JarFileArchive(file);
+        } catch (ZipException e) {
+            throw failedToOpen(file, e);
+        }
+    }
+
+    private static JarArchive open(Path path) throws IOException {
+        try {
+            return new CentralDirectoryArchive(new ChannelZipSource(path));
+        } catch (ZipException e) {
+            throw failedToOpen(path, e);
+        }
+    }
+
+    private static JarArchive open(ZipSource source, String name) throws IOException {
+        try {
+            return new CentralDirectoryArchive(source);
+        } catch (ZipException e) {
+            throw failedToOpen(name, e);
+        }
+    }
+
+    private static ZipException failedToOpen(Object location, ZipException e) {
+        ZipException ioe = new ZipException("Failed to open file " + location + " : " + e.getMessage());
+        ioe.initCause(e);
+        return ioe;
     }
 
     /**
@@ -130,7 +232,56 @@ public class JarAnalyzer {
      * @throws java.io.IOException if there is a problem opening the individual entry
      */
     public InputStream getEntryInputStream(JarEntry entry) throws IOException {
-        return jarFile.getInputStream(entry);
+        return archive.getInputStream(entry);
+    }
+
+    /**
+     * Get the whole content of the JAR, as stored, to compute a hash of the file for instance. The caller should close
+     * the input stream, and should not retain the stream as the JAR may be closed elsewhere.
+     *
+     * @return the input stream of the JAR
+     * @throws java.io.IOException if there is a problem opening the JAR
+     * @since 3.2.1
+     */
+    public InputStream getInputStream() throws IOException {
+        return archive.getArchiveInputStream();
+    }
+
+    /**
+     * Open a JAR nested in this JAR, without extracting it to disk. The nested JAR is read in place when it is stored,
+     * as in Spring Boot executable JARs, and is inflated in memory otherwise. Its {@link JarData} refers to the data of
+     * this JAR as its parent. The returned analyzer should be closed, but reads from this JAR, so must not be used once
+     * this JAR is closed.
+     *
+     * @param entry a nested JAR entry of this JAR
+     * @return the analyzer of the nested JAR
+     * @throws java.io.IOException if there is a problem reading the nested JAR
+     * @since 3.2.1
+     */
+    public JarAnalyzer openNestedJar(JarEntry entry) throws IOException {
+        ByteBuffer content = archive.getStoredContent(entry);
+        if (content == null) {
+            content = ByteBuffer.wrap(readFully(entry));
+        }
+        return new JarAnalyzer(this, entry, content);
+    }
+
+    private byte[] readFully(JarEntry entry) throws IOException {
+        long size = entry.getSize();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Nested JAR " + entry.getName() + " is too large to be read in memory: " + size);
+        }
+        try (InputStream is = getEntryInputStream(entry)) {
+            if (is == null) {
+                throw new IOException("Nested JAR " + entry.getName() + " not found");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(size >= 0 ? (int) size : BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int n = is.read(buffer); n >= 0; n = is.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
     }
 
     /**
@@ -138,7 +289,7 @@ public class JarAnalyzer {
      */
     public void closeQuietly() {
         try {
-            jarFile.close();
+            archive.close();
         } catch (IOException e) {
             // not much we can do about it but ignore it
         }
@@ -176,10 +327,11 @@ public class JarAnalyzer {
     /**
      * Get all the classes in the JAR.
      *
-     * @return the list of files found, in {@link java.util.jar.JarEntry} elements
+     * @return a new list of the files found, in {@link java.util.jar.JarEntry} elements. Use
+     *         {@link #getEntryIndex()} to read them without copying.
      */
     public List<JarEntry> getClassEntries() {
-        return filterEntries(CLASS_FILTER);
+        return new ArrayList<>(entryIndex.getEntries(JarEntryIndex.CLASS));
     }
 
     /**
@@ -197,19 +349,53 @@ public class JarAnalyzer {
     /**
      * Get all the Maven POM entries in the JAR.
      *
-     * @return the list of files found, in {@link java.util.jar.JarEntry} elements
+     * @return a new list of the files found, in {@link java.util.jar.JarEntry} elements. Use
+     *         {@link #getEntryIndex()} to read them without copying.
      */
     public List<JarEntry> getMavenPomEntries() {
-        return filterEntries(MAVEN_POM_FILTER);
+        return new ArrayList<>(entryIndex.getEntries(JarEntryIndex.MAVEN_POM));
     }
 
     /**
      * Get all the version text files in the JAR.
      *
-     * @return the list of files found, in {@link java.util.jar.JarEntry} elements
+     * @return a new list of the files found, in {@link java.util.jar.JarEntry} elements. Use
+     *         {@link #getEntryIndex()} to read them without copying.
      */
     public List<JarEntry> getVersionEntries() {
-        return filterEntries(VERSION_FILTER);
+        return new ArrayList<>(entryIndex.getEntries(JarEntryIndex.VERSION));
+    }
+
+    /**
+     * Get all the service provider configuration files in the JAR.
+     *
+     * @return a new list of the files found, in {@link java.util.jar.JarEntry} elements. Use
+     *         {@link #getEntryIndex()} to read them without copying.
+     * @since 3.2.1
+     */
+    public List<JarEntry> getServiceEntries() {
+        return new ArrayList<>(entryIndex.getEntries(JarEntryIndex.SERVICE));
+    }
+
+    /**
+     * Get all the nested archives in the JAR, whose name ends with <code>.jar</code> or <code>.war</code>.
+     *
+     * @return a new list of the files found, in {@link java.util.jar.JarEntry} elements. Use
+     *         {@link #getEntryIndex()} to read them without copying.
+     * @since 3.2.1
+     */
+    public List<JarEntry> getNestedJarEntries() {
+        return new ArrayList<>(entryIndex.getEntries(JarEntryIndex.ARCHIVE));
+    }
+
+    /**
+     * Get the classification of the entries in the JAR, computed once when the JAR was opened.
+     *
+     * @return the classification of the entries
+     * @since 3.2.1
+     */
+    public JarEntryIndex getEntryIndex() {
+        return entryIndex;
     }
 
     /**
@@ -224,7 +410,7 @@ public class JarAnalyzer {
     /**
      * Get the file that was opened by this analyzer.
      *
-     * @return the JAR file reference
+     * @return the JAR file reference, or <code>null</code> if the JAR was not opened from the default file system
      */
     public File getFile() {
         return jarData.getFile();
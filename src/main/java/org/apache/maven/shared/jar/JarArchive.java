@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.Manifest;
+
+/**
+ * The archive a {@link JarAnalyzer} reads the entries of a JAR from.
+ */
+interface JarArchive extends Closeable {
+    /**
+     * @return the entries of the archive, sorted by name
+     */
+    List<JarEntry> getEntries();
+
+    /**
+     * Get the name of an entry, without requiring the {@link JarEntry} to be created. Only the ASCII characters of the
+     * name are significant: the others may be replaced by any non ASCII character, and the length may differ.
+     *
+     * @param index the index of the entry in {@link #getEntries()}
+     * @return the name of the entry
+     */
+    CharSequence getEntryName(int index);
+
+    /**
+     * @param entry an entry of the archive
+     * @return the content of the entry
+     * @throws IOException if the entry cannot be read
+     */
+    InputStream getInputStream(JarEntry entry) throws IOException;
+
+    /**
+     * Get the content of a stored entry as a view of the archive, without copying it.
+     *
+     * @param entry an entry of the archive
+     * @return the content of the entry from position 0 to the limit, or <code>null</code> if the entry is compressed or
+     *         the archive cannot provide a view of it
+     * @throws IOException if the entry cannot be read
+     */
+    default ByteBuffer getStoredContent(JarEntry entry) throws IOException {
+        return null;
+    }
+
+    /**
+     * @return the whole content of the archive, as stored
+     * @throws IOException if the archive cannot be read
+     */
+    InputStream getArchiveInputStream() throws IOException;
+
+    /**
+     * @return the manifest of the archive, or <code>null</code> if there is none
+     * @throws IOException if the manifest cannot be read
+     */
+    Manifest getManifest() throws IOException;
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Analyze a large number of JAR files, such as the content of a whole local repository. Each JAR is opened, its classes
+ * and identification are analyzed, and it is closed again before its {@link JarData} is handed to a {@link Listener}, so
+ * the results are streamed back as each JAR finishes rather than being held in memory. This class is thread safe and
+ * immutable as it retains no state.
+ *
+ * Typical usage:
+ * <pre>
+ *  jarBatchAnalysis.analyze( jarPaths, 8, 16, new JarBatchAnalysis.Listener()
+ *  {
+ *      public void analyzed( JarData jarData )
+ *      {
+ *          // use jarData in some way
+ *      }
+ *
+ *      public void failed( Path jar, Exception e )
+ *      {
+ *          // report the failure
+ *      }
+ *  } );
+ * </pre>
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class JarBatchAnalysis {
+    private final JarClassesAnalysis classesAnalysis;
+
+    private final JarIdentificationAnalysis identificationAnalysis;
+
+    /**
+     * Receives the results of a batch analysis. Calls are serialized, so implementations need not be thread safe.
+     */
+    public interface Listener {
+        /**
+         * Called once a JAR has been analyzed. The JAR file is already closed at that point.
+         *
+         * @param jarData the data of the analyzed JAR, with its classes and identification populated
+         */
+        void analyzed(JarData jarData);
+
+        /**
+         * Called when a JAR could not be analyzed.
+         *
+         * @param jar the JAR that failed
+         * @param e the cause of the failure
+         */
+        void failed(Path jar, Exception e);
+    }
+
+    @Inject
+    public JarBatchAnalysis(JarClassesAnalysis classesAnalysis, JarIdentificationAnalysis identificationAnalysis) {
+        this.classesAnalysis = requireNonNull(classesAnalysis);
+        this.identificationAnalysis = requireNonNull(identificationAnalysis);
+    }
+
+    /**
+     * Analyze the given JARs, returning once all of them have been reported to the listener.
+     *
+     * The JARs are consumed lazily from the iterable, and a JAR is only opened once fewer than
+     * <code>maxOpenFiles</code> JARs are open, which also bounds the number of results pending at any time. The JARs
+     * are analyzed on a pool of <code>parallelism</code> threads, each JAR, including the parsing of its classes, on a
+     * single thread.
+     *
+     * @param jars the JARs to analyze
+     * @param parallelism the number of threads to analyze the JARs with
+     * @param maxOpenFiles the maximum number of JARs open at the same time
+     * @param listener the listener to report the results to
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the JARs to be analyzed.
+     *             JARs already being analyzed are still reported to the listener.
+     */
+    public void analyze(Iterable<Path> jars, int parallelism, int maxOpenFiles, Listener listener)
+            throws InterruptedException {
+        analyze(jars, parallelism, maxOpenFiles, null, listener);
+    }
+
+    /**
+     * Analyze the given JARs like {@link #analyze(Iterable, int, int, Listener)}, reusing the results cached by previous
+     * analyses of the unchanged JARs, and caching the results of the other ones.
+     *
+     * @param jars the JARs to analyze
+     * @param parallelism the number of threads to analyze the JARs with
+     * @param maxOpenFiles the maximum number of JARs open at the same time
+     * @param cache the cache of the results, or <code>null</code> to analyze every JAR
+     * @param listener the listener to report the results to
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the JARs to be analyzed.
+     *             JARs already being analyzed are still reported to the listener.
+     * @since 3.2.1
+     */
+    public void analyze(
+            Iterable<Path> jars, int parallelism, int maxOpenFiles, JarAnalysisCache cache, Listener listener)
+            throws InterruptedException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        if (maxOpenFiles < 1) {
+            throw new IllegalArgumentException("maxOpenFiles must be at least 1: " + maxOpenFiles);
+        }
+        requireNonNull(listener);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        Semaphore openFiles = new Semaphore(maxOpenFiles);
+        try {
+            for (Path jar : jars) {
+                openFiles.acquire();
+                pool.execute(() -> {
+                    try {
+                        analyze(jar, cache, listener);
+                    } finally {
+                        openFiles.release();
+                    }
+                });
+            }
+        } finally {
+            // wait for the JARs in flight
+            openFiles.acquireUninterruptibly(maxOpenFiles);
+            pool.shutdown();
+        }
+    }
+
+    private void analyze(Path jar, JarAnalysisCache cache, Listener listener) {
+        JarData jarData;
+        try {
+            JarAnalyzer jarAnalyzer = new JarAnalyzer(jar);
+            try {
+                jarData = jarAnalyzer.getJarData();
+                boolean cached = cache != null && cache.load(jarAnalyzer);
+                JarClasses cachedClasses = jarData.getJarClasses();
+                JarIdentification cachedIdentification = jarData.getJarIdentification();
+
+                // parsed on this thread, as the JARs are analyzed in parallel already
+                classesAnalysis.analyze(jarAnalyzer);
+                identificationAnalysis.analyze(jarAnalyzer);
+
+                if (cache != null
+                        && (!cached
+                                || jarData.getJarClasses() != cachedClasses
+                                || jarData.getJarIdentification() != cachedIdentification)) {
+                    cache.store(jarAnalyzer);
+                }
+            } finally {
+                jarAnalyzer.closeQuietly();
+            }
+        } catch (Exception e) {
+            synchronized (listener) {
+                listener.failed(jar, e);
+            }
+            return;
+        }
+
+        synchronized (listener) {
+            listener.analyzed(jarData);
+        }
+    }
+}
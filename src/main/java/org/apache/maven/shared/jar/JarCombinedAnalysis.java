@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.classes.ClassDetails;
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.classes.JarClassesOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compute the file hash, the bytecode hash and the classes of a JAR with a single read of the JAR. Computed separately
+ * by the {@link org.apache.maven.shared.jar.identification.hash.JarFileHashAnalyzer}, the
+ * {@link org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer} and the {@link JarClassesAnalysis},
+ * the JAR is read once for its file hash, and every class entry is inflated twice. Here the raw bytes of the JAR are
+ * read once, feeding the file digest, and the class entries are inflated from these same bytes, feeding both the
+ * bytecode digest and the class file reader.
+ * <p>
+ * The bytecode digest covers the class entries in the order of their names, so a class entry found before the ones
+ * preceding it is held in memory until they are digested. Past 16 MiB held, the class
+ * entries are inflated again for the bytecode digest. A JAR whose local entries cannot be read as a stream, such as
+ * one with prepended data, is read again for its file digest, each class entry being still inflated once. The results
+ * are identical to the ones of the separate analyses, and are cached in the {@link JarData} in the same way, so the
+ * separate analyses then return them without reading the JAR again. This class is thread safe and immutable as it
+ * retains no state.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class JarCombinedAnalysis {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    public JarCombinedAnalysis(JarClassesAnalysis classesAnalysis) {
+        this.classesAnalysis = requireNonNull(classesAnalysis);
+    }
+
+    /**
+     * Compute the file hash, the bytecode hash and the classes of a JAR, unless they are already cached in its data.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     * @return the data of the JAR, with its file hash, bytecode hash and classes populated
+     */
+    public JarData analyze(JarAnalyzer jarAnalyzer) {
+        JarData jarData = jarAnalyzer.getJarData();
+
+        JarClassesOptions options = JarClassesOptions.all();
+        JarClasses classes = jarData.getJarClasses();
+        boolean analyzeClasses = classes == null
+                || classes.isHeaderOnly()
+                || !classes.getFacets().containsAll(options.getFacets());
+        boolean hashBytecode = jarData.getBytecodeHash() == null;
+
+        if (jarData.getFileHash() == null) {
+            if ((analyzeClasses || hashBytecode)
+                    && analyzeArchiveStream(jarAnalyzer, analyzeClasses, hashBytecode, options)) {
+                analyzeClasses = false;
+                hashBytecode = jarData.getBytecodeHash() == null;
+            } else {
+                try (InputStream is = jarAnalyzer.getInputStream()) {
+                    MessageDigest sha1 = DigestUtils.getSha1Digest();
+                    DigestUtils.updateDigest(sha1, is);
+                    jarData.setFileHash(Hex.encodeHexString(sha1.digest()));
+                } catch (IOException e) {
+                    logger.warn("Unable to calculate the hashcode.", e);
+                }
+            }
+        }
+        if (!analyzeClasses && !hashBytecode) {
+            return jarData;
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        MessageDigest sha1 = DigestUtils.getSha1Digest();
+        boolean hashed = true;
+        Map<String, ClassDetails> classDetails = new HashMap<>();
+        for (JarEntry entry : jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS)) {
+            try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                if (is == null) {
+                    logger.warn("Unable to read class " + entry.getName() + " in JarAnalyzer File "
+                            + jarData.getLocation());
+                    hashed = false;
+                    continue;
+                }
+                readClass(
+                        jarData,
+                        new DigestInputStream(is, sha1),
+                        entry.getName(),
+                        analyzeClasses,
+                        options,
+                        classDetails,
+                        buffer);
+            } catch (IOException e) {
+                logger.warn("Unable to process JarAnalyzer File " + jarData.getLocation(), e);
+                hashed = false;
+            }
+        }
+
+        if (hashed && hashBytecode) {
+            jarData.setBytecodeHash(Hex.encodeHexString(sha1.digest()));
+        }
+        if (analyzeClasses) {
+            classesAnalysis.analyze(jarAnalyzer, classDetails, options);
+        }
+        return jarData;
+    }
+
+    /**
+     * Compute the file hash and the classes from a single read of the raw bytes of the JAR, the class entries being
+     * inflated from the local entries as they are read, and the bytecode hash unless too many class entries are out
+     * of order.
+     *
+     * @return whether the file hash and the classes were computed, or <code>false</code> if the local entries of the
+     *         JAR cannot be read as a stream
+     */
+    private boolean analyzeArchiveStream(
+            JarAnalyzer jarAnalyzer, boolean analyzeClasses, boolean hashBytecode, JarClassesOptions options) {
+        JarData jarData = jarAnalyzer.getJarData();
+        List<JarEntry> classEntries = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS);
+        Map<String, Integer> positions = new HashMap<>();
+        for (JarEntry entry : classEntries) {
+            positions.put(entry.getName(), positions.size());
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        MessageDigest fileSha1 = DigestUtils.getSha1Digest();
+        MessageDigest bytecodeSha1 = hashBytecode ? DigestUtils.getSha1Digest() : null;
+        Map<Integer, byte[]> pending = new HashMap<>();
+        long pendingBytes = 0;
+        Map<String, ClassDetails> classDetails = new HashMap<>();
+        try (InputStream raw = new DigestInputStream(jarAnalyzer.getInputStream(), fileSha1);
+                ZipInputStream zip = new ZipInputStream(new UnclosableInputStream(raw))) {
+            boolean[] found = new boolean[classEntries.size()];
+            int foundCount = 0;
+            int next = 0;
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                String name = entry.getName();
+                Integer position = positions.get(name);
+                if (position == null) {
+                    continue;
+                }
+                if (found[position]) {
+                    logger.debug("Duplicate entry " + name + " in " + jarData.getLocation());
+                    return false;
+                }
+                found[position] = true;
+                foundCount++;
+
+                if (bytecodeSha1 == null) {
+                    readClass(jarData, zip, name, analyzeClasses, options, classDetails, buffer);
+                } else if (position == next) {
+                    readClass(
+                            jarData,
+                            new DigestInputStream(zip, bytecodeSha1),
+                            name,
+                            analyzeClasses,
+                            options,
+                            classDetails,
+                            buffer);
+                    // digest the entries read ahead that now come next
+                    for (byte[] bytes = pending.remove(++next); bytes != null; bytes = pending.remove(++next)) {
+                        bytecodeSha1.update(bytes);
+                        pendingBytes -= bytes.length;
+                    }
+                } else {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    for (int n = zip.read(buffer); n >= 0; n = zip.read(buffer)) {
+                        out.write(buffer, 0, n);
+                    }
+                    byte[] bytes = out.toByteArray();
+                    readClass(
+                            jarData,
+                            new ByteArrayInputStream(bytes),
+                            name,
+                            analyzeClasses,
+                            options,
+                            classDetails,
+                            buffer);
+                    pendingBytes += bytes.length;
+                    if (pendingBytes > MAX_PENDING_BYTES) {
+                        // the class entries will be inflated again for the bytecode digest
+                        bytecodeSha1 = null;
+                        pending.clear();
+                    } else {
+                        pending.put(position, bytes);
+                    }
+                }
+            }
+            if (foundCount != classEntries.size()) {
+                logger.debug("Local entries not found in " + jarData.getLocation());
+                return false;
+            }
+            // the central directory
+            while (raw.read(buffer) >= 0) {
+                // digested
+            }
+        } catch (IOException e) {
+            logger.debug("Unable to read " + jarData.getLocation() + " as a stream", e);
+            return false;
+        }
+
+        jarData.setFileHash(Hex.encodeHexString(fileSha1.digest()));
+        if (bytecodeSha1 != null) {
+            jarData.setBytecodeHash(Hex.encodeHexString(bytecodeSha1.digest()));
+        }
+        if (analyzeClasses) {
+            classesAnalysis.analyze(jarAnalyzer, classDetails, options);
+        }
+        return true;
+    }
+
+    /**
+     * Read a class entry to its end, parsing it if requested. A class that cannot be parsed is skipped, its entry being
+     * still read to its end, so only a failure to read the entry itself is thrown.
+     */
+    private void readClass(
+            JarData jarData,
+            InputStream is,
+            String classname,
+            boolean analyzeClasses,
+            JarClassesOptions options,
+            Map<String, ClassDetails> classDetails,
+            byte[] buffer)
+            throws IOException {
+        if (analyzeClasses) {
+            try {
+                classDetails.put(
+                        classname, classesAnalysis.readClass(new UnclosableInputStream(is), classname, options));
+            } catch (ClassFormatException e) {
+                logger.warn(
+                        "Unable to process class " + classname + " in JarAnalyzer File " + jarData.getLocation(), e);
+            } catch (IOException e) {
+                logger.warn("Unable to process JarAnalyzer File " + jarData.getLocation(), e);
+            }
+        }
+        // the bytecode hash covers the whole entry, even where the class file reader stopped early
+        while (is.read(buffer) >= 0) {
+            // digested
+        }
+    }
+}
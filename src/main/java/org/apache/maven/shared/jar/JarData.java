@@ -19,8 +19,12 @@
 package org.apache.maven.shared.jar;
 
 import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.Attributes.Name;
 import java.util.jar.JarEntry;
@@ -29,6 +33,7 @@ import java.util.jar.Manifest;
 import org.apache.maven.shared.jar.classes.JarClasses;
 import org.apache.maven.shared.jar.classes.JarVersionedRuntimes;
 import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeDigests;
 
 /**
  * Class that contains details of a single JAR file and it's entries.
@@ -38,10 +43,35 @@ public final class JarData {
     private static final Name ATTR_MULTI_RELEASE = new Attributes.Name("Multi-Release");
 
     /**
-     * The JAR file.
+     * The JAR file, when it is on the default file system.
      */
     private final File file;
 
+    /**
+     * The path of the JAR, when it was read from a file system.
+     */
+    private final Path path;
+
+    /**
+     * The file name of the JAR.
+     */
+    private final String name;
+
+    /**
+     * The JAR containing this JAR, when it is nested in another JAR.
+     */
+    private final JarData parent;
+
+    /**
+     * The name of the entry of this JAR in its parent, when it is nested in another JAR.
+     */
+    private final String entryName;
+
+    /**
+     * The JARs nested in this JAR that were analyzed.
+     */
+    private List<JarData> nestedJars = Collections.emptyList();
+
     /**
      * Whether the JAR file is sealed.
      */
@@ -62,6 +92,21 @@ public final class JarData {
      */
     private String bytecodeHash;
 
+    /**
+     * Whether the bytecode hash can be computed, which it cannot once the class data is no longer readable.
+     */
+    private boolean bytecodeHashAvailable = true;
+
+    /**
+     * The digests of the entire file's contents, by algorithm name.
+     */
+    private Map<String, String> fileDigests = Collections.emptyMap();
+
+    /**
+     * The digests of the file's class entries.
+     */
+    private JarBytecodeDigests bytecodeDigests;
+
     /**
      * The JAR's manifest.
      */
@@ -100,7 +145,62 @@ public final class JarData {
      * @param entries  the JAR entries
      */
     public JarData(File file, Manifest manifest, List<JarEntry> entries) {
+        this(file, file != null ? file.toPath() : null, file != null ? file.getName() : null, manifest, entries);
+    }
+
+    /**
+     * Constructor for a JAR read from a path, which may be on any file system.
+     *
+     * @param path     the path of the JAR
+     * @param manifest the JAR manifest
+     * @param entries  the JAR entries
+     * @since 3.2.1
+     */
+    public JarData(Path path, Manifest manifest, List<JarEntry> entries) {
+        this(toFile(path), path, getFileName(path), manifest, entries);
+    }
+
+    /**
+     * Constructor for a JAR that was not read from a file system, such as a JAR held in memory.
+     *
+     * @param name     the file name of the JAR, or <code>null</code> if it is unknown
+     * @param manifest the JAR manifest
+     * @param entries  the JAR entries
+     * @since 3.2.1
+     */
+    public JarData(String name, Manifest manifest, List<JarEntry> entries) {
+        this(null, null, name, manifest, entries);
+    }
+
+    /**
+     * Constructor for a JAR nested in another JAR.
+     *
+     * @param parent    the data of the JAR containing this JAR
+     * @param entryName the name of the entry of this JAR in its parent
+     * @param manifest  the JAR manifest
+     * @param entries   the JAR entries
+     */
+    JarData(JarData parent, String entryName, Manifest manifest, List<JarEntry> entries) {
+        this(null, null, entryName.substring(entryName.lastIndexOf('/') + 1), parent, entryName, manifest, entries);
+    }
+
+    private JarData(File file, Path path, String name, Manifest manifest, List<JarEntry> entries) {
+        this(file, path, name, null, null, manifest, entries);
+    }
+
+    private JarData(
+            File file,
+            Path path,
+            String name,
+            JarData parent,
+            String entryName,
+            Manifest manifest,
+            List<JarEntry> entries) {
         this.file = file;
+        this.path = path;
+        this.name = name;
+        this.parent = parent;
+        this.entryName = entryName;
 
         this.manifest = manifest;
 
@@ -126,10 +226,72 @@ public final class JarData {
         return manifest;
     }
 
+    /**
+     * @return the JAR file, or <code>null</code> if the JAR was not read from the default file system
+     */
     public File getFile() {
         return file;
     }
 
+    /**
+     * @return the path of the JAR, or <code>null</code> if the JAR was not read from a file system
+     * @since 3.2.1
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the file name of the JAR, or <code>null</code> if it is unknown
+     * @since 3.2.1
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the path of the JAR, or its file name if it was not read from a file system, to identify it in messages.
+     *         The location of a nested JAR is the location of its parent, followed by <code>!/</code> and its entry
+     *         name.
+     * @since 3.2.1
+     */
+    public String getLocation() {
+        if (parent != null) {
+            return parent.getLocation() + "!/" + entryName;
+        }
+        return path != null ? path.toString() : name;
+    }
+
+    /**
+     * @return the data of the JAR containing this JAR, or <code>null</code> if this JAR is not nested in another JAR
+     * @since 3.2.1
+     */
+    public JarData getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the name of the entry of this JAR in its parent, or <code>null</code> if this JAR is not nested in
+     *         another JAR
+     * @since 3.2.1
+     */
+    public String getEntryName() {
+        return entryName;
+    }
+
+    /**
+     * @return the JARs nested in this JAR, in the order of their entries, when they were analyzed by a
+     *         {@link JarNestedAnalysis}
+     * @since 3.2.1
+     */
+    public List<JarData> getNestedJars() {
+        return nestedJars;
+    }
+
+    public void setNestedJars(List<JarData> nestedJars) {
+        this.nestedJars = Collections.unmodifiableList(nestedJars);
+    }
+
     public boolean isSealed() {
         return aSealed;
     }
@@ -146,6 +308,20 @@ public final class JarData {
         return fileHash;
     }
 
+    /**
+     * @return the hexadecimal digests of the entire file's contents by algorithm name, such as <code>SHA-256</code>,
+     *         when they were computed by a
+     *         {@link org.apache.maven.shared.jar.identification.hash.JarFileDigestAnalyzer}
+     * @since 3.2.1
+     */
+    public Map<String, String> getFileDigests() {
+        return fileDigests;
+    }
+
+    public void setFileDigests(Map<String, String> fileDigests) {
+        this.fileDigests = Collections.unmodifiableMap(new LinkedHashMap<>(fileDigests));
+    }
+
     public void setBytecodeHash(String bytecodeHash) {
         this.bytecodeHash = bytecodeHash;
     }
@@ -154,6 +330,32 @@ public final class JarData {
         return bytecodeHash;
     }
 
+    /**
+     * @return <code>false</code> if the bytecode hash was not computed and cannot be, such as for a JAR read from a
+     *         stream with its classes out of name order
+     * @since 3.2.1
+     */
+    public boolean isBytecodeHashAvailable() {
+        return bytecodeHashAvailable;
+    }
+
+    public void setBytecodeHashAvailable(boolean bytecodeHashAvailable) {
+        this.bytecodeHashAvailable = bytecodeHashAvailable;
+    }
+
+    /**
+     * @return the digests of the class entries, when they were computed by a
+     *         {@link org.apache.maven.shared.jar.identification.hash.JarMerkleHashAnalyzer}
+     * @since 3.2.1
+     */
+    public JarBytecodeDigests getBytecodeDigests() {
+        return bytecodeDigests;
+    }
+
+    public void setBytecodeDigests(JarBytecodeDigests bytecodeDigests) {
+        this.bytecodeDigests = bytecodeDigests;
+    }
+
     public boolean isDebugPresent() {
         return jarClasses.isDebugPresent();
     }
@@ -202,6 +404,14 @@ public final class JarData {
         return this.versionedRuntimes;
     }
 
+    private static File toFile(Path path) {
+        return path != null && path.getFileSystem() == FileSystems.getDefault() ? path.toFile() : null;
+    }
+
+    private static String getFileName(Path path) {
+        return path != null && path.getFileName() != null ? path.getFileName().toString() : null;
+    }
+
     private boolean isAttributePresent(Attributes.Name attrName) {
         if (this.manifest != null) {
             String sval = this.manifest.getMainAttributes().getValue(attrName);
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.jar.JarEntry;
+
+/**
+ * Classification of the entries of a JAR, computed in a single scan when the {@link JarAnalyzer} is created. Each entry
+ * has a set of kinds, held as bit flags in a byte, and the release of the <code>META-INF/versions/N</code> layer it
+ * belongs to, 0 for the root content. The lists of entries returned are unmodifiable views over
+ * the precomputed positions of the entries, so that the entries are only accessed when they are read.
+ *
+ * @see JarAnalyzer#getEntryIndex()
+ * @since 3.2.1
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class JarEntryIndex {
+    /**
+     * Kind of the class files, whose name ends with <code>.class</code>.
+     */
+    public static final int CLASS = 1;
+
+    /**
+     * Kind of the Maven POM files, <code>META-INF/maven/&#42;&#42;/pom.xml</code>.
+     */
+    public static final int MAVEN_POM = 1 << 1;
+
+    /**
+     * Kind of the files that may contain a version, whose name contains <code>version</code> in any case.
+     */
+    public static final int VERSION = 1 << 2;
+
+    /**
+     * Kind of the service provider configuration files, <code>META-INF/services/&#42;</code>.
+     */
+    public static final int SERVICE = 1 << 3;
+
+    /**
+     * Kind of the nested archives, whose name ends with <code>.jar</code> or <code>.war</code> in any case, such as the
+     * libraries of a <code>BOOT-INF/lib</code> or <code>WEB-INF/lib</code> directory.
+     */
+    public static final int ARCHIVE = 1 << 4;
+
+    /**
+     * Release of the root content of a JAR, outside of any <code>META-INF/versions/N</code> layer.
+     */
+    public static final int ROOT = 0;
+
+    private static final String MAVEN_PREFIX = "META-INF/maven/";
+
+    private static final String POM_SUFFIX = "/pom.xml";
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+    private static final int[] KINDS = {CLASS, MAVEN_POM, VERSION, SERVICE, ARCHIVE};
+
+    private final List<JarEntry> entries;
+
+    /**
+     * The kinds of each entry.
+     */
+    private final byte[] kinds;
+
+    /**
+     * The release of each entry, {@link #ROOT} for the root content.
+     */
+    private final int[] releases;
+
+    /**
+     * The entries of each kind, indexed by the position of the kind flag.
+     */
+    private final List<List<JarEntry>> entriesByKind = new ArrayList<>();
+
+    /**
+     * The entries of each release.
+     */
+    private final NavigableMap<Integer, List<JarEntry>> entriesByRelease = new TreeMap<>();
+
+    JarEntryIndex(List<JarEntry> entries) {
+        this(entries, i -> entries.get(i).getName());
+    }
+
+    /**
+     * Classify the entries from their names only, so that the lists of entries are views that do not require the
+     * entries to be created until they are accessed.
+     *
+     * @param entries the entries
+     * @param names the name of the entry at an index, where only the ASCII characters are significant
+     */
+    JarEntryIndex(List<JarEntry> entries, IntFunction<CharSequence> names) {
+        this.entries = entries;
+        int size = entries.size();
+        kinds = new byte[size];
+        releases = new int[size];
+
+        int[] kindCounts = new int[KINDS.length];
+        Map<Integer, int[]> releaseCounts = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            CharSequence name = names.apply(i);
+            int kind = classify(name);
+            kinds[i] = (byte) kind;
+            for (int k = 0; k < KINDS.length; k++) {
+                if ((kind & KINDS[k]) != 0) {
+                    kindCounts[k]++;
+                }
+            }
+            releases[i] = getRelease(name);
+            releaseCounts.computeIfAbsent(releases[i], r -> new int[1])[0]++;
+        }
+
+        for (int k = 0; k < KINDS.length; k++) {
+            int[] positions = new int[kindCounts[k]];
+            for (int i = 0, count = 0; count < positions.length; i++) {
+                if ((kinds[i] & KINDS[k]) != 0) {
+                    positions[count++] = i;
+                }
+            }
+            entriesByKind.add(new EntryView(positions));
+        }
+        Map<Integer, int[]> releasePositions = new TreeMap<>();
+        for (Map.Entry<Integer, int[]> release : releaseCounts.entrySet()) {
+            releasePositions.put(release.getKey(), new int[release.getValue()[0]]);
+        }
+        for (int i = 0; i < size; i++) {
+            int[] count = releaseCounts.get(releases[i]);
+            int[] positions = releasePositions.get(releases[i]);
+            positions[positions.length - count[0]--] = i;
+        }
+        for (Map.Entry<Integer, int[]> release : releasePositions.entrySet()) {
+            entriesByRelease.put(release.getKey(), new EntryView(release.getValue()));
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param index the index of the entry, in the order of {@link JarAnalyzer#getEntries()}
+     * @return the kinds of the entry, as a combination of the kind flags
+     */
+    public int getKinds(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * @param index the index of the entry, in the order of {@link JarAnalyzer#getEntries()}
+     * @param kind the kind flag
+     * @return whether the entry is of the given kind
+     */
+    public boolean is(int index, int kind) {
+        return (kinds[index] & kind) != 0;
+    }
+
+    /**
+     * @param index the index of the entry, in the order of {@link JarAnalyzer#getEntries()}
+     * @return the release of the <code>META-INF/versions/N</code> layer of the entry, or {@link #ROOT}
+     */
+    public int getRelease(int index) {
+        return releases[index];
+    }
+
+    /**
+     * @param kind a single kind flag
+     * @return the entries of the given kind, in order
+     */
+    public List<JarEntry> getEntries(int kind) {
+        for (int k = 0; k < KINDS.length; k++) {
+            if (KINDS[k] == kind) {
+                return entriesByKind.get(k);
+            }
+        }
+        throw new IllegalArgumentException("Unknown entry kind " + kind);
+    }
+
+    /**
+     * @return the releases of the entries, in increasing order, including {@link #ROOT} if there is any root content
+     */
+    public List<Integer> getReleases() {
+        return Collections.unmodifiableList(new ArrayList<>(entriesByRelease.keySet()));
+    }
+
+    /**
+     * @param release the release, or {@link #ROOT}
+     * @return the entries of the <code>META-INF/versions/N</code> layer of the release, in order
+     */
+    public List<JarEntry> getReleaseEntries(int release) {
+        return entriesByRelease.getOrDefault(release, Collections.emptyList());
+    }
+
+    /**
+     * @param release the release, or {@link #ROOT}
+     * @param kind the kind flag
+     * @return the entries of the given kind in the <code>META-INF/versions/N</code> layer of the release, in order
+     */
+    public List<JarEntry> getReleaseEntries(int release, int kind) {
+        int count = 0;
+        int[] positions = new int[releases.length];
+        for (int i = 0; i < releases.length; i++) {
+            if (releases[i] == release && (kinds[i] & kind) != 0) {
+                positions[count++] = i;
+            }
+        }
+        return new EntryView(Arrays.copyOf(positions, count));
+    }
+
+    /**
+     * @param name the name of an entry, where only the ASCII characters are significant
+     * @return the kinds of the entry, as a combination of the kind flags
+     */
+    static int classify(CharSequence name) {
+        int kind = 0;
+        if (endsWith(name, ".class")) {
+            kind |= CLASS;
+        }
+        if (endsWith(name, POM_SUFFIX)) {
+            int maven = indexOf(name, MAVEN_PREFIX);
+            if (maven >= 0 && maven + MAVEN_PREFIX.length() <= name.length() - POM_SUFFIX.length()) {
+                kind |= MAVEN_POM;
+            }
+        }
+        if (containsVersion(name)) {
+            kind |= VERSION;
+        }
+        if (startsWith(name, SERVICES_PREFIX)
+                && name.length() > SERVICES_PREFIX.length()
+                && name.charAt(name.length() - 1) != '/') {
+            kind |= SERVICE;
+        }
+        if (endsWithIgnoreCase(name, ".jar") || endsWithIgnoreCase(name, ".war")) {
+            kind |= ARCHIVE;
+        }
+        return kind;
+    }
+
+    private static boolean startsWith(CharSequence name, String prefix) {
+        return name.length() >= prefix.length() && regionMatches(name, 0, prefix);
+    }
+
+    private static boolean endsWith(CharSequence name, String suffix) {
+        return name.length() >= suffix.length() && regionMatches(name, name.length() - suffix.length(), suffix);
+    }
+
+    /**
+     * @param suffix a lower case suffix
+     */
+    private static boolean endsWithIgnoreCase(CharSequence name, String suffix) {
+        int offset = name.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            char c = name.charAt(offset + i);
+            if (c != suffix.charAt(i) && (c < 'A' || c > 'Z' || (c | 0x20) != suffix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence name, String part) {
+        for (int i = 0, last = name.length() - part.length(); i <= last; i++) {
+            if (regionMatches(name, i, part)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence name, int offset, String part) {
+        for (int i = 0; i < part.length(); i++) {
+            if (name.charAt(offset + i) != part.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the name contains <code>version</code>, ignoring the case of the ASCII letters only
+     */
+    private static boolean containsVersion(CharSequence name) {
+        String version = "version";
+        for (int i = 0, last = name.length() - version.length(); i <= last; i++) {
+            int j = 0;
+            while (j < version.length() && (name.charAt(i + j) | 0x20) == version.charAt(j)) {
+                j++;
+            }
+            if (j == version.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the release N of a <code>META-INF/versions/N/</code> entry, or {@link #ROOT}
+     */
+    private static int getRelease(CharSequence name) {
+        if (!startsWith(name, VERSIONS_PREFIX)) {
+            return ROOT;
+        }
+        int start = VERSIONS_PREFIX.length();
+        int end = start;
+        while (end < name.length() && name.charAt(end) != '/') {
+            end++;
+        }
+        if (end == name.length()) {
+            return ROOT;
+        }
+        // a release has no leading zero, and is kept within the range of an int
+        if (end <= start || end - start > 9 || name.charAt(start) == '0') {
+            return ROOT;
+        }
+        int release = 0;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return ROOT;
+            }
+            release = release * 10 + c - '0';
+        }
+        return release;
+    }
+
+    /**
+     * Unmodifiable view of the entries at the given positions, which only accesses the entries when they are read.
+     */
+    private final class EntryView extends AbstractList<JarEntry> implements RandomAccess {
+        private final int[] positions;
+
+        EntryView(int[] positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public JarEntry get(int index) {
+            return entries.get(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * Archive read through a {@link JarFile}, which creates all the entries when opened.
+ */
+class JarFileArchive implements JarArchive {
+    private final File file;
+
+    private final JarFile jarFile;
+
+    private final List<JarEntry> entries;
+
+    JarFileArchive(File file) throws IOException {
+        this.file = file;
+        this.jarFile = new JarFile(file);
+
+        // Obtain entries list.
+        entries = Collections.list(jarFile.entries());
+
+        // Sorting of list is done by name to ensure a bytecode hash is always consistent.
+        entries.sort(Comparator.comparing(ZipEntry::getName));
+    }
+
+    @Override
+    public List<JarEntry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public CharSequence getEntryName(int index) {
+        return entries.get(index).getName();
+    }
+
+    @Override
+    public InputStream getInputStream(JarEntry entry) throws IOException {
+        return jarFile.getInputStream(entry);
+    }
+
+    @Override
+    public InputStream getArchiveInputStream() throws IOException {
+        return Files.newInputStream(file.toPath());
+    }
+
+    @Override
+    public Manifest getManifest() throws IOException {
+        return jarFile.getManifest();
+    }
+
+    @Override
+    public void close() throws IOException {
+        jarFile.close();
+    }
+}
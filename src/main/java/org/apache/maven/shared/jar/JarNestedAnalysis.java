@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.jar.JarEntry;
+
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Analyze a JAR and, recursively, the JARs nested in it, such as the libraries of a Spring Boot executable JAR in
+ * <code>BOOT-INF/lib</code>, of a WAR in <code>WEB-INF/lib</code>, or the modules of an EAR. The nested JARs are read
+ * from the entries of their parent, in place when they are stored and inflated in memory otherwise, and are never
+ * extracted to disk. Each nested JAR gets its own {@link JarData}, with its classes and identification populated,
+ * attached to the data of its parent. This class is thread safe and immutable as it retains no state.
+ *
+ * Typical usage:
+ * <pre>
+ *  JarAnalyzer jar = new JarAnalyzer( fatJarFile );
+ *  try
+ *  {
+ *      JarData jarData = jarNestedAnalysis.analyze( jar, ForkJoinPool.commonPool() );
+ *      for ( JarData nested : jarData.getNestedJars() )
+ *      {
+ *          // use nested.getJarIdentification() in some way
+ *      }
+ *  }
+ *  finally
+ *  {
+ *      jar.closeQuietly();
+ *  }
+ * </pre>
+ *
+ * @see JarAnalyzer#openNestedJar(JarEntry)
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class JarNestedAnalysis {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JarClassesAnalysis classesAnalysis;
+
+    private final JarIdentificationAnalysis identificationAnalysis;
+
+    @Inject
+    public JarNestedAnalysis(JarClassesAnalysis classesAnalysis, JarIdentificationAnalysis identificationAnalysis) {
+        this.classesAnalysis = requireNonNull(classesAnalysis);
+        this.identificationAnalysis = requireNonNull(identificationAnalysis);
+    }
+
+    /**
+     * Analyze the classes and identification of a JAR and of all the JARs nested in it, returning once all of them
+     * have been analyzed.
+     *
+     * The classes of the given JAR are parsed in parallel on the executor, and each nested JAR is analyzed as a task
+     * of the executor, so that the nested JARs are analyzed in parallel. Tasks never wait for other tasks, so any
+     * executor can be used. A nested JAR that cannot be read is logged and left out of the nested JARs of its parent.
+     *
+     * @param jarAnalyzer the JAR to analyze
+     * @param executor the executor to analyze the JARs with
+     * @return the data of the JAR, with its nested JARs
+     */
+    public JarData analyze(JarAnalyzer jarAnalyzer, Executor executor) {
+        requireNonNull(executor);
+        classesAnalysis.analyze(jarAnalyzer, executor);
+        identificationAnalysis.analyze(jarAnalyzer);
+        try {
+            analyzeNestedJars(jarAnalyzer, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return jarAnalyzer.getJarData();
+    }
+
+    private CompletableFuture<Void> analyzeNestedJars(JarAnalyzer parent, Executor executor) {
+        List<JarEntry> entries = parent.getEntryIndex().getEntries(JarEntryIndex.ARCHIVE);
+        JarData[] nestedJars = new JarData[entries.size()];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            int index = i;
+            JarEntry entry = entries.get(i);
+            futures[i] = CompletableFuture.supplyAsync(() -> analyzeNestedJar(parent, entry), executor)
+                    .thenCompose(jarAnalyzer -> {
+                        if (jarAnalyzer == null) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        nestedJars[index] = jarAnalyzer.getJarData();
+                        return analyzeNestedJars(jarAnalyzer, executor)
+                                .whenComplete((result, e) -> jarAnalyzer.closeQuietly());
+                    });
+        }
+        return CompletableFuture.allOf(futures).thenRun(() -> {
+            List<JarData> analyzed = new ArrayList<>(nestedJars.length);
+            for (JarData jarData : nestedJars) {
+                if (jarData != null) {
+                    analyzed.add(jarData);
+                }
+            }
+            parent.getJarData().setNestedJars(analyzed);
+        });
+    }
+
+    /**
+     * @return the analyzer of the nested JAR, still open to analyze the JARs nested in it, or <code>null</code> if it
+     *         cannot be read
+     */
+    private JarAnalyzer analyzeNestedJar(JarAnalyzer parent, JarEntry entry) {
+        JarAnalyzer jarAnalyzer;
+        try {
+            jarAnalyzer = parent.openNestedJar(entry);
+        } catch (IOException e) {
+            logger.warn(
+                    "Unable to open nested JAR " + entry.getName() + " in "
+                            + parent.getJarData().getLocation(),
+                    e);
+            return null;
+        }
+        try {
+            classesAnalysis.analyze(jarAnalyzer);
+            identificationAnalysis.analyze(jarAnalyzer);
+            return jarAnalyzer;
+        } catch (RuntimeException e) {
+            jarAnalyzer.closeQuietly();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.classes.ClassDetails;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.classes.JarClassesOptions;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Analyze a JAR read as a forward-only stream, such as a pipe or the body of an upload, without buffering it: the local
+ * entries of the JAR are read once, in the order of the stream, and the JAR is never seeked. That single pass gathers
+ * the same {@link JarData} as the analysis of a JAR file: the classes, the file hash, the bytecode hash and the
+ * identification. This class is thread safe and immutable as it retains no state.
+ * <p>
+ * The class files are not retained: they are parsed as they are read, and only the metadata of the entries, the
+ * details of the classes and the content of the Maven POM and version files, at most
+ * {@value #MAX_RETAINED_ENTRY_SIZE} bytes each and {@value #MAX_RETAINED_SIZE} bytes in total, are retained. The
+ * content of the other entries is read into a single buffer that is reused.
+ * <p>
+ * Limitations, as the central directory of the JAR is not used:
+ * <ul>
+ * <li>the bytecode hash, which digests the class files in the order of their names, is only computed when the class
+ * files appear in that order in the stream, as they do in the JARs built by Maven. It is left <code>null</code>
+ * otherwise, and recorded as not available so that it is not computed again from the consumed stream;</li>
+ * <li>the metadata of the entries comes from their local headers, so it has no comments, and its extra fields are the
+ * local ones;</li>
+ * <li>data prepended to the JAR, such as a launch script, is not supported.</li>
+ * </ul>
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class JarStreamAnalysis {
+    /**
+     * The maximum size of a Maven POM or version file retained for the identification.
+     */
+    public static final int MAX_RETAINED_ENTRY_SIZE = 1024 * 1024;
+
+    /**
+     * The maximum total size of the Maven POM and version files retained for the identification.
+     */
+    public static final int MAX_RETAINED_SIZE = 16 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JarClassesAnalysis classesAnalysis;
+
+    private final JarIdentificationAnalysis identificationAnalysis;
+
+    @Inject
+    public JarStreamAnalysis(JarClassesAnalysis classesAnalysis, JarIdentificationAnalysis identificationAnalysis) {
+        this.classesAnalysis = requireNonNull(classesAnalysis);
+        this.identificationAnalysis = requireNonNull(identificationAnalysis);
+    }
+
+    /**
+     * Analyze a JAR from a stream, which is read to its end but not closed.
+     *
+     * @param in the stream of the JAR
+     * @param name the file name of the JAR, used to identify it, or <code>null</code> if it is unknown
+     * @return the data of the JAR, with its classes, hashes and identification populated
+     * @throws IOException if there is a problem reading the stream, or if it is not a JAR
+     */
+    public JarData analyze(InputStream in, String name) throws IOException {
+        MessageDigest fileDigest = DigestUtils.getSha1Digest();
+        MessageDigest bytecodeDigest = DigestUtils.getSha1Digest();
+        String lastClassName = null;
+        boolean classesInOrder = true;
+
+        JarClassesOptions options = JarClassesOptions.all();
+        List<JarEntry> entries = new ArrayList<>();
+        Map<String, ClassDetails> classDetails = new HashMap<>();
+        Map<String, byte[]> contents = new HashMap<>();
+        long retainedSize = 0;
+        Manifest manifest = null;
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        InputStream digested = new DigestInputStream(new UnclosableInputStream(in), fileDigest);
+        try (ZipInputStream zip = new ZipInputStream(digested)) {
+            for (ZipEntry zipEntry = zip.getNextEntry(); zipEntry != null; zipEntry = zip.getNextEntry()) {
+                String entryName = zipEntry.getName();
+                int kinds = JarEntryIndex.classify(entryName);
+
+                if ((kinds & JarEntryIndex.CLASS) != 0) {
+                    if (lastClassName != null && entryName.compareTo(lastClassName) < 0) {
+                        classesInOrder = false;
+                    }
+                    lastClassName = entryName;
+                    InputStream is = classesInOrder ? new DigestInputStream(zip, bytecodeDigest) : zip;
+                    readClass(is, entryName, name, options, classDetails);
+                    drain(is, buffer);
+                } else if (entryName.equalsIgnoreCase(JarFile.MANIFEST_NAME)) {
+                    manifest = new Manifest(new UnclosableInputStream(zip));
+                } else if ((kinds & (JarEntryIndex.MAVEN_POM | JarEntryIndex.VERSION)) != 0) {
+                    int limit = (int) Math.min(MAX_RETAINED_ENTRY_SIZE, MAX_RETAINED_SIZE - retainedSize);
+                    byte[] content = readAtMost(zip, limit, buffer);
+                    if (content != null) {
+                        contents.put(entryName, content);
+                        retainedSize += content.length;
+                    } else {
+                        logger.debug("Not retaining " + entryName + " of " + name + ": more than " + limit + " bytes");
+                    }
+                }
+
+                // the sizes and CRC are only known once the entry is read to its end
+                drain(zip, buffer);
+                entries.add(new JarEntry(zipEntry));
+            }
+
+            if (entries.isEmpty()) {
+                throw new ZipException("Failed to read stream " + name + " : no ZIP entry found");
+            }
+            // the rest of the stream, such as the central directory, is part of the file hash
+            drain(digested, buffer);
+        }
+
+        // Sorting of list is done by name, as for a JAR file.
+        entries.sort(Comparator.comparing(ZipEntry::getName));
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(name, new StreamedArchive(entries, contents, manifest));
+        try {
+            JarData jarData = jarAnalyzer.getJarData();
+            jarData.setFileHash(Hex.encodeHexString(fileDigest.digest()));
+            if (classesInOrder) {
+                jarData.setBytecodeHash(Hex.encodeHexString(bytecodeDigest.digest()));
+            } else {
+                logger.debug("Not computing the bytecode hash of " + name + ": the classes are not in name order");
+                jarData.setBytecodeHashAvailable(false);
+            }
+            classesAnalysis.analyze(jarAnalyzer, classDetails, options);
+            identificationAnalysis.analyze(jarAnalyzer);
+            return jarData;
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private void readClass(
+            InputStream is,
+            String entryName,
+            String name,
+            JarClassesOptions options,
+            Map<String, ClassDetails> classDetails) {
+        try {
+            classDetails.put(entryName, classesAnalysis.readClass(new UnclosableInputStream(is), entryName, options));
+        } catch (ClassFormatException | IOException e) {
+            logger.warn("Unable to process class " + entryName + " in JarAnalyzer stream " + name, e);
+        }
+    }
+
+    /**
+     * @return the content of the stream, or <code>null</code> if it is longer than the limit
+     */
+    private static byte[] readAtMost(InputStream is, int limit, byte[] buffer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int n = is.read(buffer); n >= 0; n = is.read(buffer)) {
+            if (out.size() + n > limit) {
+                return null;
+            }
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void drain(InputStream is, byte[] buffer) throws IOException {
+        while (is.read(buffer) >= 0) {
+            // discard
+        }
+    }
+}
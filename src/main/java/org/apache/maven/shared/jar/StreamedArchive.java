@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.Manifest;
+
+/**
+ * Archive that was read as a stream, of which only the entries and the content of a few small entries were retained.
+ */
+class StreamedArchive implements JarArchive {
+    private final List<JarEntry> entries;
+
+    private final Map<String, byte[]> contents;
+
+    private final Manifest manifest;
+
+    /**
+     * @param entries the entries, sorted by name
+     * @param contents the contents of the retained entries, by name
+     * @param manifest the manifest, or <code>null</code> if there is none
+     */
+    StreamedArchive(List<JarEntry> entries, Map<String, byte[]> contents, Manifest manifest) {
+        this.entries = entries;
+        this.contents = contents;
+        this.manifest = manifest;
+    }
+
+    @Override
+    public List<JarEntry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public CharSequence getEntryName(int index) {
+        return entries.get(index).getName();
+    }
+
+    @Override
+    public InputStream getInputStream(JarEntry entry) throws IOException {
+        byte[] content = contents.get(entry.getName());
+        if (content == null) {
+            throw new IOException("The content of " + entry.getName() + " was not retained from the stream");
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public InputStream getArchiveInputStream() throws IOException {
+        throw new IOException("The content of the archive was not retained from the stream");
+    }
+
+    @Override
+    public Manifest getManifest() {
+        return manifest;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
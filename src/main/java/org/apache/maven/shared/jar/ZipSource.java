@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Random access to the bytes of a ZIP archive. Implementations must support concurrent reads.
+ */
+interface ZipSource extends Closeable {
+    /**
+     * @return the size of the archive, in bytes
+     */
+    long size();
+
+    /**
+     * Read a region of the archive that will be retained, such as the central directory. The region may be memory
+     * mapped rather than copied.
+     *
+     * @param position the position of the region
+     * @param length the length of the region
+     * @return the bytes of the region, from position 0 to the limit
+     * @throws IOException if the region cannot be read
+     */
+    ByteBuffer map(long position, int length) throws IOException;
+
+    /**
+     * Read a small region of the archive, such as a header.
+     *
+     * @param position the position of the region
+     * @param length the length of the region
+     * @return the bytes of the region, from position 0 to the limit
+     * @throws IOException if the region cannot be read
+     */
+    ByteBuffer read(long position, int length) throws IOException;
+
+    /**
+     * Open a region of the archive as a stream, such as the data of an entry.
+     *
+     * @param position the position of the region
+     * @param length the length of the region
+     * @return the stream of the region
+     * @throws IOException if the region cannot be opened
+     */
+    InputStream open(long position, long length) throws IOException;
+}
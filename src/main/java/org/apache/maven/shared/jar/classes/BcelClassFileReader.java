@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.DescendingVisitor;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.LineNumberTable;
+import org.apache.bcel.classfile.Method;
+import org.apache.maven.shared.jar.classes.JarClassesOptions.Facet;
+
+/**
+ * Class file reader that parses the complete class with BCEL, and collects the imports with an {@link ImportVisitor}.
+ * This is the default reader of {@link JarClassesAnalysis}.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named("bcel")
+public class BcelClassFileReader implements ClassFileReader {
+    @Override
+    @SuppressWarnings("checkstyle:MagicNumber")
+    public ClassDetails read(InputStream inputStream, String entryName, JarClassesOptions options) throws IOException {
+        ClassParser classParser = new ClassParser(inputStream, entryName);
+
+        JavaClass javaClass = classParser.parse();
+
+        String classSignature = javaClass.getClassName();
+
+        double classVersion = javaClass.getMajor();
+        if (javaClass.getMinor() > 0) {
+            classVersion = classVersion + javaClass.getMinor() / 10.0;
+        }
+
+        boolean debugPresent = options.isEnabled(Facet.DEBUG_INFO) && hasDebugSymbols(javaClass);
+
+        ClassDetails details = new ClassDetails(classSignature, javaClass.getPackageName(), classVersion, debugPresent);
+
+        if (options.isEnabled(Facet.METHODS)) {
+            Method[] methods = javaClass.getMethods();
+            for (Method method : methods) {
+                details.addMethod(classSignature + "." + method.getName() + method.getSignature());
+            }
+        }
+
+        if (options.isEnabled(Facet.IMPORTS)) {
+            ImportVisitor importVisitor = new ImportVisitor(javaClass);
+            DescendingVisitor descVisitor = new DescendingVisitor(javaClass, importVisitor);
+            javaClass.accept(descVisitor);
+
+            details.addImports(importVisitor.getImports());
+        }
+
+        return details;
+    }
+
+    private boolean hasDebugSymbols(JavaClass javaClass) {
+        boolean ret = false;
+        Method[] methods = javaClass.getMethods();
+        for (Method method : methods) {
+            LineNumberTable linenumbers = method.getLineNumberTable();
+            if (linenumbers != null && linenumbers.getTableLength() > 0) {
+                ret = true;
+                break;
+            }
+        }
+        return ret;
+    }
+}
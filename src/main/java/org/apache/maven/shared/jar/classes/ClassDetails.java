@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Facts gathered from a single class file by a {@link ClassFileReader}, before they are merged into the
+ * {@link JarClasses} of the JAR.
+ *
+ * @since 3.2.1
+ */
+public final class ClassDetails {
+    /**
+     * The name of the class.
+     */
+    private final String className;
+
+    /**
+     * The name of the package of the class, empty for the default package.
+     */
+    private final String packageName;
+
+    /**
+     * The class file version, as <code>major.minor</code>.
+     */
+    private final double classVersion;
+
+    /**
+     * Whether any method of the class has line number information.
+     */
+    private final boolean debugPresent;
+
+    /**
+     * The methods of the class, as <code>className.methodName(signature)</code>.
+     */
+    private final List<String> methods = new ArrayList<>();
+
+    /**
+     * The imports of the class.
+     */
+    private final List<String> imports = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param className the name of the class, with <code>.</code> as package separator
+     * @param packageName the name of the package of the class, empty for the default package
+     * @param classVersion the class file version, as <code>major.minor</code>
+     * @param debugPresent whether any method of the class has line number information
+     */
+    public ClassDetails(String className, String packageName, double classVersion, boolean debugPresent) {
+        this.className = className;
+        this.packageName = packageName;
+        this.classVersion = classVersion;
+        this.debugPresent = debugPresent;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public double getClassVersion() {
+        return classVersion;
+    }
+
+    public boolean isDebugPresent() {
+        return debugPresent;
+    }
+
+    public boolean isModuleInfo() {
+        return "module-info".equals(className);
+    }
+
+    /**
+     * Add a method of the class.
+     *
+     * @param method the method, as <code>className.methodName(signature)</code>
+     */
+    public void addMethod(String method) {
+        methods.add(method);
+    }
+
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Add imports of the class.
+     *
+     * @param classImports the imports to add
+     */
+    public void addImports(List<String> classImports) {
+        imports.addAll(classImports);
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+}
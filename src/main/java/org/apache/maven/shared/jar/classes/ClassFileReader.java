@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the facts needed by {@link JarClassesAnalysis} from a single class file. Implementations should be made to be
+ * thread safe, as classes may be read in parallel.
+ *
+ * @see BcelClassFileReader
+ * @see ConstantPoolClassFileReader
+ * @since 3.2.1
+ */
+public interface ClassFileReader {
+    /**
+     * Read a class file.
+     *
+     * @param inputStream the content of the class file. The caller is responsible for closing it.
+     * @param entryName the name of the JAR entry the class file is read from
+     * @param options the options of the analysis. The facets that are not enabled need not be read.
+     * @return the facts about the class
+     * @throws IOException if there is a problem reading the class file
+     * @throws org.apache.bcel.classfile.ClassFormatException if the content is not a valid class file
+     */
+    ClassDetails read(InputStream inputStream, String entryName, JarClassesOptions options) throws IOException;
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.bcel.Const;
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.maven.shared.jar.classes.JarClassesOptions.Facet;
+
+/**
+ * Class file reader that reads the class file bytes directly, without building the BCEL object model. Only the
+ * constant pool, the method table and the <code>Code</code> attributes of the methods are decoded; fields and class
+ * attributes are skipped. The imports are collected from the constant pool exactly as the {@link ImportVisitor} does.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named("constantPool")
+@SuppressWarnings("checkstyle:MagicNumber")
+public class ConstantPoolClassFileReader implements ClassFileReader {
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    @Override
+    public ClassDetails read(InputStream inputStream, String entryName, JarClassesOptions options) throws IOException {
+        byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        int read;
+        while ((read = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return new ClassFile(buffer, length, entryName).read(options);
+    }
+
+    /**
+     * A class file being read.
+     */
+    private static final class ClassFile {
+        private final byte[] bytes;
+
+        private final int length;
+
+        private final String entryName;
+
+        private int position;
+
+        /**
+         * The tag of each constant pool entry, 0 for the unusable entries.
+         */
+        private byte[] tags;
+
+        /**
+         * The offset of the content of each constant pool entry, just after its tag.
+         */
+        private int[] offsets;
+
+        /**
+         * The decoded UTF8 constants, filled lazily.
+         */
+        private String[] strings;
+
+        ClassFile(byte[] bytes, int length, String entryName) {
+            this.bytes = bytes;
+            this.length = length;
+            this.entryName = entryName;
+        }
+
+        ClassDetails read(JarClassesOptions options) throws IOException {
+            if (length < 4 || u4() != Const.JVM_CLASSFILE_MAGIC) {
+                throw new ClassFormatException(entryName + " is not a Java .class file");
+            }
+            int minor = u2();
+            int major = u2();
+
+            readConstantPool();
+
+            // access flags
+            skip(2);
+            String className = getClassName(u2()).replace('/', '.');
+            // super class
+            skip(2);
+            // interfaces
+            skip(2 * u2());
+
+            int fieldsCount = u2();
+            for (int i = 0; i < fieldsCount; i++) {
+                // access flags, name and descriptor
+                skip(6);
+                skipAttributes();
+            }
+
+            boolean readMethods = options.isEnabled(Facet.METHODS);
+            boolean readDebugInfo = options.isEnabled(Facet.DEBUG_INFO);
+            int methodsCount = u2();
+            String[] methods = new String[readMethods ? methodsCount : 0];
+            boolean debugPresent = false;
+            for (int i = 0; i < methodsCount; i++) {
+                // access flags
+                skip(2);
+                if (readMethods) {
+                    methods[i] = className + "." + getUtf8(u2()) + getUtf8(u2());
+                } else {
+                    // name and descriptor
+                    skip(4);
+                }
+                if (readDebugInfo) {
+                    debugPresent |= readMethodAttributes();
+                } else {
+                    skipAttributes();
+                }
+            }
+
+            double classVersion = major;
+            if (minor > 0) {
+                classVersion = classVersion + minor / 10.0;
+            }
+
+            int index = className.lastIndexOf('.');
+            String packageName = index < 0 ? "" : className.substring(0, index);
+
+            ClassDetails details = new ClassDetails(className, packageName, classVersion, debugPresent);
+            for (String method : methods) {
+                details.addMethod(method);
+            }
+            if (options.isEnabled(Facet.IMPORTS)) {
+                details.addImports(getImports());
+            }
+            return details;
+        }
+
+        private void readConstantPool() {
+            int count = u2();
+            tags = new byte[count];
+            offsets = new int[count];
+            strings = new String[count];
+            for (int i = 1; i < count; i++) {
+                byte tag = (byte) u1();
+                tags[i] = tag;
+                offsets[i] = position;
+                switch (tag) {
+                    case Const.CONSTANT_Utf8:
+                        skip(u2());
+                        break;
+                    case Const.CONSTANT_Class:
+                    case Const.CONSTANT_String:
+                    case Const.CONSTANT_MethodType:
+                    case Const.CONSTANT_Module:
+                    case Const.CONSTANT_Package:
+                        skip(2);
+                        break;
+                    case Const.CONSTANT_MethodHandle:
+                        skip(3);
+                        break;
+                    case Const.CONSTANT_Integer:
+                    case Const.CONSTANT_Float:
+                    case Const.CONSTANT_Fieldref:
+                    case Const.CONSTANT_Methodref:
+                    case Const.CONSTANT_InterfaceMethodref:
+                    case Const.CONSTANT_NameAndType:
+                    case Const.CONSTANT_Dynamic:
+                    case Const.CONSTANT_InvokeDynamic:
+                        skip(4);
+                        break;
+                    case Const.CONSTANT_Long:
+                    case Const.CONSTANT_Double:
+                        skip(8);
+                        // takes two entries in the constant pool
+                        i++;
+                        break;
+                    default:
+                        throw new ClassFormatException(
+                                "Invalid constant pool tag " + tag + " at index " + i + " in " + entryName);
+                }
+            }
+        }
+
+        /**
+         * Read the attributes of a method.
+         *
+         * @return whether the code of the method has a line number table
+         */
+        private boolean readMethodAttributes() throws IOException {
+            boolean lineNumbers = false;
+            boolean codeSeen = false;
+            int attributesCount = u2();
+            for (int i = 0; i < attributesCount; i++) {
+                String name = getUtf8(u2());
+                int attributeLength = u4();
+                require(position, attributeLength);
+                int end = position + attributeLength;
+                if (!codeSeen && "Code".equals(name)) {
+                    codeSeen = true;
+                    lineNumbers = readCodeAttributes();
+                }
+                position = end;
+            }
+            return lineNumbers;
+        }
+
+        /**
+         * Read the attributes of a <code>Code</code> attribute, as BCEL does for the first <code>Code</code>
+         * attribute of a method.
+         *
+         * @return whether the first line number table found is not empty
+         */
+        private boolean readCodeAttributes() throws IOException {
+            // max stack and max locals
+            skip(4);
+            skip(u4());
+            // exception table
+            skip(8 * u2());
+            int attributesCount = u2();
+            for (int i = 0; i < attributesCount; i++) {
+                String name = getUtf8(u2());
+                int attributeLength = u4();
+                if ("LineNumberTable".equals(name)) {
+                    // line_number_table_length
+                    return attributeLength >= 2 && u2() > 0;
+                }
+                skip(attributeLength);
+            }
+            return false;
+        }
+
+        private void skipAttributes() {
+            int attributesCount = u2();
+            for (int i = 0; i < attributesCount; i++) {
+                skip(2);
+                skip(u4());
+            }
+        }
+
+        private List<String> getImports() throws IOException {
+            List<String> imports = new UniqueList<>();
+            for (int i = 1; i < tags.length; i++) {
+                if (tags[i] == Const.CONSTANT_Class) {
+                    ImportVisitor.addClassImport(getClassName(i), imports);
+                } else if (tags[i] == Const.CONSTANT_Utf8) {
+                    ImportVisitor.addUtf8Imports(getUtf8(i), imports);
+                }
+            }
+            return imports;
+        }
+
+        private String getClassName(int index) throws IOException {
+            checkTag(index, Const.CONSTANT_Class);
+            return getUtf8(u2(offsets[index]));
+        }
+
+        private String getUtf8(int index) throws IOException {
+            checkTag(index, Const.CONSTANT_Utf8);
+            String value = strings[index];
+            if (value == null) {
+                int offset = offsets[index];
+                value = decodeUtf8(offset + 2, u2(offset));
+                strings[index] = value;
+            }
+            return value;
+        }
+
+        private void checkTag(int index, byte tag) {
+            if (index <= 0 || index >= tags.length || tags[index] != tag) {
+                throw new ClassFormatException("Invalid constant pool reference " + index + " in " + entryName
+                        + ", expected a " + Const.getConstantName(tag) + " entry");
+            }
+        }
+
+        /**
+         * Decode modified UTF-8, as {@link java.io.DataInput#readUTF()} does.
+         */
+        private String decodeUtf8(int offset, int byteLength) throws UTFDataFormatException {
+            int end = offset + byteLength;
+            char[] chars = new char[byteLength];
+            int count = 0;
+            int i = offset;
+            while (i < end) {
+                int c = bytes[i] & 0xFF;
+                if (c < 0x80) {
+                    chars[count++] = (char) c;
+                    i++;
+                } else if ((c >> 5) == 0x06 && i + 1 < end && (bytes[i + 1] & 0xC0) == 0x80) {
+                    chars[count++] = (char) (((c & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                    i += 2;
+                } else if ((c >> 4) == 0x0E
+                        && i + 2 < end
+                        && (bytes[i + 1] & 0xC0) == 0x80
+                        && (bytes[i + 2] & 0xC0) == 0x80) {
+                    chars[count++] = (char) (((c & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F));
+                    i += 3;
+                } else {
+                    throw new UTFDataFormatException(
+                            "Malformed input around byte " + (i - offset) + " in " + entryName);
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private void skip(int count) {
+            require(position, count);
+            position += count;
+        }
+
+        private int u1() {
+            require(position, 1);
+            return bytes[position++] & 0xFF;
+        }
+
+        private int u2() {
+            int value = u2(position);
+            position += 2;
+            return value;
+        }
+
+        private int u2(int offset) {
+            require(offset, 2);
+            return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+        }
+
+        private int u4() {
+            require(position, 4);
+            int value = ((bytes[position] & 0xFF) << 24)
+                    | ((bytes[position + 1] & 0xFF) << 16)
+                    | ((bytes[position + 2] & 0xFF) << 8)
+                    | (bytes[position + 3] & 0xFF);
+            position += 4;
+            return value;
+        }
+
+        private void require(int offset, int count) {
+            if (count < 0 || count > length - offset) {
+                throw new ClassFormatException("Truncated class file " + entryName);
+            }
+        }
+    }
+}
@@ -18,16 +18,12 @@
  */
 package org.apache.maven.shared.jar.classes;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.bcel.classfile.ConstantClass;
 import org.apache.bcel.classfile.ConstantUtf8;
 import org.apache.bcel.classfile.EmptyVisitor;
 import org.apache.bcel.classfile.JavaClass;
-import org.apache.commons.collections4.list.SetUniqueList;
 
 /**
  * Implementation of a BCEL class visitor that analyzes a class and collects imports.
@@ -43,17 +39,6 @@ public class ImportVisitor extends EmptyVisitor {
      */
     private final JavaClass javaClass;
 
-    /**
-     * Pattern to detect if the import is qualified and allows retrieval of the actual import name from the string via
-     * the group 1.
-     */
-    private static final Pattern QUALIFIED_IMPORT_PATTERN = Pattern.compile("L([a-zA-Z][a-zA-Z0-9\\.$]+);");
-
-    /**
-     * Pattern that checks whether a string is valid UTF-8. Imports that are not are ignored.
-     */
-    private static final Pattern VALID_UTF8_PATTERN = Pattern.compile("^[\\(\\)\\[A-Za-z0-9;/;$]+$");
-
     /**
      * Create an Import visitor.
      *
@@ -64,7 +49,7 @@ public class ImportVisitor extends EmptyVisitor {
 
         // Create a list that is guaranteed to be unique while retaining it's list qualities (LinkedHashSet does not
         // expose the list interface even if natural ordering is retained)
-        this.imports = SetUniqueList.setUniqueList(new ArrayList<>());
+        this.imports = new UniqueList<>();
     }
 
     /**
@@ -83,85 +68,146 @@ public class ImportVisitor extends EmptyVisitor {
      */
     @Override
     public void visitConstantClass(ConstantClass constantClass) {
-        String name = constantClass.getBytes(javaClass.getConstantPool());
+        addClassImport(constantClass.getBytes(javaClass.getConstantPool()), imports);
+    }
 
+    /**
+     * Find any package class Strings in the UTF8 String Pool.
+     *
+     * @see org.apache.bcel.classfile.EmptyVisitor#visitConstantUtf8(org.apache.bcel.classfile.ConstantUtf8)
+     */
+    @Override
+    public void visitConstantUtf8(ConstantUtf8 constantUtf8) {
+        addUtf8Imports(constantUtf8.getBytes(), imports);
+    }
+
+    /**
+     * Add the import declared by the name of a class constant, as found in the Constant Pool.
+     *
+     * @param name the internal name of the class
+     * @param imports the imports to add to
+     */
+    static void addClassImport(String name, List<String> imports) {
         // only strings with '/' character are to be considered.
         if (name.indexOf('/') == -1) {
             return;
         }
 
-        name = name.replace('/', '.');
-
-        if (name.endsWith(".class")) {
-            name = name.substring(0, name.length() - 6);
+        int end = name.length();
+        if (end >= 6 && isSeparator(name.charAt(end - 6)) && name.endsWith("class")) {
+            end -= 6;
         }
 
-        Matcher mat = QUALIFIED_IMPORT_PATTERN.matcher(name);
-        if (mat.find()) {
-            this.imports.add(mat.group(1));
-        } else {
-            this.imports.add(name);
+        if (!addQualifiedImports(name, 0, end, false, imports)) {
+            imports.add(toClassName(name, 0, end));
         }
     }
 
     /**
-     * Find any package class Strings in the UTF8 String Pool.
+     * Add the imports found in a UTF8 constant, such as a descriptor or a class name in a String.
      *
-     * @see org.apache.bcel.classfile.EmptyVisitor#visitConstantUtf8(org.apache.bcel.classfile.ConstantUtf8)
+     * @param value the value of the UTF8 constant
+     * @param imports the imports to add to
      */
-    @Override
-    public void visitConstantUtf8(ConstantUtf8 constantUtf8) {
-        String ret = constantUtf8.getBytes().trim();
+    static void addUtf8Imports(String value, List<String> imports) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (start < end && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
 
         // empty strings are not class names.
-        if (ret.length() <= 0) {
+        if (start == end) {
             return;
         }
 
-        // Only valid characters please.
-        if (!VALID_UTF8_PATTERN.matcher(ret).matches()) {
-            return;
+        // Only valid characters please, and only strings with '/' character are to be considered.
+        boolean slash = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '/') {
+                // Double "//" indicates a bad class fail-fast.
+                // Seen when ConstantUTF8 Pool has regex patterns.
+                if (i > start && value.charAt(i - 1) == '/') {
+                    return;
+                }
+                slash = true;
+            } else if (!isAsciiLetterOrDigit(c) && c != '$' && c != ';' && c != '(' && c != ')' && c != '[') {
+                return;
+            }
         }
-
-        // only strings with '/' character are to be considered.
-        if (ret.indexOf('/') == -1) {
+        if (!slash) {
             return;
         }
 
         // Strings that start with '/' are bad too
         // Seen when Pool has regex patterns.
-        if (ret.charAt(0) == '/') {
+        if (value.charAt(start) == '/') {
             return;
         }
 
-        // Make string more class-like.
-        ret = ret.replace('/', '.');
-
-        // Double ".." indicates a bad class fail-fast.
-        // Seen when ConstantUTF8 Pool has regex patterns.
-        if (ret.contains("..")) {
-            return;
+        if (value.charAt(start) == '(') {
+            // A Method Declaration: add each Qualified Class found.
+            addQualifiedImports(value, start, end, true, imports);
+        } else if (!addQualifiedImports(value, start, end, false, imports)) {
+            // A Variable Declaration, without a Qualified Class reference: add a simple Class reference.
+            imports.add(toClassName(value, start, end));
         }
+    }
 
-        Matcher mat = QUALIFIED_IMPORT_PATTERN.matcher(ret);
-        char prefix = ret.charAt(0);
-
-        if (prefix == '(') {
-            // A Method Declaration.
-
-            // Loop for each Qualified Class found.
-            while (mat.find()) {
-                this.imports.add(mat.group(1));
+    /**
+     * Add the qualified class references <code>Lname;</code> found in a range of a string, where the name starts with
+     * a letter and is made of at least two letters, digits, <code>$</code> or package separators.
+     *
+     * @param value the string
+     * @param start the start of the range, inclusive
+     * @param end the end of the range, exclusive
+     * @param all whether to add all the references, or only the first one
+     * @param imports the imports to add to
+     * @return whether a reference was found
+     */
+    private static boolean addQualifiedImports(String value, int start, int end, boolean all, List<String> imports) {
+        boolean found = false;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) != 'L' || i + 1 >= end || !isAsciiLetter(value.charAt(i + 1))) {
+                continue;
+            }
+            int j = i + 2;
+            while (j < end && isNameChar(value.charAt(j))) {
+                j++;
             }
-        } else {
-            // A Variable Declaration.
-            if (mat.find()) {
-                // Add a UTF8 Qualified Class reference.
-                this.imports.add(mat.group(1));
-            } else {
-                // Add a simple Class reference.
-                this.imports.add(ret);
+            if (j > i + 2 && j < end && value.charAt(j) == ';') {
+                imports.add(toClassName(value, i + 1, j));
+                if (!all) {
+                    return true;
+                }
+                found = true;
+                i = j;
             }
         }
+        return found;
+    }
+
+    private static String toClassName(String value, int start, int end) {
+        return value.substring(start, end).replace('/', '.');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '$' || isSeparator(c);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '.';
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
 }
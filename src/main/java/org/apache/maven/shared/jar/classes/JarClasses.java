@@ -18,11 +18,15 @@
  */
 package org.apache.maven.shared.jar.classes;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
-import org.apache.commons.collections4.list.SetUniqueList;
+import org.apache.maven.shared.jar.classes.JarClassesOptions.Facet;
 
 /**
  * Gathered facts about the classes within a JAR file.
@@ -62,16 +66,26 @@ public class JarClasses {
      */
     private String jdkRevision;
 
+    /**
+     * Whether only the JDK revision was gathered, from the class file headers.
+     */
+    private boolean headerOnly;
+
+    /**
+     * The facets that were gathered.
+     */
+    private Set<Facet> facets = JarClassesOptions.all().getFacets();
+
     /**
      * Constructor to create an empty instance.
      */
     public JarClasses() {
-        // Unique list decorators are used to ensure natural ordering is retained, the list interface is availble, and
-        // that duplicates are not entered.
-        imports = SetUniqueList.setUniqueList(new ArrayList<>());
-        packages = SetUniqueList.setUniqueList(new ArrayList<>());
-        classNames = SetUniqueList.setUniqueList(new ArrayList<>());
-        methods = SetUniqueList.setUniqueList(new ArrayList<>());
+        // Unique lists are used to ensure natural ordering is retained, the list interface is availble, and that
+        // duplicates are not entered.
+        imports = new UniqueList<>();
+        packages = new UniqueList<>();
+        classNames = new UniqueList<>();
+        methods = new UniqueList<>();
     }
 
     /**
@@ -101,6 +115,16 @@ public class JarClasses {
         this.methods.add(name);
     }
 
+    /**
+     * Add a discovered import to the record.
+     *
+     * @param name the name of the imported class
+     * @since 3.2.1
+     */
+    public void addImport(String name) {
+        this.imports.add(name);
+    }
+
     /**
      * Add a list of discovered imports to the record.
      *
@@ -141,4 +165,98 @@ public class JarClasses {
     public List<String> getMethods() {
         return Collections.unmodifiableList(methods);
     }
+
+    /**
+     * @return whether only the JDK revision was gathered, by reading the class file headers
+     * @see JarClassesAnalysis#analyzeJdkRevision(org.apache.maven.shared.jar.JarAnalyzer, boolean)
+     * @since 3.2.1
+     */
+    public boolean isHeaderOnly() {
+        return headerOnly;
+    }
+
+    void setHeaderOnly(boolean headerOnly) {
+        this.headerOnly = headerOnly;
+    }
+
+    /**
+     * @return the facets that were gathered. The lists of the facets that were not gathered are empty.
+     * @see JarClassesAnalysis#analyze(org.apache.maven.shared.jar.JarAnalyzer, JarClassesOptions)
+     * @since 3.2.1
+     */
+    public Set<Facet> getFacets() {
+        return facets;
+    }
+
+    void setFacets(Set<Facet> facets) {
+        this.facets = facets;
+    }
+
+    /**
+     * Write these facts in a compact binary form, to be read back by {@link #readFrom(DataInput)}, such as to persist
+     * them across builds.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     * @since 3.2.1
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        int facetBits = 0;
+        for (Facet facet : facets) {
+            facetBits |= 1 << facet.ordinal();
+        }
+        out.writeInt(facetBits);
+        out.writeBoolean(headerOnly);
+        out.writeBoolean(isDebugPresent);
+        out.writeBoolean(jdkRevision != null);
+        if (jdkRevision != null) {
+            out.writeUTF(jdkRevision);
+        }
+        writeList(out, classNames);
+        writeList(out, packages);
+        writeList(out, imports);
+        writeList(out, methods);
+    }
+
+    /**
+     * Read facts written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the facts read
+     * @throws IOException if the input cannot be read
+     * @since 3.2.1
+     */
+    public static JarClasses readFrom(DataInput in) throws IOException {
+        JarClasses classes = new JarClasses();
+        int facetBits = in.readInt();
+        Set<Facet> facets = EnumSet.noneOf(Facet.class);
+        for (Facet facet : Facet.values()) {
+            if ((facetBits & 1 << facet.ordinal()) != 0) {
+                facets.add(facet);
+            }
+        }
+        classes.facets = Collections.unmodifiableSet(facets);
+        classes.headerOnly = in.readBoolean();
+        classes.isDebugPresent = in.readBoolean();
+        classes.jdkRevision = in.readBoolean() ? in.readUTF() : null;
+        readList(in, classes.classNames);
+        readList(in, classes.packages);
+        readList(in, classes.imports);
+        readList(in, classes.methods);
+        return classes;
+    }
+
+    private static void writeList(DataOutput out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String value : list) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void readList(DataInput in, List<String> list) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            list.add(in.readUTF());
+        }
+    }
 }
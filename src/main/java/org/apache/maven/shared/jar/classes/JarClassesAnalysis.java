@@ -18,10 +18,15 @@
  */
 package org.apache.maven.shared.jar.classes;
 
+import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -29,24 +34,27 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.jar.JarEntry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
+import org.apache.bcel.Const;
 import org.apache.bcel.classfile.ClassFormatException;
-import org.apache.bcel.classfile.ClassParser;
-import org.apache.bcel.classfile.DescendingVisitor;
-import org.apache.bcel.classfile.JavaClass;
-import org.apache.bcel.classfile.LineNumberTable;
-import org.apache.bcel.classfile.Method;
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.apache.maven.shared.jar.JarData;
+import org.apache.maven.shared.jar.JarEntryIndex;
+import org.apache.maven.shared.jar.classes.JarClassesOptions.Facet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.util.Objects.requireNonNull;
+
 /**
- * Analyze the classes in a JAR file. This class is thread safe and immutable as it retains no state.
+ * Analyze the classes in a JAR file. This class is thread safe and immutable as it retains no state. The facts of each
+ * class file are read by a {@link ClassFileReader}, by default the {@link BcelClassFileReader}.
  *
  * Note that you must first create an instance of {@link org.apache.maven.shared.jar.JarAnalyzer} - see its Javadoc for
  * a typical use.
@@ -60,13 +68,27 @@ public class JarClassesAnalysis {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * The reader used to gather the facts of each class file.
+     */
+    private final ClassFileReader classFileReader;
+
+    /**
+     * The pool to intern the class, package and import names in, or <code>null</code> not to intern them.
+     */
+    private final NamePool namePool;
+
     /**
      * Constant representing the root content of a Multi-Release JAR file, thus outside of
      * any given META-INF/versions/N/... entry.
      */
-    private static final Integer ROOT = 0;
+    private static final Integer ROOT = JarEntryIndex.ROOT;
 
-    private static final Pattern ENTRY_FILTER_MULTI_RELEASE = Pattern.compile("^META-INF/versions/([1-9]\\d*)/.*$");
+    /**
+     * Number of chunks the class entries are split into per available thread in parallel mode, so that threads that
+     * finish early can pick up more work.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
 
     private static final Map<Double, String> JAVA_CLASS_VERSIONS;
 
@@ -100,6 +122,43 @@ public class JarClassesAnalysis {
         JAVA_CLASS_VERSIONS = Collections.unmodifiableMap(aMap);
     }
 
+    /**
+     * The latest class file version with a known JDK revision.
+     */
+    private static final double LATEST_KNOWN_CLASS_VERSION = Collections.max(JAVA_CLASS_VERSIONS.keySet());
+
+    /**
+     * Constructor reading the class files with BCEL.
+     */
+    public JarClassesAnalysis() {
+        this(new BcelClassFileReader());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param classFileReader the reader to gather the facts of each class file with
+     * @since 3.2.1
+     */
+    @Inject
+    public JarClassesAnalysis(@Named("bcel") ClassFileReader classFileReader) {
+        this(classFileReader, null);
+    }
+
+    /**
+     * Constructor interning the names gathered in a pool, which can be shared with other analyses to hold the names
+     * found in many JARs only once.
+     *
+     * @param classFileReader the reader to gather the facts of each class file with
+     * @param namePool the pool to intern the class, package and import names in, or <code>null</code> not to intern
+     *            them
+     * @since 3.2.1
+     */
+    public JarClassesAnalysis(ClassFileReader classFileReader, NamePool namePool) {
+        this.classFileReader = requireNonNull(classFileReader);
+        this.namePool = namePool;
+    }
+
     /**
      * Analyze a JAR and find any classes and their details. Note that if the provided JAR analyzer has previously
      * analyzed the JAR, the cached results will be returned. You must obtain a new JAR analyzer to the re-read the
@@ -109,42 +168,126 @@ public class JarClassesAnalysis {
      * @return the details of the classes found
      */
     public JarClasses analyze(JarAnalyzer jarAnalyzer) {
+        return analyze(jarAnalyzer, JarClassesOptions.all());
+    }
+
+    /**
+     * Analyze a JAR and find any classes and their details, parsing the classes in parallel on the given executor.
+     * The class entries are split into chunks that are parsed independently, and the per-class results are then
+     * merged in entry order, so the returned details are identical to the ones of {@link #analyze(JarAnalyzer)}.
+     * Note that if the provided JAR analyzer has previously analyzed the JAR, the cached results will be returned.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     * @param executor the executor to parse the classes on, or <code>null</code> to parse them on the calling thread
+     * @return the details of the classes found
+     * @since 3.2.1
+     */
+    public JarClasses analyze(JarAnalyzer jarAnalyzer, Executor executor) {
+        return analyze(jarAnalyzer, JarClassesOptions.all().withExecutor(executor));
+    }
+
+    /**
+     * Analyze a JAR and find any classes and the details selected by the given options. The work needed for the facets
+     * that are not selected is skipped, and their lists are left empty. Note that if the provided JAR analyzer has
+     * previously analyzed the JAR with at least the selected facets, the cached results will be returned.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     * @param options the facets to gather and the executor to parse the classes on
+     * @return the details of the classes found
+     * @since 3.2.1
+     */
+    public JarClasses analyze(JarAnalyzer jarAnalyzer, JarClassesOptions options) {
         JarData jarData = jarAnalyzer.getJarData();
         JarClasses classes = jarData.getJarClasses();
-        if (classes == null) {
-            if (jarData.isMultiRelease()) {
-                classes = analyzeMultiRelease(jarAnalyzer);
-            } else {
-                classes = analyzeRoot(jarAnalyzer);
-            }
+        if (classes == null || classes.isHeaderOnly() || !classes.getFacets().containsAll(options.getFacets())) {
+            classes = analyzeEntries(jarAnalyzer, classList -> analyze(jarAnalyzer, classList, options));
         }
         return classes;
     }
 
-    private Integer jarEntryVersion(JarEntry entry) {
-        Matcher matcher = ENTRY_FILTER_MULTI_RELEASE.matcher(entry.getName());
-        if (matcher.matches()) {
-            return Integer.valueOf(matcher.group(1));
+    /**
+     * Analyze a JAR from the details of its class files, read beforehand by {@link #readClass}, such as while the JAR
+     * was read as a stream, rather than from the content of its class entries. The details are merged as the ones read
+     * from the class entries would be, so the returned details are identical to the ones of
+     * {@link #analyze(JarAnalyzer, JarClassesOptions)}. Class entries without details are skipped.
+     *
+     * @param jarAnalyzer the JAR to analyze, whose class entries need not be readable
+     * @param classDetails the details of the class files, by entry name
+     * @param options the facets the details were read with
+     * @return the details of the classes found
+     * @since 3.2.1
+     */
+    public JarClasses analyze(
+            JarAnalyzer jarAnalyzer, Map<String, ClassDetails> classDetails, JarClassesOptions options) {
+        return analyzeEntries(jarAnalyzer, classList -> {
+            ClassDetails[] details = new ClassDetails[classList.size()];
+            for (int i = 0; i < details.length; i++) {
+                details[i] = classDetails.get(classList.get(i).getName());
+            }
+            return merge(details, options);
+        });
+    }
+
+    /**
+     * Read the details of a single class file with the reader of this analysis, for
+     * {@link #analyze(JarAnalyzer, Map, JarClassesOptions)}.
+     *
+     * @param is the content of the class file
+     * @param entryName the name of the class entry
+     * @param options the facets to gather
+     * @return the details of the class
+     * @throws IOException if the class file cannot be read
+     * @throws ClassFormatException if the content is not a valid class file
+     * @since 3.2.1
+     */
+    public ClassDetails readClass(InputStream is, String entryName, JarClassesOptions options) throws IOException {
+        return classFileReader.read(is, entryName, options);
+    }
+
+    /**
+     * Analyze a JAR for the JDK revision only. Only the first 8 bytes of each class file, its magic number and version,
+     * are read, so this is much cheaper than a full analysis. The returned details only have their JDK revision
+     * populated, as have the ones of the runtime versions of a Multi-Release JAR.
+     *
+     * The results are cached in the JAR data unless it already holds the results of a previous analysis, which are
+     * returned instead. A later call to {@link #analyze(JarAnalyzer)} still performs the full analysis.
+     *
+     * @param jarAnalyzer the JAR to analyze. This must not yet have been closed.
+     * @param stopAtLatestKnownVersion whether to stop reading class files once a class of the latest known class file
+     *            version has been seen, as no other class can raise the JDK revision any further
+     * @return the details of the classes found, with only the JDK revision populated
+     * @since 3.2.1
+     */
+    public JarClasses analyzeJdkRevision(JarAnalyzer jarAnalyzer, boolean stopAtLatestKnownVersion) {
+        JarClasses classes = jarAnalyzer.getJarData().getJarClasses();
+        if (classes == null) {
+            classes = analyzeEntries(
+                    jarAnalyzer, classList -> readJdkRevision(jarAnalyzer, classList, stopAtLatestKnownVersion));
         }
-        return ROOT;
+        return classes;
     }
 
-    private JarClasses analyzeMultiRelease(JarAnalyzer jarAnalyzer) {
-        String jarFilename = jarAnalyzer.getFile().getAbsolutePath();
+    private JarClasses analyzeEntries(JarAnalyzer jarAnalyzer, Function<List<JarEntry>, JarClasses> classesAnalysis) {
+        if (jarAnalyzer.getJarData().isMultiRelease()) {
+            return analyzeMultiRelease(jarAnalyzer, classesAnalysis);
+        } else {
+            return analyzeRoot(jarAnalyzer, classesAnalysis);
+        }
+    }
 
-        Map<Integer, List<JarEntry>> mapEntries =
-                jarAnalyzer.getEntries().stream().collect(Collectors.groupingBy(this::jarEntryVersion));
+    private JarClasses analyzeMultiRelease(
+            JarAnalyzer jarAnalyzer, Function<List<JarEntry>, JarClasses> classesAnalysis) {
+        JarEntryIndex entryIndex = jarAnalyzer.getEntryIndex();
 
         // ordered by increasing Java version
         NavigableMap<Integer, JarVersionedRuntime> runtimeVersionsMap = new TreeMap<>();
 
-        for (Map.Entry<Integer, List<JarEntry>> mapEntry : mapEntries.entrySet()) {
-            Integer runtimeVersion = mapEntry.getKey();
-            List<JarEntry> runtimeVersionEntryList = mapEntry.getValue();
+        for (Integer runtimeVersion : entryIndex.getReleases()) {
+            List<JarEntry> runtimeVersionEntryList = entryIndex.getReleaseEntries(runtimeVersion);
 
-            List<JarEntry> classList = jarAnalyzer.getClassEntries(runtimeVersionEntryList);
+            List<JarEntry> classList = entryIndex.getReleaseEntries(runtimeVersion, JarEntryIndex.CLASS);
 
-            JarClasses classes = analyze(jarFilename, classList);
+            JarClasses classes = classesAnalysis.apply(classList);
 
             runtimeVersionsMap.put(runtimeVersion, new JarVersionedRuntime(runtimeVersionEntryList, classes));
         }
@@ -161,95 +304,218 @@ public class JarClassesAnalysis {
         return rootJarClasses;
     }
 
-    private JarClasses analyzeRoot(JarAnalyzer jarAnalyzer) {
-        String jarFilename = jarAnalyzer.getFile().getAbsolutePath();
+    private JarClasses analyzeRoot(JarAnalyzer jarAnalyzer, Function<List<JarEntry>, JarClasses> classesAnalysis) {
+        List<JarEntry> classList = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS);
 
-        List<JarEntry> classList = jarAnalyzer.getClassEntries();
-
-        JarClasses classes = analyze(jarFilename, classList);
+        JarClasses classes = classesAnalysis.apply(classList);
 
         jarAnalyzer.getJarData().setJarClasses(classes);
         return classes;
     }
 
-    private JarClasses analyze(String jarFilename, List<JarEntry> classList) {
+    /**
+     * Read the JDK revision of the given class entries from the header of each class file.
+     */
+    private JarClasses readJdkRevision(
+            JarAnalyzer jarAnalyzer, List<JarEntry> classList, boolean stopAtLatestKnownVersion) {
         JarClasses classes = new JarClasses();
-
-        classes.setDebugPresent(false);
+        classes.setHeaderOnly(true);
+        classes.setFacets(JarClassesOptions.of().getFacets());
 
         double maxVersion = 0.0;
         double moduleInfoVersion = 0.0;
 
+        byte[] header = new byte[8];
         for (JarEntry entry : classList) {
             String classname = entry.getName();
 
-            try {
-                ClassParser classParser = new ClassParser(jarFilename, classname);
-
-                JavaClass javaClass = classParser.parse();
+            try (DataInputStream is = new DataInputStream(jarAnalyzer.getEntryInputStream(entry))) {
+                is.readFully(header);
 
-                String classSignature = javaClass.getClassName();
-
-                if (!classes.isDebugPresent()) {
-                    if (hasDebugSymbols(javaClass)) {
-                        classes.setDebugPresent(true);
-                    }
+                ByteBuffer buffer = ByteBuffer.wrap(header);
+                if (buffer.getInt() != Const.JVM_CLASSFILE_MAGIC) {
+                    logger.warn("Unable to process class " + classname + " in JarAnalyzer File "
+                            + jarAnalyzer.getJarData().getLocation() + ": not a Java .class file");
+                    continue;
                 }
+                int minor = buffer.getShort() & 0xFFFF;
+                int major = buffer.getShort() & 0xFFFF;
 
-                double classVersion = javaClass.getMajor();
-                if (javaClass.getMinor() > 0) {
-                    classVersion = classVersion + javaClass.getMinor() / 10.0;
+                double classVersion = major;
+                if (minor > 0) {
+                    classVersion = classVersion + minor / 10.0;
                 }
 
-                if ("module-info".equals(classSignature)) {
+                if (classname.equals("module-info.class") || classname.endsWith("/module-info.class")) {
                     // ignore the module-info.class for computing the maxVersion, since it will always be >= 9
                     moduleInfoVersion = classVersion;
                 } else if (classVersion > maxVersion) {
                     maxVersion = classVersion;
+                    if (stopAtLatestKnownVersion && maxVersion >= LATEST_KNOWN_CLASS_VERSION) {
+                        break;
+                    }
                 }
+            } catch (IOException e) {
+                logger.warn(
+                        "Unable to process class " + classname + " in JarAnalyzer File "
+                                + jarAnalyzer.getJarData().getLocation(),
+                        e);
+            }
+        }
 
-                Method[] methods = javaClass.getMethods();
-                for (Method method : methods) {
-                    classes.addMethod(classSignature + "." + method.getName() + method.getSignature());
+        setJdkRevision(classes, maxVersion, moduleInfoVersion);
+
+        return classes;
+    }
+
+    /**
+     * Analyze the given class entries. Every class is read through the JAR file already held open by the analyzer, so
+     * the archive is opened and its central directory read only once, regardless of the number of classes.
+     */
+    private JarClasses analyze(JarAnalyzer jarAnalyzer, List<JarEntry> classList, JarClassesOptions options) {
+        ClassDetails[] details = new ClassDetails[classList.size()];
+
+        Executor executor = options.getExecutor();
+        if (executor == null || details.length < 2) {
+            parseClasses(jarAnalyzer, classList, options, details, 0, details.length);
+        } else {
+            int chunkSize = Math.max(1, details.length / (getParallelism(executor) * CHUNKS_PER_THREAD));
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int start = 0; start < details.length; start += chunkSize) {
+                int from = start;
+                int to = Math.min(details.length, start + chunkSize);
+                chunks.add(CompletableFuture.runAsync(
+                        () -> parseClasses(jarAnalyzer, classList, options, details, from, to), executor));
+            }
+            try {
+                CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                        .join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
                 }
+                throw e;
+            }
+        }
 
-                String classPackageName = javaClass.getPackageName();
+        return merge(details, options);
+    }
 
-                classes.addClassName(classSignature);
-                classes.addPackage(classPackageName);
+    private static int getParallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
 
-                ImportVisitor importVisitor = new ImportVisitor(javaClass);
-                DescendingVisitor descVisitor = new DescendingVisitor(javaClass, importVisitor);
-                javaClass.accept(descVisitor);
+    private void parseClasses(
+            JarAnalyzer jarAnalyzer,
+            List<JarEntry> classList,
+            JarClassesOptions options,
+            ClassDetails[] details,
+            int from,
+            int to) {
+        for (int i = from; i < to; i++) {
+            details[i] = parseClass(jarAnalyzer, classList.get(i), options);
+        }
+    }
 
-                classes.addImports(importVisitor.getImports());
-            } catch (ClassFormatException e) {
-                logger.warn("Unable to process class " + classname + " in JarAnalyzer File " + jarFilename, e);
-            } catch (IOException e) {
-                logger.warn("Unable to process JarAnalyzer File " + jarFilename, e);
-            }
+    /**
+     * Parse a single class entry.
+     *
+     * @return the details of the class, or <code>null</code> if it could not be read
+     */
+    private ClassDetails parseClass(JarAnalyzer jarAnalyzer, JarEntry entry, JarClassesOptions options) {
+        String classname = entry.getName();
+
+        try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+            return classFileReader.read(is, classname, options);
+        } catch (ClassFormatException e) {
+            logger.warn(
+                    "Unable to process class " + classname + " in JarAnalyzer File "
+                            + jarAnalyzer.getJarData().getLocation(),
+                    e);
+        } catch (IOException e) {
+            logger.warn(
+                    "Unable to process JarAnalyzer File "
+                            + jarAnalyzer.getJarData().getLocation(),
+                    e);
         }
+        return null;
+    }
 
-        if (maxVersion == 0.0 && moduleInfoVersion > 0.0) {
-            // the one and only class file was module-info.class
-            maxVersion = moduleInfoVersion;
+    /**
+     * Merge the details of the individual classes, in order, into the facts about the JAR.
+     */
+    private JarClasses merge(ClassDetails[] details, JarClassesOptions options) {
+        JarClasses classes = new JarClasses();
+        classes.setFacets(options.getFacets());
+        boolean addPackages = options.isEnabled(Facet.PACKAGES);
+        List<String> classNames = classes.getClassNames();
+        List<String> packages = classes.getPackages();
+        List<String> imports = classes.getImports();
+
+        classes.setDebugPresent(false);
+
+        double maxVersion = 0.0;
+        double moduleInfoVersion = 0.0;
+
+        for (ClassDetails classDetails : details) {
+            if (classDetails == null) {
+                continue;
+            }
+
+            if (classDetails.isDebugPresent()) {
+                classes.setDebugPresent(true);
+            }
+
+            double classVersion = classDetails.getClassVersion();
+            if (classDetails.isModuleInfo()) {
+                // ignore the module-info.class for computing the maxVersion, since it will always be >= 9
+                moduleInfoVersion = classVersion;
+            } else if (classVersion > maxVersion) {
+                maxVersion = classVersion;
+            }
+
+            for (String method : classDetails.getMethods()) {
+                classes.addMethod(method);
+            }
+
+            classes.addClassName(intern(classDetails.getClassName(), classNames));
+            if (addPackages) {
+                classes.addPackage(intern(classDetails.getPackageName(), packages));
+            }
+
+            if (namePool == null) {
+                classes.addImports(classDetails.getImports());
+            } else {
+                for (String anImport : classDetails.getImports()) {
+                    classes.addImport(intern(anImport, imports));
+                }
+            }
         }
 
-        Optional.ofNullable(JAVA_CLASS_VERSIONS.get(maxVersion)).ifPresent(classes::setJdkRevision);
+        setJdkRevision(classes, maxVersion, moduleInfoVersion);
 
         return classes;
     }
 
-    private boolean hasDebugSymbols(JavaClass javaClass) {
-        boolean ret = false;
-        Method[] methods = javaClass.getMethods();
-        for (Method method : methods) {
-            LineNumberTable linenumbers = method.getLineNumberTable();
-            if (linenumbers != null && linenumbers.getLength() > 0) {
-                ret = true;
-                break;
-            }
+    /**
+     * Intern a name in the pool, unless it is already in the given list, which then ignores it.
+     */
+    private String intern(String name, List<String> names) {
+        if (namePool == null || name == null || names.contains(name)) {
+            return name;
         }
-        return ret;
+        return namePool.intern(name);
+    }
+
+    private static void setJdkRevision(JarClasses classes, double maxVersion, double moduleInfoVersion) {
+        if (maxVersion == 0.0 && moduleInfoVersion > 0.0) {
+            // the one and only class file was module-info.class
+            maxVersion = moduleInfoVersion;
+        }
+
+        Optional.ofNullable(JAVA_CLASS_VERSIONS.get(maxVersion)).ifPresent(classes::setJdkRevision);
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Options of a {@link JarClassesAnalysis}: which facets of the classes to gather, and the executor to parse the classes
+ * on. The class names and the JDK revision are always gathered. Instances are immutable.
+ *
+ * @see JarClassesAnalysis#analyze(org.apache.maven.shared.jar.JarAnalyzer, JarClassesOptions)
+ * @since 3.2.1
+ */
+public final class JarClassesOptions {
+    /**
+     * A facet of the classes that can be gathered or skipped.
+     */
+    public enum Facet {
+        /**
+         * The imports, found in the constant pool of each class.
+         */
+        IMPORTS,
+
+        /**
+         * The method signatures.
+         */
+        METHODS,
+
+        /**
+         * Whether the classes hold debug information, found in the line number tables of the methods.
+         */
+        DEBUG_INFO,
+
+        /**
+         * The packages of the classes.
+         */
+        PACKAGES
+    }
+
+    private static final JarClassesOptions ALL =
+            new JarClassesOptions(Collections.unmodifiableSet(EnumSet.allOf(Facet.class)), null);
+
+    private final Set<Facet> facets;
+
+    private final Executor executor;
+
+    private JarClassesOptions(Set<Facet> facets, Executor executor) {
+        this.facets = facets;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the options gathering all the facets on the calling thread
+     */
+    public static JarClassesOptions all() {
+        return ALL;
+    }
+
+    /**
+     * @param facets the facets to gather, none if empty
+     * @return the options gathering only the given facets on the calling thread
+     */
+    public static JarClassesOptions of(Facet... facets) {
+        Set<Facet> set = EnumSet.noneOf(Facet.class);
+        Collections.addAll(set, facets);
+        return new JarClassesOptions(Collections.unmodifiableSet(set), null);
+    }
+
+    /**
+     * @param executor the executor to parse the classes on, or <code>null</code> to parse them on the calling thread
+     * @return options gathering the same facets, parsing the classes on the given executor
+     */
+    public JarClassesOptions withExecutor(Executor executor) {
+        return new JarClassesOptions(facets, executor);
+    }
+
+    /**
+     * @return the facets to gather
+     */
+    public Set<Facet> getFacets() {
+        return facets;
+    }
+
+    /**
+     * @param facet the facet
+     * @return whether the facet is to be gathered
+     */
+    public boolean isEnabled(Facet facet) {
+        return facets.contains(requireNonNull(facet));
+    }
+
+    /**
+     * @return the executor to parse the classes on, or <code>null</code> to parse them on the calling thread
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+}
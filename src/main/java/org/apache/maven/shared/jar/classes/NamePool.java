@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of the names gathered by a {@link JarClassesAnalysis}, so that the class, package and import names that
+ * appear in many JARs, such as <code>java.lang.String</code>, are held only once across all the analyses sharing the
+ * pool. This class is thread safe. The pool only grows, so its lifetime should be bound to the analyses it serves.
+ *
+ * @see JarClassesAnalysis#JarClassesAnalysis(ClassFileReader, NamePool)
+ * @since 3.2.1
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public class NamePool {
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Get the pooled instance of a name, pooling the given one if there is none yet.
+     *
+     * @param name the name, not <code>null</code>
+     * @return the pooled instance equal to the name
+     */
+    public String intern(String name) {
+        String pooled = names.putIfAbsent(name, name);
+        if (pooled == null) {
+            return name;
+        }
+        if (pooled != name) {
+            hits.increment();
+            savedBytes.add(estimateSize(name));
+        }
+        return pooled;
+    }
+
+    /**
+     * @return the number of distinct names in the pool
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * @return the number of names that were replaced by an already pooled instance
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return an estimate of the heap bytes saved by the names replaced by an already pooled instance, assuming they
+     *         would otherwise have been retained
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Estimate the size of a string with compact strings and compressed references: a 24 bytes object plus a byte array
+     * with a 16 bytes header, padded to 8 bytes.
+     */
+    private static long estimateSize(String name) {
+        return 24 + ((16 + name.length() + 7) & ~7);
+    }
+}
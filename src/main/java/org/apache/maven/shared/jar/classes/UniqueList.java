@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list that ignores the elements it already holds, retaining the order of insertion. The elements are held in an
+ * array, and indexed by an open addressing hash table of their positions, so that each element costs a few bytes
+ * instead of the entry of a backing {@link java.util.HashSet}. Elements cannot be removed or replaced.
+ *
+ * @param <E> the type of the elements
+ */
+final class UniqueList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * The hash table, holding the position of each element plus one, 0 marking a free slot. Its length is a power of
+     * two, at least twice the capacity of the elements array.
+     */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    @Override
+    public boolean add(E element) {
+        int hash = hash(element);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int position; (position = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (Objects.equals(elements[position - 1], element)) {
+                return false;
+            }
+        }
+
+        if (size == elements.length) {
+            grow();
+            mask = table.length - 1;
+            slot = hash & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        elements[size++] = element;
+        table[slot] = size;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> collection) {
+        boolean modified = false;
+        for (E element : collection) {
+            modified |= add(element);
+        }
+        return modified;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        int mask = table.length - 1;
+        for (int slot = hash(o) & mask, position; (position = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (Objects.equals(elements[position - 1], o)) {
+                return position - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    private void grow() {
+        elements = Arrays.copyOf(elements, elements.length * 2);
+        table = new int[elements.length * 2];
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(elements[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(Object o) {
+        int h = Objects.hashCode(o);
+        // spread the high bits, as the table is indexed by the low ones
+        return h ^ (h >>> 16);
+    }
+}
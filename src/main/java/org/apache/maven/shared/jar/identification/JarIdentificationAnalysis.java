@@ -22,6 +22,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.maven.shared.jar.JarAnalyzer;
@@ -78,6 +79,43 @@ public class JarIdentificationAnalysis {
         return taxon;
     }
 
+    /**
+     * Analyze several JARs and find any associated Maven metadata, as {@link #analyze(JarAnalyzer)} does. Each exposer
+     * is given all the JARs at once, so that the ones looking up a repository can resolve the hashes of all the JARs in
+     * a single query.
+     *
+     * @param jarAnalyzers the JARs to analyze. These must not yet have been closed.
+     * @return the Maven metadata discovered, for each JAR in order
+     * @since 3.2.1
+     */
+    public List<JarIdentification> analyze(List<JarAnalyzer> jarAnalyzers) {
+        List<JarIdentification> taxa = new ArrayList<>(jarAnalyzers.size());
+        List<JarIdentification> newTaxa = new ArrayList<>();
+        List<JarAnalyzer> newJarAnalyzers = new ArrayList<>();
+        for (JarAnalyzer jarAnalyzer : jarAnalyzers) {
+            JarIdentification taxon = jarAnalyzer.getJarData().getJarIdentification();
+            if (taxon == null) {
+                taxon = new JarIdentification();
+                newTaxa.add(taxon);
+                newJarAnalyzers.add(jarAnalyzer);
+            }
+            taxa.add(taxon);
+        }
+
+        if (!newTaxa.isEmpty()) {
+            for (JarIdentificationExposer exposer : exposers) {
+                exposer.expose(newTaxa, newJarAnalyzers);
+            }
+
+            for (int i = 0; i < newTaxa.size(); i++) {
+                normalize(newTaxa.get(i));
+                newJarAnalyzers.get(i).getJarData().setJarIdentification(newTaxa.get(i));
+            }
+        }
+
+        return taxa;
+    }
+
     private void normalize(JarIdentification taxon) {
         if (StringUtils.isEmpty(taxon.getGroupId())) {
             taxon.setGroupId(pickSmallest(taxon.getPotentialGroupIds()));
@@ -18,6 +18,8 @@
  */
 package org.apache.maven.shared.jar.identification;
 
+import java.util.List;
+
 import org.apache.maven.shared.jar.JarAnalyzer;
 
 /**
@@ -34,4 +36,19 @@ public interface JarIdentificationExposer {
      *                       of caching the metadata if it would be identical when run over the same file again.
      */
     void expose(JarIdentification identification, JarAnalyzer jarAnalyzer);
+
+    /**
+     * Expose metadata for several JARs during the identification process. Exposers that query an external source can
+     * override it to gather the queries of all the JARs first, the default implementation exposes the JARs one by one.
+     *
+     * @param identifications the identification records to populate, one for each JAR
+     * @param jarAnalyzers    the JARs to obtain the information from, see {@link #expose(JarIdentification,
+     *                        JarAnalyzer)}
+     * @since 3.2.1
+     */
+    default void expose(List<JarIdentification> identifications, List<JarAnalyzer> jarAnalyzers) {
+        for (int i = 0; i < jarAnalyzers.size(); i++) {
+            expose(identifications.get(i), jarAnalyzers.get(i));
+        }
+    }
 }
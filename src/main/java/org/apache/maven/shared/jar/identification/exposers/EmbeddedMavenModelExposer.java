@@ -31,6 +31,7 @@ import org.apache.maven.model.Model;
 import org.apache.maven.model.Organization;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarEntryIndex;
 import org.apache.maven.shared.jar.identification.JarIdentification;
 import org.apache.maven.shared.jar.identification.JarIdentificationExposer;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
@@ -47,7 +48,7 @@ public class EmbeddedMavenModelExposer implements JarIdentificationExposer {
 
     @Override
     public void expose(JarIdentification identification, JarAnalyzer jarAnalyzer) {
-        List<JarEntry> entries = jarAnalyzer.getMavenPomEntries();
+        List<JarEntry> entries = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.MAVEN_POM);
         if (entries.isEmpty()) {
             return;
         }
@@ -87,9 +88,15 @@ public class EmbeddedMavenModelExposer implements JarIdentificationExposer {
                 identification.addAndSetVendor(org.getName());
             }
         } catch (IOException e) {
-            logger.error("Unable to read model " + pom.getName() + " in " + jarAnalyzer.getFile() + ".", e);
+            logger.error(
+                    "Unable to read model " + pom.getName() + " in "
+                            + jarAnalyzer.getJarData().getLocation() + ".",
+                    e);
         } catch (XmlPullParserException e) {
-            logger.error("Unable to parse model " + pom.getName() + " in " + jarAnalyzer.getFile() + ".", e);
+            logger.error(
+                    "Unable to parse model " + pom.getName() + " in "
+                            + jarAnalyzer.getJarData().getLocation() + ".",
+                    e);
         }
     }
 }
@@ -40,7 +40,11 @@ public class FilenameExposer implements JarIdentificationExposer {
 
     @Override
     public void expose(JarIdentification identification, JarAnalyzer jarAnalyzer) {
-        String filename = FileUtils.removeExtension(jarAnalyzer.getFile().getName());
+        String name = jarAnalyzer.getJarData().getName();
+        if (name == null) {
+            return;
+        }
+        String filename = FileUtils.removeExtension(name);
         Matcher mat = VERSION_PATTERN.matcher(filename);
         if (mat.find()) {
             String prefix = filename.substring(0, mat.start());
@@ -23,7 +23,11 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.shared.jar.JarAnalyzer;
@@ -42,9 +46,7 @@ import static java.util.Objects.requireNonNull;
 @Named("repositorySearch")
 public class RepositorySearchExposer implements JarIdentificationExposer {
     /**
-     * The repository searcher to use.
-     *
-     * @todo this currently only provides for the 'empty' repository search, which isn't very useful
+     * The repository searcher to use, by default the cache of the repository search registered in the container.
      */
     private final RepositoryHashSearch repositoryHashSearch;
 
@@ -82,6 +84,49 @@ public class RepositorySearchExposer implements JarIdentificationExposer {
             repohits.addAll(repositoryHashSearch.searchBytecodeHash(bytecodehash));
         }
 
+        addHits(identification, repohits);
+    }
+
+    /**
+     * Compute the hashes of all the JARs, then search them in the repository with one call for the file hashes and one
+     * for the bytecode hashes.
+     */
+    @Override
+    public void expose(List<JarIdentification> identifications, List<JarAnalyzer> jarAnalyzers) {
+        String[] hashes = new String[jarAnalyzers.size()];
+        String[] bytecodeHashes = new String[jarAnalyzers.size()];
+        Set<String> fileHashQuery = new LinkedHashSet<>();
+        Set<String> bytecodeHashQuery = new LinkedHashSet<>();
+        for (int i = 0; i < jarAnalyzers.size(); i++) {
+            hashes[i] = fileHashAnalyzer.computeHash(jarAnalyzers.get(i));
+            if (hashes[i] != null) {
+                fileHashQuery.add(hashes[i]);
+            }
+            bytecodeHashes[i] = bytecodeHashAnalyzer.computeHash(jarAnalyzers.get(i));
+            if (bytecodeHashes[i] != null) {
+                bytecodeHashQuery.add(bytecodeHashes[i]);
+            }
+        }
+
+        Map<String, List<Artifact>> fileHits =
+                fileHashQuery.isEmpty() ? Collections.emptyMap() : repositoryHashSearch.searchFileHashes(fileHashQuery);
+        Map<String, List<Artifact>> bytecodeHits = bytecodeHashQuery.isEmpty()
+                ? Collections.emptyMap()
+                : repositoryHashSearch.searchBytecodeHashes(bytecodeHashQuery);
+
+        for (int i = 0; i < jarAnalyzers.size(); i++) {
+            List<Artifact> repohits = new ArrayList<>();
+            if (hashes[i] != null) {
+                repohits.addAll(fileHits.getOrDefault(hashes[i], Collections.emptyList()));
+            }
+            if (bytecodeHashes[i] != null) {
+                repohits.addAll(bytecodeHits.getOrDefault(bytecodeHashes[i], Collections.emptyList()));
+            }
+            addHits(identifications.get(i), repohits);
+        }
+    }
+
+    private static void addHits(JarIdentification identification, List<Artifact> repohits) {
         // Found hits in the repository.
         for (Artifact artifact : repohits) {
             identification.addAndSetGroupId(artifact.getGroupId());
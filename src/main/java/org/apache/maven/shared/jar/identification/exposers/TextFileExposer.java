@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.jar.JarEntry;
 
 import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarEntryIndex;
 import org.apache.maven.shared.jar.identification.JarIdentification;
 import org.apache.maven.shared.jar.identification.JarIdentificationExposer;
 import org.slf4j.Logger;
@@ -54,7 +55,7 @@ public class TextFileExposer implements JarIdentificationExposer {
 
     private List<String> findTextFileVersions(JarAnalyzer jarAnalyzer) {
         List<String> textVersions = new ArrayList<>();
-        List<JarEntry> hits = jarAnalyzer.getVersionEntries();
+        List<JarEntry> hits = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.VERSION);
 
         for (JarEntry entry : hits) {
             // skip this entry if it's a class file.
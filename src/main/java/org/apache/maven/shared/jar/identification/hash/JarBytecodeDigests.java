@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * The digests of the individual class entries of a JAR, and the root hash combining them, as computed by the
+ * {@link JarMerkleHashAnalyzer}. The entries are in the order of their names. Each entry also records the CRC-32 and
+ * size of its content, as stored in the JAR, so that it can be recognized unchanged when the JAR is analyzed again.
+ *
+ * @since 3.2.1
+ */
+public final class JarBytecodeDigests {
+    private final String rootHash;
+
+    private final String[] names;
+
+    private final long[] crcs;
+
+    private final long[] sizes;
+
+    private final byte[][] digests;
+
+    private final Map<String, Integer> index;
+
+    JarBytecodeDigests(String rootHash, String[] names, long[] crcs, long[] sizes, byte[][] digests) {
+        this.rootHash = rootHash;
+        this.names = names;
+        this.crcs = crcs;
+        this.sizes = sizes;
+        this.digests = digests;
+        this.index = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+        }
+    }
+
+    /**
+     * @return the hexadecimal root hash, combining the names and digests of all the class entries
+     */
+    public String getRootHash() {
+        return rootHash;
+    }
+
+    /**
+     * @return the names of the class entries, in order
+     */
+    public List<String> getEntryNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @param name the name of a class entry
+     * @return the hexadecimal digest of the entry, or <code>null</code> if there is no such class entry
+     */
+    public String getEntryDigest(String name) {
+        Integer i = index.get(name);
+        return i != null ? Hex.encodeHexString(digests[i]) : null;
+    }
+
+    /**
+     * @return the hexadecimal digests of the class entries by name, in the order of the entries
+     */
+    public Map<String, String> getEntryDigests() {
+        Map<String, String> entryDigests = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            entryDigests.put(names[i], Hex.encodeHexString(digests[i]));
+        }
+        return Collections.unmodifiableMap(entryDigests);
+    }
+
+    /**
+     * Compare the class entries of two JARs.
+     *
+     * @param other the digests of the other JAR
+     * @return the sorted names of the class entries that are in only one of the JARs, or whose digests differ
+     */
+    public Set<String> getDifferences(JarBytecodeDigests other) {
+        Set<String> differences = new TreeSet<>();
+        for (int i = 0; i < names.length; i++) {
+            Integer j = other.index.get(names[i]);
+            if (j == null || !Arrays.equals(digests[i], other.digests[j])) {
+                differences.add(names[i]);
+            }
+        }
+        for (String name : other.names) {
+            if (!index.containsKey(name)) {
+                differences.add(name);
+            }
+        }
+        return Collections.unmodifiableSet(differences);
+    }
+
+    /**
+     * Get the digest of an entry that is unchanged since these digests were computed.
+     *
+     * @return the digest, or <code>null</code> if there is no entry with that name, CRC-32 and size
+     */
+    byte[] getUnchangedDigest(String name, long crc, long size) {
+        Integer i = index.get(name);
+        if (i == null || crc < 0 || size < 0 || crcs[i] != crc || sizes[i] != size) {
+            return null;
+        }
+        return digests[i];
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.maven.shared.jar.JarAnalyzer;
 import org.apache.maven.shared.jar.JarData;
+import org.apache.maven.shared.jar.JarEntryIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,8 +48,8 @@ public class JarBytecodeHashAnalyzer implements JarHashAnalyzer {
         JarData jarData = jarAnalyzer.getJarData();
 
         String result = jarData.getBytecodeHash();
-        if (result == null) {
-            List<JarEntry> entries = jarAnalyzer.getClassEntries();
+        if (result == null && jarData.isBytecodeHashAvailable()) {
+            List<JarEntry> entries = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS);
 
             try {
                 MessageDigest sha1 = DigestUtils.getSha1Digest();
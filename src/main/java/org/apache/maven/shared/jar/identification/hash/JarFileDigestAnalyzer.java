@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzer that calculates several digests of the entire file in a single read, such as the SHA-1, SHA-256 and SHA-512
+ * checksums published in a software bill of materials. A JAR on the default file system is memory mapped in large
+ * windows, and other JARs are read from {@link JarAnalyzer#getInputStream()}. Each block read is fed to every digest
+ * while it is still in the CPU cache.
+ * <p>
+ * The digests are cached in {@link JarData#getFileDigests()}, and only the missing ones are computed. The SHA-1 digest,
+ * when computed, is also cached as the {@link JarData#getFileHash() file hash}.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class JarFileDigestAnalyzer {
+    /**
+     * The algorithms computed by default.
+     */
+    public static final List<String> DEFAULT_ALGORITHMS =
+            Collections.unmodifiableList(Arrays.asList("SHA-1", "SHA-256", "SHA-512"));
+
+    private static final String SHA_1 = "SHA-1";
+
+    /**
+     * The size of the windows the file is mapped in, small enough for a 32-bit address space.
+     */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The size of the blocks given to the digests, small enough to stay in the CPU cache while each digest reads it.
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final List<String> algorithms;
+
+    /**
+     * Constructor computing the {@link #DEFAULT_ALGORITHMS}.
+     */
+    @Inject
+    public JarFileDigestAnalyzer() {
+        this(DEFAULT_ALGORITHMS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param algorithms the names of the {@link MessageDigest} algorithms to compute, such as <code>SHA-256</code>
+     * @throws IllegalArgumentException if an algorithm is not available
+     */
+    public JarFileDigestAnalyzer(Collection<String> algorithms) {
+        if (algorithms.isEmpty()) {
+            throw new IllegalArgumentException("At least one digest algorithm is required");
+        }
+        for (String algorithm : algorithms) {
+            getDigest(algorithm);
+        }
+        this.algorithms = Collections.unmodifiableList(new ArrayList<>(algorithms));
+    }
+
+    /**
+     * @return the names of the algorithms computed by this analyzer
+     */
+    public List<String> getAlgorithms() {
+        return algorithms;
+    }
+
+    /**
+     * Compute the digests of the JAR. They are then cached in the JAR data class for later use.
+     *
+     * @param jarAnalyzer the JAR analyzer to use to read the JAR
+     * @return the hexadecimal digests by algorithm name, in the order of {@link #getAlgorithms()}, or <code>null</code>
+     *         if they could not be computed due to an exception
+     */
+    public Map<String, String> computeDigests(JarAnalyzer jarAnalyzer) {
+        JarData jarData = jarAnalyzer.getJarData();
+        Map<String, String> cached = jarData.getFileDigests();
+
+        List<String> missing = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            if (!cached.containsKey(algorithm)) {
+                missing.add(algorithm);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            MessageDigest[] digests = new MessageDigest[missing.size()];
+            for (int i = 0; i < digests.length; i++) {
+                digests[i] = getDigest(missing.get(i));
+            }
+            try {
+                Path path = jarData.getPath();
+                if (path != null && path.getFileSystem() == FileSystems.getDefault()) {
+                    updateMapped(digests, path);
+                } else {
+                    try (InputStream inputStream = jarAnalyzer.getInputStream()) {
+                        update(digests, inputStream);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to calculate the digests of " + jarData.getLocation(), e);
+                return null;
+            }
+
+            Map<String, String> computed = new LinkedHashMap<>(cached);
+            for (int i = 0; i < digests.length; i++) {
+                computed.put(missing.get(i), Hex.encodeHexString(digests[i].digest()));
+            }
+            jarData.setFileDigests(computed);
+            cached = jarData.getFileDigests();
+
+            String sha1 = cached.get(SHA_1);
+            if (sha1 != null && jarData.getFileHash() == null) {
+                jarData.setFileHash(sha1);
+            }
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            result.put(algorithm, cached.get(algorithm));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void updateMapped(MessageDigest[] digests, Path path) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                MappedByteBuffer window =
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                while (window.hasRemaining()) {
+                    int length = Math.min(block.length, window.remaining());
+                    window.get(block, 0, length);
+                    update(digests, block, length);
+                }
+            }
+        }
+    }
+
+    private static void update(MessageDigest[] digests, InputStream inputStream) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE];
+        int read;
+        while ((read = inputStream.read(block)) != -1) {
+            update(digests, block, read);
+        }
+    }
+
+    private static void update(MessageDigest[] digests, byte[] block, int length) {
+        for (MessageDigest digest : digests) {
+            digest.update(block, 0, length);
+        }
+    }
+
+    private static MessageDigest getDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unsupported digest algorithm " + algorithm, e);
+        }
+    }
+}
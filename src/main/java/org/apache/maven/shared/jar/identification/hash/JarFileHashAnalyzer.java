@@ -23,7 +23,6 @@ import javax.inject.Singleton;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.maven.shared.jar.JarAnalyzer;
@@ -46,9 +45,9 @@ public class JarFileHashAnalyzer implements JarHashAnalyzer {
         String result = jarData.getFileHash();
         if (result == null) {
             try {
-                try (InputStream inputStream =
-                        Files.newInputStream(jarData.getFile().toPath())) {
-                    jarData.setFileHash(DigestUtils.sha1Hex(inputStream));
+                try (InputStream inputStream = jarAnalyzer.getInputStream()) {
+                    result = DigestUtils.sha1Hex(inputStream);
+                    jarData.setFileHash(result);
                 }
             } catch (IOException e) {
                 logger.warn("Unable to calculate the hashcode.", e);
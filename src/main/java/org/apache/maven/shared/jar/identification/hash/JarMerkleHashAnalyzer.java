@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarData;
+import org.apache.maven.shared.jar.JarEntryIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Analyzer that calculates a hash tree of the class data of the file. Every class entry is digested on its own, in
+ * parallel, then the names and digests of the entries are combined, in the order of the names, into a root hash. Like
+ * the {@link JarBytecodeHashAnalyzer} hash, the root hash sees through a recompile, recompression, or timestamp change,
+ * but the two hashes differ.
+ * <p>
+ * The digests of the entries are cached in {@link JarData#getBytecodeDigests()}. They tell which classes differ between
+ * two JARs, and let a new analysis of a modified JAR skip the entries whose CRC-32 and size are unchanged.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named("merkle")
+public class JarMerkleHashAnalyzer implements JarHashAnalyzer {
+    /**
+     * The number of chunks of entries per thread, to balance the load when the entries differ in size.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Executor executor;
+
+    /**
+     * Constructor digesting the entries in the common fork join pool.
+     */
+    @Inject
+    public JarMerkleHashAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executor the executor to digest the entries in, or <code>null</code> to digest them in the calling thread
+     */
+    public JarMerkleHashAnalyzer(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public String computeHash(JarAnalyzer jarAnalyzer) {
+        JarBytecodeDigests digests = computeDigests(jarAnalyzer);
+        return digests != null ? digests.getRootHash() : null;
+    }
+
+    /**
+     * Compute the digests of the class entries of the JAR. They are then cached in the JAR data class for later use.
+     *
+     * @param jarAnalyzer the JAR analyzer to use to obtain the entries to hash
+     * @return the digests, or <code>null</code> if not able to be computed due to an exception
+     */
+    public JarBytecodeDigests computeDigests(JarAnalyzer jarAnalyzer) {
+        return computeDigests(jarAnalyzer, null);
+    }
+
+    /**
+     * Compute the digests of the class entries of a new version of a JAR, reusing the digests of the previous version
+     * for the entries with the same name, CRC-32 and size. They are then cached in the JAR data class for later use.
+     *
+     * @param jarAnalyzer the JAR analyzer to use to obtain the entries to hash
+     * @param previous    the digests of the previous version of the JAR, or <code>null</code> to digest every entry
+     * @return the digests, or <code>null</code> if not able to be computed due to an exception
+     */
+    public JarBytecodeDigests computeDigests(JarAnalyzer jarAnalyzer, JarBytecodeDigests previous) {
+        JarData jarData = jarAnalyzer.getJarData();
+
+        JarBytecodeDigests result = jarData.getBytecodeDigests();
+        if (result == null) {
+            List<JarEntry> entries = jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS);
+            String[] names = new String[entries.size()];
+            long[] crcs = new long[names.length];
+            long[] sizes = new long[names.length];
+            for (int i = 0; i < names.length; i++) {
+                JarEntry entry = entries.get(i);
+                names[i] = entry.getName();
+                crcs[i] = entry.getCrc();
+                sizes[i] = entry.getSize();
+            }
+
+            try {
+                byte[][] digests = digestEntries(jarAnalyzer, entries, previous);
+                result = new JarBytecodeDigests(getRootHash(names, digests), names, crcs, sizes, digests);
+                jarData.setBytecodeDigests(result);
+            } catch (IOException e) {
+                logger.warn("Unable to calculate the hashcode.", e);
+            }
+        }
+        return result;
+    }
+
+    private byte[][] digestEntries(JarAnalyzer jarAnalyzer, List<JarEntry> entries, JarBytecodeDigests previous)
+            throws IOException {
+        byte[][] digests = new byte[entries.size()][];
+
+        if (executor == null || digests.length < 2) {
+            digestEntries(jarAnalyzer, entries, previous, digests, 0, digests.length);
+        } else {
+            int chunkSize = Math.max(1, digests.length / (getParallelism(executor) * CHUNKS_PER_THREAD));
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int start = 0; start < digests.length; start += chunkSize) {
+                int from = start;
+                int to = Math.min(digests.length, start + chunkSize);
+                chunks.add(CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                digestEntries(jarAnalyzer, entries, previous, digests, from, to);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        },
+                        executor));
+            }
+            try {
+                CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                        .join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        return digests;
+    }
+
+    private static int getParallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static void digestEntries(
+            JarAnalyzer jarAnalyzer,
+            List<JarEntry> entries,
+            JarBytecodeDigests previous,
+            byte[][] digests,
+            int from,
+            int to)
+            throws IOException {
+        MessageDigest sha1 = DigestUtils.getSha1Digest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int i = from; i < to; i++) {
+            JarEntry entry = entries.get(i);
+            if (previous != null) {
+                digests[i] = previous.getUnchangedDigest(entry.getName(), entry.getCrc(), entry.getSize());
+            }
+            if (digests[i] == null) {
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    int read;
+                    while ((read = is.read(buffer)) != -1) {
+                        sha1.update(buffer, 0, read);
+                    }
+                }
+                digests[i] = sha1.digest();
+            }
+        }
+    }
+
+    /**
+     * Combine the names and digests of the entries, in order, each name followed by a zero byte and its digest.
+     */
+    private static String getRootHash(String[] names, byte[][] digests) {
+        MessageDigest sha1 = DigestUtils.getSha1Digest();
+        for (int i = 0; i < names.length; i++) {
+            sha1.update(names[i].getBytes(StandardCharsets.UTF_8));
+            sha1.update((byte) 0);
+            sha1.update(digests[i]);
+        }
+        return Hex.encodeHexString(sha1.digest());
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.artifact.Artifact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Repository hash search caching the results of another one, as the same JARs are usually identified again and again.
+ * The hashes that matched artifacts are kept in a bounded LRU cache, and the hashes that did not match are kept in a
+ * separate LRU cache, so that the misses, usually more frequent, do not evict the hits. This class is thread safe.
+ * <p>
+ * When using Plexus, it is the default repository hash search, so it is the one used by the
+ * {@link org.apache.maven.shared.jar.identification.exposers.RepositorySearchExposer}. The repository hash search it
+ * caches is, in order:
+ * <ol>
+ * <li>the one named by the <code>maven.shared.jar.repositoryHashSearch</code> system property, if set,</li>
+ * <li>the only repository hash search of the container other than this one and the <code>empty</code> one,</li>
+ * <li>the first of them in the order of the container, with a warning, when there are several,</li>
+ * <li>the {@link EmptyRepositoryHashSearch} otherwise.</li>
+ * </ol>
+ * The sizes of the caches are set by the <code>maven.shared.jar.repositoryHashSearch.maxHits</code> and
+ * <code>maven.shared.jar.repositoryHashSearch.maxMisses</code> system properties, and default to
+ * {@link #DEFAULT_MAX_HITS} and {@link #DEFAULT_MAX_MISSES}.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named("default")
+public class CachingRepositoryHashSearch implements RepositoryHashSearch {
+    /**
+     * The default maximum number of hashes with artifacts to cache.
+     */
+    public static final int DEFAULT_MAX_HITS = 10_000;
+
+    /**
+     * The default maximum number of hashes without artifacts to cache.
+     */
+    public static final int DEFAULT_MAX_MISSES = 100_000;
+
+    /**
+     * The system property naming the repository hash search to cache.
+     */
+    public static final String DELEGATE_PROPERTY = "maven.shared.jar.repositoryHashSearch";
+
+    /**
+     * The system property setting the maximum number of hashes with artifacts to cache.
+     */
+    public static final String MAX_HITS_PROPERTY = "maven.shared.jar.repositoryHashSearch.maxHits";
+
+    /**
+     * The system property setting the maximum number of hashes without artifacts to cache.
+     */
+    public static final String MAX_MISSES_PROPERTY = "maven.shared.jar.repositoryHashSearch.maxMisses";
+
+    private static final String DEFAULT = "default";
+
+    private static final String EMPTY = "empty";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, RepositoryHashSearch> repositoryHashSearches;
+
+    private final String delegateName;
+
+    private volatile RepositoryHashSearch delegate;
+
+    private final Map<String, List<Artifact>> hits;
+
+    private final Map<String, Boolean> misses;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructor of the default repository hash search, configured by the system properties.
+     *
+     * @param repositoryHashSearches the repository hash searches of the container, by name
+     * @throws IllegalStateException if a cache size system property is not a positive integer
+     */
+    @Inject
+    public CachingRepositoryHashSearch(Map<String, RepositoryHashSearch> repositoryHashSearches) {
+        this(
+                repositoryHashSearches,
+                System.getProperty(DELEGATE_PROPERTY),
+                getIntegerProperty(MAX_HITS_PROPERTY, DEFAULT_MAX_HITS),
+                getIntegerProperty(MAX_MISSES_PROPERTY, DEFAULT_MAX_MISSES));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param repositoryHashSearches the repository hash searches to choose the one to cache from, by name
+     * @param delegateName the name of the repository hash search to cache, or <code>null</code> to choose it as
+     *            described above
+     * @param maxHits the maximum number of hashes with artifacts to cache
+     * @param maxMisses the maximum number of hashes without artifacts to cache
+     */
+    public CachingRepositoryHashSearch(
+            Map<String, RepositoryHashSearch> repositoryHashSearches, String delegateName, int maxHits, int maxMisses) {
+        checkSizes(maxHits, maxMisses);
+        if (DEFAULT.equals(delegateName)) {
+            throw new IllegalArgumentException("The default repository hash search cannot cache itself");
+        }
+        this.repositoryHashSearches = requireNonNull(repositoryHashSearches);
+        this.delegateName = delegateName;
+        this.hits = createCache(maxHits);
+        this.misses = createCache(maxMisses);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate the repository hash search to cache the results of
+     * @param maxHits the maximum number of hashes with artifacts to cache
+     * @param maxMisses the maximum number of hashes without artifacts to cache
+     */
+    public CachingRepositoryHashSearch(RepositoryHashSearch delegate, int maxHits, int maxMisses) {
+        checkSizes(maxHits, maxMisses);
+        this.repositoryHashSearches = Collections.emptyMap();
+        this.delegateName = null;
+        this.delegate = requireNonNull(delegate);
+        this.hits = createCache(maxHits);
+        this.misses = createCache(maxMisses);
+    }
+
+    private static void checkSizes(int maxHits, int maxMisses) {
+        if (maxHits < 0) {
+            throw new IllegalArgumentException("maxHits must not be negative: " + maxHits);
+        }
+        if (maxMisses < 0) {
+            throw new IllegalArgumentException("maxMisses must not be negative: " + maxMisses);
+        }
+    }
+
+    private static int getIntegerProperty(String key, int defaultValue) {
+        String property = System.getProperty(key);
+        if (property == null) {
+            return defaultValue;
+        }
+        try {
+            int value = Integer.parseInt(property.trim());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalStateException(
+                "The value of the system property '" + key + "' [" + property + "] is not a non negative integer");
+    }
+
+    private static <V> Map<String, V> createCache(int maxSize) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the repository hash search whose results are cached
+     * @throws IllegalStateException if there is no repository hash search of the configured name
+     */
+    public RepositoryHashSearch getDelegate() {
+        RepositoryHashSearch result = delegate;
+        if (result == null) {
+            // resolved on first use, as the injected map also holds this search
+            result = chooseDelegate();
+            delegate = result;
+        }
+        return result;
+    }
+
+    private RepositoryHashSearch chooseDelegate() {
+        if (delegateName != null) {
+            RepositoryHashSearch named = repositoryHashSearches.get(delegateName);
+            if (named == null) {
+                throw new IllegalStateException("No repository hash search named '" + delegateName + "', found "
+                        + repositoryHashSearches.keySet());
+            }
+            return named;
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (String name : repositoryHashSearches.keySet()) {
+            if (!DEFAULT.equals(name) && !EMPTY.equals(name)) {
+                candidates.add(name);
+            }
+        }
+        if (candidates.size() > 1) {
+            logger.warn("Caching the repository hash search '" + candidates.get(0) + "' out of " + candidates
+                    + ", set the system property " + DELEGATE_PROPERTY + " to choose another one");
+        }
+        if (!candidates.isEmpty()) {
+            return repositoryHashSearches.get(candidates.get(0));
+        }
+        RepositoryHashSearch empty = repositoryHashSearches.get(EMPTY);
+        return empty != null ? empty : new EmptyRepositoryHashSearch();
+    }
+
+    @Override
+    public List<Artifact> searchFileHash(String hash) {
+        return searchFileHashes(Collections.singleton(hash)).get(hash);
+    }
+
+    @Override
+    public List<Artifact> searchBytecodeHash(String hash) {
+        return searchBytecodeHashes(Collections.singleton(hash)).get(hash);
+    }
+
+    /**
+     * The hashes that are not cached are searched in one call to the delegate.
+     */
+    @Override
+    public Map<String, List<Artifact>> searchFileHashes(Collection<String> hashes) {
+        return search("file:", hashes, false);
+    }
+
+    /**
+     * The hashes that are not cached are searched in one call to the delegate.
+     */
+    @Override
+    public Map<String, List<Artifact>> searchBytecodeHashes(Collection<String> hashes) {
+        return search("bytecode:", hashes, true);
+    }
+
+    private Map<String, List<Artifact>> search(String kind, Collection<String> hashes, boolean bytecode) {
+        Map<String, List<Artifact>> results = new LinkedHashMap<>();
+        List<String> uncached = new ArrayList<>();
+        synchronized (this) {
+            for (String hash : hashes) {
+                if (results.containsKey(hash)) {
+                    continue;
+                }
+                String key = kind + hash;
+                List<Artifact> artifacts = hits.get(key);
+                if (artifacts == null && misses.get(key) != null) {
+                    artifacts = Collections.emptyList();
+                }
+                if (artifacts == null) {
+                    uncached.add(hash);
+                } else {
+                    hitCount.incrementAndGet();
+                }
+                results.put(hash, artifacts);
+            }
+        }
+        if (uncached.isEmpty()) {
+            return results;
+        }
+
+        missCount.addAndGet(uncached.size());
+        RepositoryHashSearch search = getDelegate();
+        Map<String, List<Artifact>> found =
+                bytecode ? search.searchBytecodeHashes(uncached) : search.searchFileHashes(uncached);
+        synchronized (this) {
+            for (String hash : uncached) {
+                List<Artifact> artifacts = found.get(hash);
+                String key = kind + hash;
+                if (artifacts == null || artifacts.isEmpty()) {
+                    artifacts = Collections.emptyList();
+                    misses.put(key, Boolean.TRUE);
+                } else {
+                    artifacts = Collections.unmodifiableList(new ArrayList<>(artifacts));
+                    hits.put(key, artifacts);
+                }
+                results.put(hash, artifacts);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the number of hashes found in the cache, with or without artifacts
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of hashes not found in the cache, and searched with the delegate
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of hashes with artifacts in the cache
+     */
+    public synchronized int getHitCacheSize() {
+        return hits.size();
+    }
+
+    /**
+     * @return the number of hashes without artifacts in the cache
+     */
+    public synchronized int getMissCacheSize() {
+        return misses.size();
+    }
+
+    /**
+     * Remove all the hashes from the cache, for example after the repository is updated.
+     */
+    public synchronized void clear() {
+        hits.clear();
+        misses.clear();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter of SHA-1 hashes, telling that a hash is definitely not in a set with a few bits of memory per hash.
+ * <p>
+ * The hashes are uniformly distributed already, so the positions of the bits of a hash are derived from its first 16
+ * bytes by double hashing, without hashing it again. The filter is an array of <code>long</code> words, read in place
+ * from a buffer, such as the memory mapped {@link LocalRepositoryIndex}.
+ */
+final class HashBloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final ByteBuffer buffer;
+
+    private final int position;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param buffer the buffer holding the filter
+     * @param position the position of the filter in the buffer
+     * @param wordCount the number of <code>long</code> words of the filter
+     * @param hashCount the number of bits set for each hash
+     */
+    HashBloomFilter(ByteBuffer buffer, int position, int wordCount, int hashCount) {
+        this.buffer = buffer;
+        this.position = position;
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * @param falsePositiveRate the rate of the hashes not in the set that the filter may contain
+     * @return the number of bits to set for each hash
+     */
+    static int getHashCount(double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        }
+        return Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / LN2));
+    }
+
+    /**
+     * @param hashes the number of hashes in the set
+     * @param falsePositiveRate the rate of the hashes not in the set that the filter may contain
+     * @return the number of <code>long</code> words of the filter
+     */
+    static int getWordCount(int hashes, double falsePositiveRate) {
+        long bits = (long) Math.ceil(-hashes * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long words = Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+        if (words > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalArgumentException("Bloom filter too large for " + hashes + " hashes");
+        }
+        return (int) words;
+    }
+
+    /**
+     * Write the filter of a set of hashes.
+     *
+     * @param out the output to write the <code>wordCount</code> words of the filter to
+     * @param hashes the hashes of the set
+     * @param wordCount the number of <code>long</code> words of the filter
+     * @param hashCount the number of bits to set for each hash
+     * @throws IOException if the filter cannot be written
+     */
+    static void write(DataOutput out, Iterable<byte[]> hashes, int wordCount, int hashCount) throws IOException {
+        long[] words = new long[wordCount];
+        long bitCount = (long) wordCount * Long.SIZE;
+        for (byte[] hash : hashes) {
+            ByteBuffer key = ByteBuffer.wrap(hash);
+            long h1 = key.getLong(0);
+            long h2 = key.getLong(8);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                words[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * @param h1 the first 8 bytes of the hash
+     * @param h2 the next 8 bytes of the hash
+     * @return <code>false</code> if the hash is definitely not in the set, <code>true</code> if it may be
+     */
+    boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((buffer.getLong(position + (int) (bit >>> 6) * Long.BYTES) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
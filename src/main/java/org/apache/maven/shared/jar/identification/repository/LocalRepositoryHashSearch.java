@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+
+/**
+ * Repository hash search in a local Maven repository, without any network access, through the memory mapped index
+ * built by a {@link LocalRepositoryIndexer}. A hash is found in <code>O(log n)</code> reads of the index, which is paged
+ * in as needed, so it can be searched as soon as it is opened. Most of the hashes that are not in the index are
+ * rejected by its Bloom filters, without searching it. This class is thread safe.
+ * <p>
+ * Typical usage:
+ * <pre>
+ *  Path repository = Paths.get( System.getProperty( "user.home" ), ".m2", "repository" );
+ *  Path indexFile = repository.resolve( ".index/jar-hashes.idx" );
+ *  localRepositoryIndexer.update( repository, indexFile, true, Runtime.getRuntime().availableProcessors() );
+ *  try ( LocalRepositoryHashSearch search = new LocalRepositoryHashSearch( indexFile ) )
+ *  {
+ *      List&lt;Artifact&gt; artifacts = search.searchFileHash( hash );
+ *  }
+ * </pre>
+ *
+ * @since 3.2.1
+ */
+public class LocalRepositoryHashSearch implements RepositoryHashSearch, Closeable {
+    private final LocalRepositoryIndex index;
+
+    /**
+     * Constructor.
+     *
+     * @param indexFile the index file written by a {@link LocalRepositoryIndexer}
+     * @throws IOException if the index cannot be read
+     */
+    public LocalRepositoryHashSearch(Path indexFile) throws IOException {
+        this.index = LocalRepositoryIndex.open(indexFile);
+    }
+
+    /**
+     * @return the number of JARs in the index
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of JARs with a bytecode hash in the index
+     */
+    public int bytecodeHashCount() {
+        return index.bytecodeHashCount();
+    }
+
+    @Override
+    public List<Artifact> searchFileHash(String hash) {
+        return toArtifacts(index.findFiles(hash));
+    }
+
+    /**
+     * Only the JARs indexed with their bytecode hash are found, see
+     * {@link LocalRepositoryIndexer#update(Path, Path, boolean, int)}.
+     */
+    @Override
+    public List<Artifact> searchBytecodeHash(String hash) {
+        return toArtifacts(index.findBytecodeFiles(hash));
+    }
+
+    private static List<Artifact> toArtifacts(List<String> paths) {
+        if (paths.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Artifact> artifacts = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            artifacts.add(RepositoryLayout.toArtifact(path));
+        }
+        return artifacts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.close();
+    }
+}
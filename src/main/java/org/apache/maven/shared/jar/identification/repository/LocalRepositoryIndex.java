@@ -0,0 +1,473 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Memory mapped index file of the JAR files of a local repository, and of their SHA-1 file and bytecode hashes.
+ * <p>
+ * The file holds a header, the table of the files in the order of their paths, the tables of the file hashes and of the
+ * bytecode hashes in increasing order, each referring to its file, and the pool of the paths. A hash is found by a
+ * binary search in its table, in <code>O(log n)</code> reads of the mapped file, and the index is only paged in as
+ * needed. Each table is preceded by a {@link HashBloomFilter}, so most of the hashes that are not in the index are
+ * rejected by reading a few words of the filter, without searching the table.
+ *
+ * <pre>
+ * header:          int magic, int format version, int file count, int bytecode hash count,
+ *                  int filter hash count, int file filter word count, int bytecode filter word count
+ * files:           long size, long last modified time, int path offset, int flags   (sorted by path)
+ * file filter:     long[] words
+ * file hashes:     byte[20] SHA-1, int file index                                   (sorted by hash)
+ * bytecode filter: long[] words
+ * bytecode hashes: byte[20] SHA-1, int file index                                   (sorted by hash)
+ * paths:           short length, UTF-8 bytes       (relative to the repository, with '/' separators)
+ * </pre>
+ *
+ * The files whose bytecode hash was computed are flagged, and only the ones with classes have a bytecode hash.
+ */
+final class LocalRepositoryIndex implements Closeable {
+    /**
+     * The bytecode hash of a file without classes, or whose bytecode hash could not be computed.
+     */
+    static final byte[] NO_BYTECODE_HASH = new byte[0];
+
+    /**
+     * The default false positive rate of the filters of the index.
+     */
+    static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int MAGIC = 0x4A524849;
+
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int HEADER_SIZE = 28;
+
+    private static final int FILE_RECORD_SIZE = 24;
+
+    private static final int HASH_SIZE = 20;
+
+    private static final int HASH_RECORD_SIZE = HASH_SIZE + 4;
+
+    private static final int BYTECODE_HASHED = 1;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final int fileCount;
+
+    private final int bytecodeHashCount;
+
+    private final int fileHashesPosition;
+
+    private final int bytecodeHashesPosition;
+
+    private final int pathsPosition;
+
+    private final HashBloomFilter fileFilter;
+
+    private final HashBloomFilter bytecodeFilter;
+
+    /**
+     * A file of the index.
+     */
+    static final class IndexedFile {
+        final String path;
+
+        final long size;
+
+        final long lastModified;
+
+        final byte[] fileHash;
+
+        /**
+         * The bytecode hash, {@link #NO_BYTECODE_HASH} if there is none, or <code>null</code> if it was not computed.
+         */
+        final byte[] bytecodeHash;
+
+        IndexedFile(String path, long size, long lastModified, byte[] fileHash, byte[] bytecodeHash) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileHash = fileHash;
+            this.bytecodeHash = bytecodeHash;
+        }
+    }
+
+    private LocalRepositoryIndex(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a repository index");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported repository index version " + buffer.getInt(4));
+        }
+        fileCount = buffer.getInt(8);
+        bytecodeHashCount = buffer.getInt(12);
+        int filterHashCount = buffer.getInt(16);
+        int fileFilterWords = buffer.getInt(20);
+        int bytecodeFilterWords = buffer.getInt(24);
+        if (fileCount < 0
+                || bytecodeHashCount < 0
+                || bytecodeHashCount > fileCount
+                || filterHashCount < 1
+                || fileFilterWords < 1
+                || bytecodeFilterWords < 1) {
+            throw new IOException("Corrupted repository index");
+        }
+        // in long, as the counts of a corrupted index may overflow the positions
+        long fileFilterPosition = HEADER_SIZE + (long) fileCount * FILE_RECORD_SIZE;
+        long fileHashesPosition = fileFilterPosition + (long) fileFilterWords * Long.BYTES;
+        long bytecodeFilterPosition = fileHashesPosition + (long) fileCount * HASH_RECORD_SIZE;
+        long bytecodeHashesPosition = bytecodeFilterPosition + (long) bytecodeFilterWords * Long.BYTES;
+        long pathsPosition = bytecodeHashesPosition + (long) bytecodeHashCount * HASH_RECORD_SIZE;
+        if (pathsPosition > buffer.capacity()) {
+            throw new IOException("Truncated repository index");
+        }
+        this.fileHashesPosition = (int) fileHashesPosition;
+        this.bytecodeHashesPosition = (int) bytecodeHashesPosition;
+        this.pathsPosition = (int) pathsPosition;
+        fileFilter = new HashBloomFilter(buffer, (int) fileFilterPosition, fileFilterWords, filterHashCount);
+        bytecodeFilter =
+                new HashBloomFilter(buffer, (int) bytecodeFilterPosition, bytecodeFilterWords, filterHashCount);
+    }
+
+    /**
+     * Open an index file.
+     *
+     * @param indexFile the index file
+     * @return the index, to be closed
+     * @throws IOException if the index cannot be read
+     */
+    static LocalRepositoryIndex open(Path indexFile) throws IOException {
+        FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Repository index too large: " + indexFile);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LocalRepositoryIndex(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write an index file, replacing the existing one atomically, with filters of the
+     * {@link #DEFAULT_FALSE_POSITIVE_RATE default false positive rate}.
+     *
+     * @param indexFile the index file
+     * @param files the files to index, in any order
+     * @throws IOException if the index cannot be written
+     */
+    static void write(Path indexFile, List<IndexedFile> files) throws IOException {
+        write(indexFile, files, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Write an index file, replacing the existing one atomically.
+     *
+     * @param indexFile the index file
+     * @param files the files to index, in any order
+     * @param falsePositiveRate the rate of the hashes not in the index that its filters let through to the tables
+     * @throws IOException if the index cannot be written
+     */
+    static void write(Path indexFile, List<IndexedFile> files, double falsePositiveRate) throws IOException {
+        int filterHashCount = HashBloomFilter.getHashCount(falsePositiveRate);
+        List<IndexedFile> byPath = new ArrayList<>(files);
+        byPath.sort(Comparator.comparing(file -> file.path));
+        Integer[] byFileHash = sortByHash(byPath, file -> file.fileHash);
+        Integer[] byBytecodeHash = sortByHash(byPath, file -> file.bytecodeHash);
+
+        Path directory = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, "index-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(byPath.size());
+                out.writeInt(byBytecodeHash.length);
+                int fileFilterWords = HashBloomFilter.getWordCount(byFileHash.length, falsePositiveRate);
+                int bytecodeFilterWords = HashBloomFilter.getWordCount(byBytecodeHash.length, falsePositiveRate);
+                out.writeInt(filterHashCount);
+                out.writeInt(fileFilterWords);
+                out.writeInt(bytecodeFilterWords);
+                int pathOffset = 0;
+                List<byte[]> paths = new ArrayList<>(byPath.size());
+                for (IndexedFile file : byPath) {
+                    byte[] path = file.path.getBytes(StandardCharsets.UTF_8);
+                    if (path.length > Short.MAX_VALUE) {
+                        throw new IOException("Path too long: " + file.path);
+                    }
+                    paths.add(path);
+                    out.writeLong(file.size);
+                    out.writeLong(file.lastModified);
+                    out.writeInt(pathOffset);
+                    out.writeInt(file.bytecodeHash != null ? BYTECODE_HASHED : 0);
+                    pathOffset += 2 + path.length;
+                }
+                HashBloomFilter.write(
+                        out, getHashes(byPath, byFileHash, file -> file.fileHash), fileFilterWords, filterHashCount);
+                for (Integer i : byFileHash) {
+                    out.write(byPath.get(i).fileHash);
+                    out.writeInt(i);
+                }
+                HashBloomFilter.write(
+                        out,
+                        getHashes(byPath, byBytecodeHash, file -> file.bytecodeHash),
+                        bytecodeFilterWords,
+                        filterHashCount);
+                for (Integer i : byBytecodeHash) {
+                    out.write(byPath.get(i).bytecodeHash);
+                    out.writeInt(i);
+                }
+                for (byte[] path : paths) {
+                    out.writeShort(path.length);
+                    out.write(path);
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return the indexes of the files having the hash, in the order of their hashes
+     */
+    private static Integer[] sortByHash(List<IndexedFile> files, Function<IndexedFile, byte[]> hash) {
+        List<Integer> indexes = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            byte[] value = hash.apply(files.get(i));
+            if (value != null && value.length == HASH_SIZE) {
+                indexes.add(i);
+            }
+        }
+        Integer[] sorted = indexes.toArray(new Integer[0]);
+        Arrays.sort(sorted, (a, b) -> compareHashes(hash.apply(files.get(a)), hash.apply(files.get(b))));
+        return sorted;
+    }
+
+    private static List<byte[]> getHashes(
+            List<IndexedFile> files, Integer[] indexes, Function<IndexedFile, byte[]> hash) {
+        List<byte[]> hashes = new ArrayList<>(indexes.length);
+        for (Integer i : indexes) {
+            hashes.add(hash.apply(files.get(i)));
+        }
+        return hashes;
+    }
+
+    /**
+     * @return the number of files in the index
+     */
+    int size() {
+        return fileCount;
+    }
+
+    /**
+     * @return the number of files with a bytecode hash in the index
+     */
+    int bytecodeHashCount() {
+        return bytecodeHashCount;
+    }
+
+    /**
+     * @return all the files of the index, in the order of their paths
+     * @throws IOException if the index is corrupted
+     */
+    List<IndexedFile> getFiles() throws IOException {
+        byte[][] fileHashes = getHashes(fileHashesPosition, fileCount);
+        byte[][] bytecodeHashes = getHashes(bytecodeHashesPosition, bytecodeHashCount);
+        List<IndexedFile> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            int record = HEADER_SIZE + i * FILE_RECORD_SIZE;
+            byte[] bytecodeHash = null;
+            if ((buffer.getInt(record + 20) & BYTECODE_HASHED) != 0) {
+                bytecodeHash = bytecodeHashes[i] != null ? bytecodeHashes[i] : NO_BYTECODE_HASH;
+            }
+            checkPath(i);
+            files.add(new IndexedFile(
+                    getPath(i), buffer.getLong(record), buffer.getLong(record + 8), fileHashes[i], bytecodeHash));
+        }
+        return files;
+    }
+
+    private byte[][] getHashes(int position, int count) throws IOException {
+        byte[][] hashes = new byte[fileCount][];
+        for (int i = 0; i < count; i++) {
+            int record = position + i * HASH_RECORD_SIZE;
+            int file = buffer.getInt(record + HASH_SIZE);
+            if (file < 0 || file >= fileCount) {
+                throw new IOException("Corrupted repository index");
+            }
+            byte[] hash = new byte[HASH_SIZE];
+            get(record, hash);
+            hashes[file] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Check that the path of a file is within the index.
+     */
+    private void checkPath(int file) throws IOException {
+        long position = pathsPosition + (long) buffer.getInt(HEADER_SIZE + file * FILE_RECORD_SIZE + 16);
+        if (position < pathsPosition
+                || position + 2 > buffer.capacity()
+                || buffer.getShort((int) position) < 0
+                || position + 2 + buffer.getShort((int) position) > buffer.capacity()) {
+            throw new IOException("Corrupted repository index");
+        }
+    }
+
+    /**
+     * Find the files with the given SHA-1 file hash.
+     *
+     * @param hash the hexadecimal hash
+     * @return the paths of the files, or an empty list if there is none or the hash is not a SHA-1 hash
+     */
+    List<String> findFiles(String hash) {
+        return find(fileFilter, fileHashesPosition, fileCount, hash);
+    }
+
+    /**
+     * Find the files with the given SHA-1 bytecode hash.
+     *
+     * @param hash the hexadecimal hash
+     * @return the paths of the files, or an empty list if there is none or the hash is not a SHA-1 hash
+     */
+    List<String> findBytecodeFiles(String hash) {
+        return find(bytecodeFilter, bytecodeHashesPosition, bytecodeHashCount, hash);
+    }
+
+    private List<String> find(HashBloomFilter filter, int position, int count, String hash) {
+        byte[] key = decodeHash(hash);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+        long key0 = keyBuffer.getLong(0);
+        long key1 = keyBuffer.getLong(8);
+        int key2 = keyBuffer.getInt(16);
+        if (!filter.mightContain(key0, key1)) {
+            return Collections.emptyList();
+        }
+
+        // lowest record not below the key
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareRecord(position + mid * HASH_RECORD_SIZE, key0, key1, key2) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        List<String> paths = new ArrayList<>(1);
+        for (int i = low; i < count; i++) {
+            int record = position + i * HASH_RECORD_SIZE;
+            if (compareRecord(record, key0, key1, key2) != 0) {
+                break;
+            }
+            paths.add(getPath(buffer.getInt(record + HASH_SIZE)));
+        }
+        return paths;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String getPath(int file) {
+        int position = pathsPosition + buffer.getInt(HEADER_SIZE + file * FILE_RECORD_SIZE + 16);
+        byte[] path = new byte[buffer.getShort(position)];
+        get(position + 2, path);
+        return new String(path, StandardCharsets.UTF_8);
+    }
+
+    private void get(int position, byte[] bytes) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+    }
+
+    /**
+     * Compare the hash of a record with a key, as unsigned big endian numbers.
+     */
+    private int compareRecord(int record, long key0, long key1, int key2) {
+        int result = Long.compareUnsigned(buffer.getLong(record), key0);
+        if (result == 0) {
+            result = Long.compareUnsigned(buffer.getLong(record + 8), key1);
+        }
+        if (result == 0) {
+            result = Integer.compareUnsigned(buffer.getInt(record + 16), key2);
+        }
+        return result;
+    }
+
+    private static int compareHashes(byte[] a, byte[] b) {
+        for (int i = 0; i < HASH_SIZE; i++) {
+            int result = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the bytes of a hexadecimal SHA-1 hash, or <code>null</code> if it is not one
+     */
+    static byte[] decodeHash(String hash) {
+        if (hash == null || hash.length() != HASH_SIZE * 2) {
+            return null;
+        }
+        try {
+            return Hex.decodeHex(hash.toCharArray());
+        } catch (DecoderException e) {
+            return null;
+        }
+    }
+}
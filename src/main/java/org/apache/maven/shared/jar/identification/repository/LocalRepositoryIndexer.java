@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.JarEntryIndex;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
+import org.apache.maven.shared.jar.identification.repository.LocalRepositoryIndex.IndexedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds the index of a local Maven repository searched by a {@link LocalRepositoryHashSearch}, by scanning the JAR
+ * artifacts of the repository layout. The SHA-1 hash of a JAR is read from its <code>.jar.sha1</code> checksum file
+ * when there is a valid one, and is computed from the JAR otherwise.
+ * <p>
+ * The index is updated incrementally: the hashes of the JARs whose size and last modified time are unchanged since the
+ * previous index are reused without reading them, so only the artifacts added to the repository since then are read.
+ * <p>
+ * The index can also hold the bytecode hashes of the JARs, to search them by {@link JarBytecodeHashAnalyzer bytecode
+ * hash}. Computing them requires opening every JAR and reading all its classes, so they are only computed on request,
+ * and the JARs are then read in parallel. JARs without classes, such as sources and javadoc JARs, have no bytecode
+ * hash.
+ * <p>
+ * The index holds Bloom filters of its hashes, so that the hashes that are not in the repository, usually the most
+ * searched ones, are rejected without searching the index. Their false positive rate is 1% by default: the smaller
+ * the rate, the larger the filters, with about 10 bits per hash at 1% and 15 bits per hash at 0.1%.
+ *
+ * @since 3.2.1
+ */
+@Singleton
+@Named
+public class LocalRepositoryIndexer {
+    private static final String SHA1_EXTENSION = ".sha1";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JarHashAnalyzer bytecodeHashAnalyzer;
+
+    private final double falsePositiveRate;
+
+    public LocalRepositoryIndexer() {
+        this(new JarBytecodeHashAnalyzer());
+    }
+
+    @Inject
+    public LocalRepositoryIndexer(@Named("bytecode") JarHashAnalyzer bytecodeHashAnalyzer) {
+        this(bytecodeHashAnalyzer, LocalRepositoryIndex.DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bytecodeHashAnalyzer the analyzer of the bytecode hashes of the JARs
+     * @param falsePositiveRate the rate of the hashes not in the index that its Bloom filters let through, between 0
+     *            and 1 exclusive
+     */
+    public LocalRepositoryIndexer(JarHashAnalyzer bytecodeHashAnalyzer, double falsePositiveRate) {
+        // checks the rate
+        HashBloomFilter.getHashCount(falsePositiveRate);
+        this.bytecodeHashAnalyzer = requireNonNull(bytecodeHashAnalyzer);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Create or update the index of the file hashes of a local repository. The index file is replaced atomically, so
+     * it can be searched while it is updated.
+     *
+     * @param repository the base directory of the local repository
+     * @param indexFile the index file, created if it does not exist
+     * @return the number of JARs that were new or changed since the previous index, and were read
+     * @throws IOException if the repository cannot be scanned or the index cannot be written
+     */
+    public int update(Path repository, Path indexFile) throws IOException {
+        return update(repository, indexFile, false, 1);
+    }
+
+    /**
+     * Create or update the index of a local repository. The index file is replaced atomically, so it can be searched
+     * while it is updated.
+     *
+     * @param repository the base directory of the local repository
+     * @param indexFile the index file, created if it does not exist
+     * @param bytecodeHashes whether to compute the bytecode hashes of the JARs that do not have one in the index yet
+     * @param parallelism the number of threads to read the JARs with
+     * @return the number of JARs that were new or changed since the previous index, or missing their bytecode hash,
+     *         and were read
+     * @throws IOException if the repository cannot be scanned or the index cannot be written
+     */
+    public int update(Path repository, Path indexFile, boolean bytecodeHashes, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        Map<String, IndexedFile> previous = readPrevious(indexFile);
+
+        List<IndexedFile> files = new ArrayList<>();
+        List<IndexedFile> changed = new ArrayList<>();
+        List<Path> changedFiles = new ArrayList<>();
+        Files.walkFileTree(repository, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                String path = toRelativePath(repository, file);
+                if (!attributes.isRegularFile() || RepositoryLayout.toArtifact(path) == null) {
+                    return FileVisitResult.CONTINUE;
+                }
+                long size = attributes.size();
+                long lastModified = attributes.lastModifiedTime().toMillis();
+
+                IndexedFile indexed = previous.get(path);
+                if (indexed == null || indexed.size != size || indexed.lastModified != lastModified) {
+                    changed.add(new IndexedFile(path, size, lastModified, null, null));
+                    changedFiles.add(file);
+                } else if (bytecodeHashes && indexed.bytecodeHash == null) {
+                    changed.add(indexed);
+                    changedFiles.add(file);
+                } else {
+                    files.add(indexed);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.warn("Unable to index " + file, e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        IndexedFile[] read = read(changed, changedFiles, bytecodeHashes, parallelism);
+        for (IndexedFile indexed : read) {
+            if (indexed != null) {
+                files.add(indexed);
+            }
+        }
+
+        LocalRepositoryIndex.write(indexFile, files, falsePositiveRate);
+        return changed.size();
+    }
+
+    /**
+     * Read the missing hashes of the files.
+     *
+     * @return the files with their hashes, or <code>null</code> for the ones deleted since the scan or unreadable
+     */
+    private IndexedFile[] read(List<IndexedFile> files, List<Path> paths, boolean bytecodeHashes, int parallelism) {
+        IndexedFile[] read = new IndexedFile[files.size()];
+        if (parallelism == 1 || files.size() < 2) {
+            for (int i = 0; i < read.length; i++) {
+                read[i] = read(files.get(i), paths.get(i), bytecodeHashes);
+            }
+            return read;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[read.length];
+            for (int i = 0; i < read.length; i++) {
+                int file = i;
+                futures[i] = CompletableFuture.runAsync(
+                        () -> read[file] = read(files.get(file), paths.get(file), bytecodeHashes), pool);
+            }
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            pool.shutdown();
+        }
+        return read;
+    }
+
+    private IndexedFile read(IndexedFile indexed, Path file, boolean bytecodeHashes) {
+        try {
+            byte[] fileHash = indexed.fileHash != null ? indexed.fileHash : getFileHash(file);
+            byte[] bytecodeHash = bytecodeHashes ? getBytecodeHash(file) : null;
+            return new IndexedFile(indexed.path, indexed.size, indexed.lastModified, fileHash, bytecodeHash);
+        } catch (NoSuchFileException e) {
+            // deleted while scanning
+            return null;
+        } catch (IOException e) {
+            logger.warn("Unable to index " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the bytecode hash of the JAR, {@link LocalRepositoryIndex#NO_BYTECODE_HASH} if it has no classes, or
+     *         <code>null</code> if it could not be computed, to be retried by the next update
+     */
+    private byte[] getBytecodeHash(Path file) throws NoSuchFileException {
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        try {
+            JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+            try {
+                if (jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS).isEmpty()) {
+                    return LocalRepositoryIndex.NO_BYTECODE_HASH;
+                }
+                return LocalRepositoryIndex.decodeHash(bytecodeHashAnalyzer.computeHash(jarAnalyzer));
+            } finally {
+                jarAnalyzer.closeQuietly();
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to calculate the bytecode hash of " + file, e);
+            return null;
+        }
+    }
+
+    private Map<String, IndexedFile> readPrevious(Path indexFile) {
+        Map<String, IndexedFile> previous = new HashMap<>();
+        if (Files.exists(indexFile)) {
+            try (LocalRepositoryIndex index = LocalRepositoryIndex.open(indexFile)) {
+                for (IndexedFile file : index.getFiles()) {
+                    previous.put(file.path, file);
+                }
+            } catch (IOException e) {
+                logger.warn("Rebuilding the unreadable repository index " + indexFile, e);
+            }
+        }
+        return previous;
+    }
+
+    private static String toRelativePath(Path repository, Path file) {
+        StringBuilder path = new StringBuilder();
+        for (Path name : repository.relativize(file)) {
+            if (path.length() > 0) {
+                path.append('/');
+            }
+            path.append(name);
+        }
+        return path.toString();
+    }
+
+    private static byte[] getFileHash(Path file) throws IOException {
+        Path checksum = file.resolveSibling(file.getFileName() + SHA1_EXTENSION);
+        if (Files.isRegularFile(checksum) && Files.size(checksum) < 1024) {
+            // the hash may be followed by the file name
+            String content = new String(Files.readAllBytes(checksum), StandardCharsets.US_ASCII).trim();
+            int end = 0;
+            while (end < content.length() && !Character.isWhitespace(content.charAt(end))) {
+                end++;
+            }
+            byte[] hash = LocalRepositoryIndex.decodeHash(content.substring(0, end));
+            if (hash != null) {
+                return hash;
+            }
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+            return DigestUtils.sha1(is);
+        }
+    }
+}
@@ -18,7 +18,10 @@
  */
 package org.apache.maven.shared.jar.identification.repository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.maven.artifact.Artifact;
 
@@ -42,4 +45,40 @@ public interface RepositoryHashSearch {
      * @return a list of {@link org.apache.maven.artifact.Artifact} instances that matched
      */
     List<Artifact> searchBytecodeHash(String hash);
+
+    /**
+     * Search the repository for artifacts matching each of the given hash codes when consider the entire contents of
+     * the file. Implementations can override it to resolve all the hashes at once, the default implementation searches
+     * them one by one.
+     *
+     * @param hashes the hash codes to use
+     * @return the {@link org.apache.maven.artifact.Artifact} instances that matched each distinct hash code, in the
+     *         order of the hash codes, with an empty list for the ones that did not match
+     * @since 3.2.1
+     */
+    default Map<String, List<Artifact>> searchFileHashes(Collection<String> hashes) {
+        Map<String, List<Artifact>> results = new LinkedHashMap<>();
+        for (String hash : hashes) {
+            results.computeIfAbsent(hash, this::searchFileHash);
+        }
+        return results;
+    }
+
+    /**
+     * Search the repository for artifacts matching each of the given hash codes when consider the bytecode of the
+     * classes in the file. Implementations can override it to resolve all the hashes at once, the default
+     * implementation searches them one by one.
+     *
+     * @param hashes the hash codes to use
+     * @return the {@link org.apache.maven.artifact.Artifact} instances that matched each distinct hash code, in the
+     *         order of the hash codes, with an empty list for the ones that did not match
+     * @since 3.2.1
+     */
+    default Map<String, List<Artifact>> searchBytecodeHashes(Collection<String> hashes) {
+        Map<String, List<Artifact>> results = new LinkedHashMap<>();
+        for (String hash : hashes) {
+            results.computeIfAbsent(hash, this::searchBytecodeHash);
+        }
+        return results;
+    }
 }
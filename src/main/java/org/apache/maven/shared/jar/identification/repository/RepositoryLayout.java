@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.util.regex.Pattern;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+
+/**
+ * The layout of a Maven repository: <code>group/path/artifactId/version/artifactId-version[-classifier].jar</code>,
+ * where the version of a snapshot file is timestamped in its name.
+ */
+final class RepositoryLayout {
+    private static final String JAR_EXTENSION = ".jar";
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private static final Pattern SNAPSHOT_TIMESTAMP = Pattern.compile("\\d{8}\\.\\d{6}-\\d+");
+
+    private static final ArtifactHandler JAR_HANDLER = new JarArtifactHandler();
+
+    private RepositoryLayout() {
+        // no instances
+    }
+
+    /**
+     * @param path the path of a file relative to the repository, with <code>/</code> separators
+     * @return the artifact of the file, or <code>null</code> if the path is not the one of a JAR artifact
+     */
+    static Artifact toArtifact(String path) {
+        if (!path.endsWith(JAR_EXTENSION)) {
+            return null;
+        }
+        int fileStart = path.lastIndexOf('/');
+        int versionStart = fileStart > 0 ? path.lastIndexOf('/', fileStart - 1) : -1;
+        int artifactIdStart = versionStart > 0 ? path.lastIndexOf('/', versionStart - 1) : -1;
+        if (artifactIdStart <= 0) {
+            return null;
+        }
+        String groupId = path.substring(0, artifactIdStart).replace('/', '.');
+        String artifactId = path.substring(artifactIdStart + 1, versionStart);
+        String baseVersion = path.substring(versionStart + 1, fileStart);
+        String fileName = path.substring(fileStart + 1, path.length() - JAR_EXTENSION.length());
+        if (!fileName.startsWith(artifactId + '-')) {
+            return null;
+        }
+        String rest = fileName.substring(artifactId.length() + 1);
+
+        String version;
+        if (rest.equals(baseVersion) || rest.startsWith(baseVersion + '-')) {
+            version = baseVersion;
+        } else if (baseVersion.endsWith('-' + SNAPSHOT)) {
+            String prefix = baseVersion.substring(0, baseVersion.length() - SNAPSHOT.length());
+            int buildNumberStart = rest.indexOf('-', prefix.length());
+            if (!rest.startsWith(prefix) || buildNumberStart < 0) {
+                return null;
+            }
+            int end = rest.indexOf('-', buildNumberStart + 1);
+            version = end < 0 ? rest : rest.substring(0, end);
+            if (!SNAPSHOT_TIMESTAMP.matcher(version.substring(prefix.length())).matches()) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        String classifier = rest.length() > version.length() ? rest.substring(version.length() + 1) : null;
+
+        return new DefaultArtifact(groupId, artifactId, version, null, "jar", classifier, JAR_HANDLER);
+    }
+
+    /**
+     * Handler of the JAR artifacts, which are added to the classpath.
+     */
+    private static final class JarArtifactHandler implements ArtifactHandler {
+        @Override
+        public String getExtension() {
+            return "jar";
+        }
+
+        @Override
+        public String getDirectory() {
+            return null;
+        }
+
+        @Override
+        public String getClassifier() {
+            return null;
+        }
+
+        @Override
+        public String getPackaging() {
+            return "jar";
+        }
+
+        @Override
+        public boolean isIncludesDependencies() {
+            return false;
+        }
+
+        @Override
+        public String getLanguage() {
+            return "java";
+        }
+
+        @Override
+        public boolean isAddedToClasspath() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that a {@link JarAnalyzer} mapping the central directory reads the same entries as one using a
+ * {@link java.util.jar.JarFile}.
+ */
+class CentralDirectoryArchiveTest extends AbstractJarAnalyzerTestCase {
+    @TempDir
+    Path tempDir;
+
+    static Stream<String> sampleJars() throws Exception {
+        File jarsDir = new File(CentralDirectoryArchiveTest.class
+                        .getResource("/jars/ant.jar")
+                        .toURI())
+                .getParentFile();
+        return Arrays.stream(jarsDir.list((dir, name) -> name.endsWith(".jar") && !name.equals("invalid.jar")))
+                .sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("sampleJars")
+    void readsSameEntriesAsJarFile(String jarName) throws Exception {
+        assertSameAsJarFile(getSampleJar(jarName));
+    }
+
+    @Test
+    void readsSyntheticJar() throws Exception {
+        Path jar = tempDir.resolve("synthetic.jar");
+        new SyntheticJar()
+                .classes(500)
+                .resources(100)
+                .releases(9, 11)
+                .pom("gen", "synthetic", "1.0")
+                .write(jar);
+        assertSameAsJarFile(jar.toFile());
+    }
+
+    @Test
+    void readsStoredEntriesWithCommentsAndNonAsciiNames() throws Exception {
+        Path jar = tempDir.resolve("stored.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            out.setComment("archive comment");
+            addEntry(out, "META-INF/manifest.mf", ZipEntry.DEFLATED, "Manifest-Version: 1.0\r\nX-Test: lower\r\n\r\n");
+            addEntry(out, "z/stored.txt", ZipEntry.STORED, "stored content");
+            addEntry(out, "a/été.txt", ZipEntry.DEFLATED, "summer");
+            addEntry(out, "a/😀.txt", ZipEntry.STORED, "smile");
+            addEntry(out, "a/Ａ.txt", ZipEntry.DEFLATED, "full width");
+            addEntry(out, "a/Version.class", ZipEntry.STORED, "not a class");
+            ZipEntry commented = new ZipEntry("a/commented.txt");
+            commented.setComment("entry comment");
+            commented.setExtra(new byte[] {(byte) 0xCA, (byte) 0xFE, 2, 0, 1, 2});
+            out.putNextEntry(commented);
+            out.write("commented".getBytes(UTF_8));
+        }
+        assertSameAsJarFile(jar.toFile());
+
+        JarAnalyzer analyzer = new JarAnalyzer(jar.toFile(), true);
+        try {
+            assertEquals(
+                    "lower",
+                    analyzer.getJarData().getManifest().getMainAttributes().getValue("X-Test"));
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void readsArchiveWithPrependedData() throws Exception {
+        byte[] archive = Files.readAllBytes(getSampleJar("helloworld-1.8.jar").toPath());
+        Path jar = tempDir.resolve("prepended.jar");
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            out.write("#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(UTF_8));
+            out.write(archive);
+        }
+        assertSameAsJarFile(jar.toFile());
+    }
+
+    @Test
+    void readsZip64Archive() throws Exception {
+        Path jar = tempDir.resolve("zip64.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            // more entries than the end of central directory record can count
+            for (int i = 0; i < 0x10000 + 10; i++) {
+                out.putNextEntry(new ZipEntry(String.format("r/%06d.txt", i)));
+            }
+            addEntry(out, "a/A.class", ZipEntry.DEFLATED, "not a class");
+        }
+        JarAnalyzer analyzer = new JarAnalyzer(jar.toFile(), true);
+        try {
+            assertEquals(0x10000 + 11, analyzer.getEntries().size());
+            assertEquals("a/A.class", analyzer.getClassEntries().get(0).getName());
+            assertEquals("r/065545.txt", analyzer.getEntries().get(0x10000 + 10).getName());
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void countsSingleByteReadsOnce() throws Exception {
+        Path jar = tempDir.resolve("deflated.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            addEntry(out, "a/deflated.txt", ZipEntry.DEFLATED, "0123456789");
+        }
+        JarAnalyzer analyzer = new JarAnalyzer(jar.toFile(), true);
+        try (InputStream is = analyzer.getEntryInputStream(analyzer.getEntries().get(0))) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(10 - i, is.available());
+                assertEquals('0' + i, is.read());
+            }
+            assertEquals(0, is.available());
+            assertEquals(-1, is.read());
+        } finally {
+            analyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void rejectsInvalidArchive() throws Exception {
+        File invalid = getSampleJar("invalid.jar");
+        assertThrows(ZipException.class, () -> new JarAnalyzer(invalid, true));
+
+        Path truncated = tempDir.resolve("truncated.jar");
+        byte[] archive = Files.readAllBytes(getSampleJar("helloworld-1.8.jar").toPath());
+        Files.write(truncated, Arrays.copyOf(archive, archive.length - 30));
+        assertThrows(ZipException.class, () -> new JarAnalyzer(truncated.toFile(), true));
+    }
+
+    private void assertSameAsJarFile(File file) throws IOException {
+        JarAnalyzer expected = new JarAnalyzer(file);
+        JarAnalyzer actual = new JarAnalyzer(file, true);
+        try {
+            List<JarEntry> expectedEntries = expected.getEntries();
+            List<JarEntry> actualEntries = actual.getEntries();
+            assertEquals(expectedEntries.size(), actualEntries.size());
+            for (int i = 0; i < expectedEntries.size(); i++) {
+                JarEntry expectedEntry = expectedEntries.get(i);
+                JarEntry actualEntry = actualEntries.get(i);
+                String name = expectedEntry.getName();
+                assertEquals(name, actualEntry.getName());
+                assertEquals(expectedEntry.getMethod(), actualEntry.getMethod(), name);
+                assertEquals(expectedEntry.getSize(), actualEntry.getSize(), name);
+                assertEquals(expectedEntry.getCompressedSize(), actualEntry.getCompressedSize(), name);
+                assertEquals(expectedEntry.getCrc(), actualEntry.getCrc(), name);
+                assertEquals(expectedEntry.getTime(), actualEntry.getTime(), name);
+                assertEquals(expectedEntry.getLastModifiedTime(), actualEntry.getLastModifiedTime(), name);
+                assertEquals(expectedEntry.getComment(), actualEntry.getComment(), name);
+                assertArrayEquals(expectedEntry.getExtra(), actualEntry.getExtra(), name);
+                assertArrayEquals(read(expected, expectedEntry), read(actual, actualEntry), name);
+                // an entry that was not created by the archive is looked up by name
+                assertArrayEquals(read(expected, expectedEntry), read(actual, new JarEntry(name)), name);
+            }
+
+            assertEquals(names(expected.getClassEntries()), names(actual.getClassEntries()));
+            assertEquals(names(expected.getMavenPomEntries()), names(actual.getMavenPomEntries()));
+            assertEquals(names(expected.getVersionEntries()), names(actual.getVersionEntries()));
+            assertEquals(names(expected.getServiceEntries()), names(actual.getServiceEntries()));
+            assertEquals(
+                    expected.getEntryIndex().getReleases(),
+                    actual.getEntryIndex().getReleases());
+            assertEquals(
+                    expected.getJarData().getManifest(), actual.getJarData().getManifest());
+
+            JarClassesAnalysis analysis = new JarClassesAnalysis();
+            JarClasses expectedClasses = analysis.analyze(expected);
+            JarClasses actualClasses = analysis.analyze(actual);
+            assertEquals(expectedClasses.getClassNames(), actualClasses.getClassNames());
+            assertEquals(expectedClasses.getImports(), actualClasses.getImports());
+            assertEquals(expectedClasses.getPackages(), actualClasses.getPackages());
+            assertEquals(expectedClasses.getMethods(), actualClasses.getMethods());
+            assertEquals(expectedClasses.getJdkRevision(), actualClasses.getJdkRevision());
+        } finally {
+            expected.closeQuietly();
+            actual.closeQuietly();
+        }
+    }
+
+    private static List<String> names(List<JarEntry> entries) {
+        return entries.stream().map(JarEntry::getName).collect(Collectors.toList());
+    }
+
+    private static byte[] read(JarAnalyzer analyzer, JarEntry entry) throws IOException {
+        try (InputStream is = analyzer.getEntryInputStream(entry)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int n = is.read(buffer); n >= 0; n = is.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static void addEntry(ZipOutputStream out, String name, int method, String content) throws IOException {
+        byte[] bytes = content.getBytes(UTF_8);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(bytes);
+    }
+}
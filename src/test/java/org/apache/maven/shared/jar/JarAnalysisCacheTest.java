@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.classes.JarVersionedRuntime;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.apache.maven.shared.jar.identification.hash.JarFileDigestAnalyzer;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link JarAnalysisCache}.
+ */
+@PlexusTest
+class JarAnalysisCacheTest extends AbstractJarAnalyzerTestCase {
+
+    @Inject
+    private JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    private JarIdentificationAnalysis identificationAnalysis;
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ant.jar", "jxr.jar", "multi-release-test-0.0.1.jar"})
+    void loadRestoresStoredResults(String name) throws Exception {
+        JarAnalysisCache cache = new JarAnalysisCache(tempDir.resolve("cache"));
+        Path jar = getSampleJar(name).toPath();
+
+        JarData expected;
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(jar);
+        try {
+            assertFalse(cache.load(jarAnalyzer));
+            classesAnalysis.analyze(jarAnalyzer);
+            identificationAnalysis.analyze(jarAnalyzer);
+            new JarFileDigestAnalyzer().computeDigests(jarAnalyzer);
+            cache.store(jarAnalyzer);
+            expected = jarAnalyzer.getJarData();
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+
+        jarAnalyzer = new JarAnalyzer(jar);
+        try {
+            assertTrue(cache.load(jarAnalyzer));
+            JarData actual = jarAnalyzer.getJarData();
+
+            assertEquals(expected.getFileHash(), actual.getFileHash());
+            assertEquals(expected.getFileDigests(), actual.getFileDigests());
+            assertIdentificationEquals(expected.getJarIdentification(), actual.getJarIdentification());
+            assertClassesEquals(expected.getJarClasses(), actual.getJarClasses());
+            assertSame(
+                    actual.getJarClasses(),
+                    classesAnalysis.analyze(jarAnalyzer),
+                    "the cached classes must be returned by the analysis");
+            if (expected.getVersionedRuntimes() == null) {
+                assertNull(actual.getVersionedRuntimes());
+            } else {
+                assertEquals(names(expected.getRootEntries()), names(actual.getRootEntries()));
+                assertEquals(
+                        expected.getVersionedRuntimes().getRuntimeVersionsAsSet(),
+                        actual.getVersionedRuntimes().getRuntimeVersionsAsSet());
+                for (Integer version : expected.getVersionedRuntimes().getRuntimeVersionsAsSet()) {
+                    JarVersionedRuntime expectedRuntime =
+                            expected.getVersionedRuntimes().getJarVersionedRuntime(version);
+                    JarVersionedRuntime actualRuntime =
+                            actual.getVersionedRuntimes().getJarVersionedRuntime(version);
+                    assertEquals(names(expectedRuntime.getEntries()), names(actualRuntime.getEntries()));
+                    assertClassesEquals(expectedRuntime.getJarClasses(), actualRuntime.getJarClasses());
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void loadChecksFileIdentityAndHash() throws Exception {
+        JarAnalysisCache cache = new JarAnalysisCache(tempDir.resolve("cache"));
+        Path jar = tempDir.resolve("copy.jar");
+        Files.copy(getSampleJar("codec.jar").toPath(), jar);
+        analyzeAndStore(cache, jar);
+
+        // touched: the file hash is compared
+        Files.setLastModifiedTime(
+                jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() - 60_000));
+        assertTrue(load(cache, jar));
+        // the entry records the new last modified time, not to hash the JAR on every load
+        assertEquals(
+                Files.getLastModifiedTime(jar).toMillis(),
+                readLastModified(listEntries(tempDir.resolve("cache")).get(0)));
+        assertTrue(load(cache, jar));
+
+        // replaced by another JAR
+        Files.copy(getSampleJar("jxr.jar").toPath(), jar, StandardCopyOption.REPLACE_EXISTING);
+        assertFalse(load(cache, jar));
+    }
+
+    @Test
+    void ignoreUnreadableEntries() throws Exception {
+        Path directory = tempDir.resolve("cache");
+        JarAnalysisCache cache = new JarAnalysisCache(directory);
+        Path jar = getSampleJar("codec.jar").toPath();
+        analyzeAndStore(cache, jar);
+
+        List<Path> entries = listEntries(directory);
+        assertEquals(1, entries.size());
+        byte[] content = Files.readAllBytes(entries.get(0));
+        Files.write(entries.get(0), Arrays.copyOf(content, content.length - 10));
+
+        assertFalse(load(cache, jar));
+        assertTrue(listEntries(directory).isEmpty());
+    }
+
+    @Test
+    void evictLeastRecentlyUsedEntries() throws Exception {
+        Path directory = tempDir.resolve("cache");
+        Path[] jars = new Path[3];
+        for (int i = 0; i < jars.length; i++) {
+            jars[i] = tempDir.resolve("copy" + i + ".jar");
+            Files.copy(getSampleJar("ant.jar").toPath(), jars[i]);
+        }
+
+        analyzeAndStore(new JarAnalysisCache(directory), jars[0]);
+        long entrySize = Files.size(listEntries(directory).get(0));
+        JarAnalysisCache cache = new JarAnalysisCache(directory, entrySize * 2 + entrySize / 2);
+        analyzeAndStore(cache, jars[1]);
+        for (Path entry : listEntries(directory)) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        }
+        // used recently
+        assertTrue(load(cache, jars[0]));
+
+        analyzeAndStore(cache, jars[2]);
+
+        assertEquals(2, listEntries(directory).size());
+        assertTrue(load(cache, jars[0]));
+        assertFalse(load(cache, jars[1]));
+        assertTrue(load(cache, jars[2]));
+    }
+
+    @Test
+    void deleteStaleTemporaryFiles() throws Exception {
+        Path directory = tempDir.resolve("cache");
+        Files.createDirectories(directory);
+        Path stale = Files.createFile(directory.resolve("entry-1.tmp"));
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 2 * 60 * 60 * 1000));
+        Path recent = Files.createFile(directory.resolve("entry-2.tmp"));
+
+        analyzeAndStore(
+                new JarAnalysisCache(directory), getSampleJar("codec.jar").toPath());
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+        assertEquals(1, listEntries(directory).size());
+    }
+
+    private void analyzeAndStore(JarAnalysisCache cache, Path jar) throws IOException {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(jar);
+        try {
+            classesAnalysis.analyze(jarAnalyzer);
+            identificationAnalysis.analyze(jarAnalyzer);
+            cache.store(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static boolean load(JarAnalysisCache cache, Path jar) throws IOException {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(jar);
+        try {
+            return cache.load(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static long readLastModified(Path entry) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entry))) {
+            in.readInt();
+            in.readInt();
+            in.readUTF();
+            in.readLong();
+            return in.readLong();
+        }
+    }
+
+    private static List<Path> listEntries(Path directory) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.jarc")) {
+            stream.forEach(entries::add);
+        }
+        return entries;
+    }
+
+    private static List<String> names(List<JarEntry> entries) {
+        List<String> names = new ArrayList<>();
+        entries.forEach(entry -> names.add(entry.getName()));
+        return names;
+    }
+
+    private static void assertClassesEquals(JarClasses expected, JarClasses actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getClassNames(), actual.getClassNames());
+        assertEquals(expected.getPackages(), actual.getPackages());
+        assertEquals(expected.getImports(), actual.getImports());
+        assertEquals(expected.getMethods(), actual.getMethods());
+        assertEquals(expected.getJdkRevision(), actual.getJdkRevision());
+        assertEquals(expected.isDebugPresent(), actual.isDebugPresent());
+        assertEquals(expected.isHeaderOnly(), actual.isHeaderOnly());
+        assertEquals(expected.getFacets(), actual.getFacets());
+    }
+
+    private static void assertIdentificationEquals(JarIdentification expected, JarIdentification actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getGroupId(), actual.getGroupId());
+        assertEquals(expected.getArtifactId(), actual.getArtifactId());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getVendor(), actual.getVendor());
+        assertEquals(expected.getPotentialGroupIds(), actual.getPotentialGroupIds());
+        assertEquals(expected.getPotentialArtifactIds(), actual.getPotentialArtifactIds());
+        assertEquals(expected.getPotentialVersions(), actual.getPotentialVersions());
+        assertEquals(expected.getPotentialNames(), actual.getPotentialNames());
+        assertEquals(expected.getPotentialVendors(), actual.getPotentialVendors());
+    }
+}
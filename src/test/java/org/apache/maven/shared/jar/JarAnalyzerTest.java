@@ -18,15 +18,31 @@
  */
 package org.apache.maven.shared.jar;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -52,6 +68,22 @@ class JarAnalyzerTest extends AbstractJarAnalyzerTestCase {
         return new JarAnalyzer(getSampleJar(filename));
     }
 
+    @Test
+    void entryGettersReturnModifiableCopies() throws Exception {
+        jarAnalyzer = getJarAnalyzer("ant.jar");
+        List<JarEntry> classes = jarAnalyzer.getClassEntries();
+        int count = classes.size();
+
+        classes.sort((a, b) -> b.getName().compareTo(a.getName()));
+        classes.removeIf(entry -> entry.getName().startsWith("org/"));
+        jarAnalyzer.getMavenPomEntries().clear();
+
+        assertEquals(count, jarAnalyzer.getClassEntries().size());
+        assertEquals(
+                count,
+                jarAnalyzer.getEntryIndex().getEntries(JarEntryIndex.CLASS).size());
+    }
+
     @Test
     void sealed() throws Exception {
         JarData jarData = getJarData("evil-sealed-regex-1.0.jar");
@@ -86,6 +118,100 @@ class JarAnalyzerTest extends AbstractJarAnalyzerTestCase {
         assertThrows(ZipException.class, () -> getJarAnalyzer("invalid.jar"));
     }
 
+    @Test
+    void analyzeFromPath() throws Exception {
+        File file = getSampleJar("jxr.jar");
+        jarAnalyzer = new JarAnalyzer(file.toPath());
+        assertEquals(file, jarAnalyzer.getFile());
+        assertEquals("jxr.jar", jarAnalyzer.getJarData().getName());
+        assertEquals(file.getPath(), jarAnalyzer.getJarData().getLocation());
+        assertSameEntries(file, jarAnalyzer);
+    }
+
+    @Test
+    void analyzeFromZipFileSystem(@TempDir Path tempDir) throws Exception {
+        File file = getSampleJar("jxr.jar");
+        Path zip = tempDir.resolve("outer.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("lib/jxr.jar"));
+            Files.copy(file.toPath(), out);
+        }
+        try (FileSystem fileSystem = FileSystems.newFileSystem(zip, (ClassLoader) null)) {
+            jarAnalyzer = new JarAnalyzer(fileSystem.getPath("lib", "jxr.jar"));
+            assertNull(jarAnalyzer.getFile());
+            assertEquals("jxr.jar", jarAnalyzer.getJarData().getName());
+            assertSameEntries(file, jarAnalyzer);
+        }
+    }
+
+    @Test
+    void analyzeFromByteArray() throws Exception {
+        File file = getSampleJar("jxr.jar");
+        jarAnalyzer = new JarAnalyzer("jxr.jar", Files.readAllBytes(file.toPath()));
+        assertNull(jarAnalyzer.getFile());
+        assertNull(jarAnalyzer.getJarData().getPath());
+        assertEquals("jxr.jar", jarAnalyzer.getJarData().getLocation());
+        assertSameEntries(file, jarAnalyzer);
+    }
+
+    @Test
+    void analyzeFromByteBuffer() throws Exception {
+        File file = getSampleJar("jxr.jar");
+        byte[] content = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.allocateDirect(content.length + 20);
+        buffer.position(10);
+        buffer.put(content);
+        buffer.position(10);
+        buffer.limit(10 + content.length);
+        jarAnalyzer = new JarAnalyzer(null, buffer);
+        assertNull(jarAnalyzer.getJarData().getName());
+        assertEquals(10, buffer.position());
+        assertSameEntries(file, jarAnalyzer);
+    }
+
+    @Test
+    void invalidByteArray() {
+        assertThrows(ZipException.class, () -> new JarAnalyzer("empty.jar", new byte[0]));
+        assertThrows(ZipException.class, () -> new JarAnalyzer("invalid.jar", new byte[100]));
+    }
+
+    private void assertSameEntries(File file, JarAnalyzer actual) throws IOException {
+        JarAnalyzer expected = new JarAnalyzer(file);
+        try {
+            assertEquals(names(expected.getEntries()), names(actual.getEntries()));
+            assertEquals(names(expected.getClassEntries()), names(actual.getClassEntries()));
+            assertEquals(
+                    expected.getJarData().getManifest(), actual.getJarData().getManifest());
+            for (int i = 0; i < expected.getEntries().size(); i++) {
+                assertArrayEquals(
+                        readAll(expected, expected.getEntries().get(i)),
+                        readAll(actual, actual.getEntries().get(i)));
+            }
+            assertArrayEquals(Files.readAllBytes(file.toPath()), readAll(actual.getInputStream()));
+        } finally {
+            expected.closeQuietly();
+        }
+    }
+
+    private static List<String> names(List<JarEntry> entries) {
+        return entries.stream().map(JarEntry::getName).collect(Collectors.toList());
+    }
+
+    private static byte[] readAll(JarAnalyzer analyzer, JarEntry entry) throws IOException {
+        return readAll(analyzer.getEntryInputStream(entry));
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        try (InputStream in = is) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
     @Test
     void closeTwice() throws Exception {
         JarAnalyzer jarAnalyzer = getJarAnalyzer("codec.jar");
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the JarBatchAnalysis class.
+ */
+@PlexusTest
+class JarBatchAnalysisTest extends AbstractJarAnalyzerTestCase {
+
+    @Inject
+    private JarBatchAnalysis batchAnalysis;
+
+    @Test
+    void analyzeStreamsResultsWithBoundedOpenFiles() throws Exception {
+        List<Path> jars = new ArrayList<>();
+        for (String name : Arrays.asList(
+                "ant.jar",
+                "codec.jar",
+                "jxr.jar",
+                "helloworld-1.4.jar",
+                "multi-release-test-0.0.1.jar",
+                "invalid.jar")) {
+            jars.add(getSampleJar(name).toPath());
+        }
+
+        int maxOpenFiles = 2;
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+        Iterable<Path> trackingJars = () -> new Iterator<Path>() {
+            private final Iterator<Path> delegate = jars.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Path next() {
+                int pending = pulled.incrementAndGet() - done.get();
+                maxPending.accumulateAndGet(pending, Math::max);
+                return delegate.next();
+            }
+        };
+
+        List<JarData> analyzed = new ArrayList<>();
+        List<Path> failed = new ArrayList<>();
+        Set<Thread> threads = new HashSet<>();
+        int parallelism = 2;
+        batchAnalysis.analyze(trackingJars, parallelism, maxOpenFiles, new JarBatchAnalysis.Listener() {
+            @Override
+            public void analyzed(JarData jarData) {
+                done.incrementAndGet();
+                analyzed.add(jarData);
+                threads.add(Thread.currentThread());
+            }
+
+            @Override
+            public void failed(Path jar, Exception e) {
+                done.incrementAndGet();
+                failed.add(jar);
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        assertEquals(5, analyzed.size());
+        assertEquals(1, failed.size());
+        assertTrue(failed.get(0).endsWith("invalid.jar"));
+        for (JarData jarData : analyzed) {
+            assertNotNull(jarData.getJarClasses());
+            assertNotNull(jarData.getJarIdentification());
+        }
+        // the JAR being pulled is not open yet, the others are at most maxOpenFiles
+        assertTrue(maxPending.get() <= maxOpenFiles + 1, "pending JARs: " + maxPending.get());
+        assertTrue(threads.size() <= parallelism, "threads: " + threads);
+    }
+
+    @Test
+    void analyzeReusesCachedResults(@TempDir Path cacheDir) throws Exception {
+        List<Path> jars = new ArrayList<>();
+        for (String name : Arrays.asList("ant.jar", "codec.jar", "multi-release-test-0.0.1.jar")) {
+            jars.add(getSampleJar(name).toPath());
+        }
+        JarAnalysisCache cache = new JarAnalysisCache(cacheDir);
+
+        Map<Path, JarData> cold = analyze(jars, cache);
+        Map<Path, JarData> warm = analyze(jars, cache);
+
+        assertEquals(cold.keySet(), warm.keySet());
+        for (Path jar : jars) {
+            JarData expected = cold.get(jar);
+            JarData actual = warm.get(jar);
+            assertEquals(
+                    expected.getJarClasses().getClassNames(),
+                    actual.getJarClasses().getClassNames());
+            assertEquals(expected.getJdkRevision(), actual.getJdkRevision());
+            assertEquals(
+                    expected.getJarIdentification().getArtifactId(),
+                    actual.getJarIdentification().getArtifactId());
+        }
+    }
+
+    private Map<Path, JarData> analyze(List<Path> jars, JarAnalysisCache cache) throws InterruptedException {
+        Map<Path, JarData> analyzed = new HashMap<>();
+        batchAnalysis.analyze(jars, 2, 2, cache, new JarBatchAnalysis.Listener() {
+            @Override
+            public void analyzed(JarData jarData) {
+                analyzed.put(jarData.getPath(), jarData);
+            }
+
+            @Override
+            public void failed(Path jar, Exception e) {
+                throw new AssertionError("Unable to analyze " + jar, e);
+            }
+        });
+        return analyzed;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests that the JarCombinedAnalysis class computes the same results as the separate analyses.
+ */
+@PlexusTest
+class JarCombinedAnalysisTest extends AbstractJarAnalyzerTestCase {
+
+    @Inject
+    private JarCombinedAnalysis combinedAnalysis;
+
+    @Inject
+    private JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    @Named("file")
+    private JarHashAnalyzer fileHashAnalyzer;
+
+    @Inject
+    @Named("bytecode")
+    private JarHashAnalyzer bytecodeHashAnalyzer;
+
+    static Stream<String> sampleJars() throws Exception {
+        File jarsDir = new File(JarCombinedAnalysisTest.class
+                        .getResource("/jars/ant.jar")
+                        .toURI())
+                .getParentFile();
+        return Arrays.stream(jarsDir.list((dir, name) -> name.endsWith(".jar") && !name.equals("invalid.jar")))
+                .sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("sampleJars")
+    void analyzeSameAsSeparateAnalyses(String jarName) throws Exception {
+        JarAnalyzer separate = new JarAnalyzer(getSampleJar(jarName));
+        JarAnalyzer combined = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            fileHashAnalyzer.computeHash(separate);
+            bytecodeHashAnalyzer.computeHash(separate);
+            JarClasses expectedClasses = classesAnalysis.analyze(separate);
+            JarData expected = separate.getJarData();
+
+            JarData actual = combinedAnalysis.analyze(combined);
+            assertSame(combined.getJarData(), actual);
+
+            assertEquals(expected.getFileHash(), actual.getFileHash(), jarName);
+            assertEquals(expected.getBytecodeHash(), actual.getBytecodeHash(), jarName);
+            JarClasses actualClasses = actual.getJarClasses();
+            assertEquals(expectedClasses.getClassNames(), actualClasses.getClassNames(), jarName);
+            assertEquals(expectedClasses.getImports(), actualClasses.getImports(), jarName);
+            assertEquals(expectedClasses.getPackages(), actualClasses.getPackages(), jarName);
+            assertEquals(expectedClasses.getMethods(), actualClasses.getMethods(), jarName);
+            assertEquals(expectedClasses.getJdkRevision(), actualClasses.getJdkRevision(), jarName);
+            assertEquals(expectedClasses.isDebugPresent(), actualClasses.isDebugPresent(), jarName);
+        } finally {
+            separate.closeQuietly();
+            combined.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeCachesResultsInJarData() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("jxr.jar"));
+        JarData jarData = combinedAnalysis.analyze(jarAnalyzer);
+        jarAnalyzer.closeQuietly();
+
+        // the JAR is closed, so the results can only come from the cache
+        JarClasses classes = jarData.getJarClasses();
+        assertNotNull(jarData.getFileHash());
+        assertSame(jarData, combinedAnalysis.analyze(jarAnalyzer));
+        assertSame(classes, classesAnalysis.analyze(jarAnalyzer));
+        assertEquals(jarData.getBytecodeHash(), bytecodeHashAnalyzer.computeHash(jarAnalyzer));
+    }
+
+    @Test
+    void analyzeReadsTheJarOnce() throws Exception {
+        CountingJarAnalyzer jarAnalyzer = new CountingJarAnalyzer(
+                "jxr.jar", Files.readAllBytes(getSampleJar("jxr.jar").toPath()));
+        try {
+            JarData jarData = combinedAnalysis.analyze(jarAnalyzer);
+            assertNotNull(jarData.getFileHash());
+            assertNotNull(jarData.getBytecodeHash());
+            assertEquals(1, jarAnalyzer.reads.get());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzePrependedDataSameAsSeparateAnalyses() throws Exception {
+        byte[] jar = Files.readAllBytes(getSampleJar("jxr.jar").toPath());
+        byte[] prefix = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[prefix.length + jar.length];
+        System.arraycopy(prefix, 0, content, 0, prefix.length);
+        System.arraycopy(jar, 0, content, prefix.length, jar.length);
+
+        JarAnalyzer separate = new JarAnalyzer("prepended.jar", content);
+        CountingJarAnalyzer combined = new CountingJarAnalyzer("prepended.jar", content);
+        try {
+            JarData actual = combinedAnalysis.analyze(combined);
+
+            // the local entries cannot be read as a stream after the prepended data, so the file hash needs a separate
+            // read
+            assertEquals(2, combined.reads.get());
+            assertEquals(fileHashAnalyzer.computeHash(separate), actual.getFileHash());
+            assertEquals(bytecodeHashAnalyzer.computeHash(separate), actual.getBytecodeHash());
+            assertEquals(
+                    classesAnalysis.analyze(separate).getClassNames(),
+                    actual.getJarClasses().getClassNames());
+        } finally {
+            separate.closeQuietly();
+            combined.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeTruncatedClassSameAsSeparateAnalyses() throws Exception {
+        byte[] classFile = Files.readAllBytes(Paths.get(JarCombinedAnalysisTest.class
+                .getResource("JarCombinedAnalysisTest.class")
+                .toURI()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JarOutputStream jar = new JarOutputStream(out)) {
+            jar.putNextEntry(new ZipEntry("a/Complete.class"));
+            jar.write(classFile);
+            jar.putNextEntry(new ZipEntry("a/Truncated.class"));
+            jar.write(classFile, 0, 40);
+        }
+
+        JarAnalyzer separate = new JarAnalyzer("truncated.jar", out.toByteArray());
+        JarAnalyzer combined = new JarAnalyzer("truncated.jar", out.toByteArray());
+        try {
+            JarData actual = combinedAnalysis.analyze(combined);
+
+            assertEquals(fileHashAnalyzer.computeHash(separate), actual.getFileHash());
+            assertNotNull(actual.getBytecodeHash());
+            assertEquals(bytecodeHashAnalyzer.computeHash(separate), actual.getBytecodeHash());
+            assertEquals(
+                    classesAnalysis.analyze(separate).getClassNames(),
+                    actual.getJarClasses().getClassNames());
+        } finally {
+            separate.closeQuietly();
+            combined.closeQuietly();
+        }
+    }
+
+    private static final class CountingJarAnalyzer extends JarAnalyzer {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        CountingJarAnalyzer(String name, byte[] content) throws IOException {
+            super(name, content);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            reads.incrementAndGet();
+            return super.getInputStream();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the {@link JarEntryIndex} classifies the entries as the regular expressions formerly used did.
+ */
+class JarEntryIndexTest extends AbstractJarAnalyzerTestCase {
+    private static final Pattern CLASS_FILTER = Pattern.compile("[A-Za-z0-9]*\\.class$");
+
+    private static final Pattern MAVEN_POM_FILTER = Pattern.compile("META-INF/maven/.*/pom\\.xml$");
+
+    private static final Pattern VERSION_FILTER = Pattern.compile("[Vv][Ee][Rr][Ss][Ii][Oo][Nn]");
+
+    private static final Pattern ENTRY_FILTER_MULTI_RELEASE = Pattern.compile("^META-INF/versions/([1-9]\\d*)/.*$");
+
+    private static final List<String> NAMES = Arrays.asList(
+            "META-INF/",
+            "META-INF/MANIFEST.MF",
+            "META-INF/maven/",
+            "META-INF/maven/pom.xml",
+            "META-INF/maven//pom.xml",
+            "META-INF/maven/g/a/pom.xml",
+            "META-INF/maven/g/a/pom.properties",
+            "lib/META-INF/maven/g/a/pom.xml",
+            "META-INF/services/",
+            "META-INF/services/java.sql.Driver",
+            "META-INF/versions/9/",
+            "META-INF/versions/9",
+            "META-INF/versions/09/a/A.class",
+            "META-INF/versions/11/a/A.class",
+            "META-INF/versions/11/VERSION.txt",
+            "META-INF/versions/x1/a/A.class",
+            "a/A.class",
+            "a/A$1.class",
+            "a/.class",
+            "a/A.classic",
+            "a/Version.class",
+            "version.txt",
+            "VeRsIoN",
+            "versio",
+            "BOOT-INF/lib/a-1.0.jar",
+            "WEB-INF/lib/B.JAR",
+            "app.war",
+            "lib/",
+            "a.jar/",
+            "jar");
+
+    @Test
+    void classifiesAsRegularExpressions() {
+        List<JarEntry> entries = new ArrayList<>();
+        for (String name : NAMES) {
+            entries.add(new JarEntry(name));
+        }
+        JarEntryIndex index = new JarEntryIndex(entries);
+
+        assertEquals(filter(CLASS_FILTER, entries), index.getEntries(JarEntryIndex.CLASS));
+        assertEquals(filter(MAVEN_POM_FILTER, entries), index.getEntries(JarEntryIndex.MAVEN_POM));
+        assertEquals(filter(VERSION_FILTER, entries), index.getEntries(JarEntryIndex.VERSION));
+        assertEquals(
+                Collections.singletonList(entries.get(NAMES.indexOf("META-INF/services/java.sql.Driver"))),
+                index.getEntries(JarEntryIndex.SERVICE));
+        assertEquals(
+                Arrays.asList(
+                        entries.get(NAMES.indexOf("BOOT-INF/lib/a-1.0.jar")),
+                        entries.get(NAMES.indexOf("WEB-INF/lib/B.JAR")),
+                        entries.get(NAMES.indexOf("app.war"))),
+                index.getEntries(JarEntryIndex.ARCHIVE));
+
+        for (int i = 0; i < entries.size(); i++) {
+            Matcher matcher = ENTRY_FILTER_MULTI_RELEASE.matcher(NAMES.get(i));
+            int expected = matcher.matches() ? Integer.parseInt(matcher.group(1)) : JarEntryIndex.ROOT;
+            assertEquals(expected, index.getRelease(i), NAMES.get(i));
+        }
+        assertEquals(Arrays.asList(0, 9, 11), index.getReleases());
+        assertEquals(
+                Collections.singletonList(entries.get(NAMES.indexOf("META-INF/versions/11/a/A.class"))),
+                index.getReleaseEntries(11, JarEntryIndex.CLASS));
+        assertEquals(2, index.getReleaseEntries(11).size());
+
+        assertThrows(
+                IllegalArgumentException.class, () -> index.getEntries(JarEntryIndex.CLASS | JarEntryIndex.VERSION));
+    }
+
+    @Test
+    void classifiesSampleJar() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("jxr.jar"));
+        try {
+            List<JarEntry> entries = jarAnalyzer.getEntries();
+            assertEquals(filter(CLASS_FILTER, entries), jarAnalyzer.getClassEntries());
+            assertEquals(filter(MAVEN_POM_FILTER, entries), jarAnalyzer.getMavenPomEntries());
+            assertEquals(filter(VERSION_FILTER, entries), jarAnalyzer.getVersionEntries());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static List<JarEntry> filter(Pattern pattern, List<JarEntry> entries) {
+        List<JarEntry> ret = new ArrayList<>();
+        for (JarEntry entry : entries) {
+            if (pattern.matcher(entry.getName()).find()) {
+                ret.add(entry);
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the JarNestedAnalysis class.
+ */
+@PlexusTest
+class JarNestedAnalysisTest extends AbstractJarAnalyzerTestCase {
+
+    @Inject
+    private JarNestedAnalysis nestedAnalysis;
+
+    @Inject
+    private JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    private JarIdentificationAnalysis identificationAnalysis;
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void analyzeNestedJars(boolean mapCentralDirectory) throws Exception {
+        ByteArrayOutputStream war = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(war)) {
+            addEntry(out, "WEB-INF/lib/helloworld-1.8.jar", sampleJar("helloworld-1.8.jar"), ZipEntry.DEFLATED);
+        }
+        Path fatJar = tempDir.resolve("app-1.0.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(fatJar))) {
+            addEntry(out, "BOOT-INF/lib/jxr.jar", sampleJar("jxr.jar"), ZipEntry.STORED);
+            addEntry(out, "BOOT-INF/lib/codec.jar", sampleJar("codec.jar"), ZipEntry.DEFLATED);
+            addEntry(out, "BOOT-INF/lib/broken.jar", new byte[100], ZipEntry.STORED);
+            addEntry(out, "BOOT-INF/lib/web.war", war.toByteArray(), ZipEntry.STORED);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(fatJar.toFile(), mapCentralDirectory);
+        try {
+            JarData jarData = nestedAnalysis.analyze(jarAnalyzer, executor);
+            assertSame(jarAnalyzer.getJarData(), jarData);
+            assertNotNull(jarData.getJarIdentification());
+
+            List<JarData> nestedJars = jarData.getNestedJars();
+            assertEquals(3, nestedJars.size(), "the broken JAR is left out");
+            JarData codec = nestedJars.get(0);
+            JarData jxr = nestedJars.get(1);
+            JarData web = nestedJars.get(2);
+
+            assertEquals("BOOT-INF/lib/codec.jar", codec.getEntryName());
+            assertEquals("jxr.jar", jxr.getName());
+            assertNull(jxr.getFile());
+            assertSame(jarData, jxr.getParent());
+            assertEquals(fatJar + "!/BOOT-INF/lib/jxr.jar", jxr.getLocation());
+            assertSameAnalysis("codec.jar", codec);
+            assertSameAnalysis("jxr.jar", jxr);
+
+            assertEquals(1, web.getNestedJars().size());
+            JarData helloworld = web.getNestedJars().get(0);
+            assertSame(web, helloworld.getParent());
+            assertEquals(fatJar + "!/BOOT-INF/lib/web.war!/WEB-INF/lib/helloworld-1.8.jar", helloworld.getLocation());
+            assertSameAnalysis("helloworld-1.8.jar", helloworld);
+            assertTrue(helloworld.getNestedJars().isEmpty());
+        } finally {
+            jarAnalyzer.closeQuietly();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void nestedJarDataDoesNotRetainTheInflatedJar() throws Exception {
+        Path fatJar = tempDir.resolve("app-1.0.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(fatJar))) {
+            addEntry(out, "BOOT-INF/lib/codec.jar", sampleJar("codec.jar"), ZipEntry.DEFLATED);
+        }
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(fatJar.toFile(), true);
+        try {
+            JarAnalyzer nested = jarAnalyzer.openNestedJar(jarAnalyzer
+                    .getEntryIndex()
+                    .getEntries(JarEntryIndex.ARCHIVE)
+                    .get(0));
+            classesAnalysis.analyze(nested);
+            JarData jarData = nested.getJarData();
+            Field archiveField = JarAnalyzer.class.getDeclaredField("archive");
+            archiveField.setAccessible(true);
+            WeakReference<Object> archive = new WeakReference<>(archiveField.get(nested));
+            nested.closeQuietly();
+            nested = null;
+
+            for (int i = 0; i < 50 && archive.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(archive.get(), "the archive, and the inflated JAR it reads, can be collected");
+            assertEquals(sampleJarData("codec.jar").getNumEntries(), jarData.getNumEntries());
+            assertEquals(
+                    sampleJarData("codec.jar").getEntries().get(0).getName(),
+                    jarData.getEntries().get(0).getName());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private JarData sampleJarData(String sampleJar) throws IOException {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(sampleJar));
+        jarAnalyzer.closeQuietly();
+        return jarAnalyzer.getJarData();
+    }
+
+    private void assertSameAnalysis(String sampleJar, JarData actual) throws IOException {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(sampleJar));
+        try {
+            classesAnalysis.analyze(jarAnalyzer);
+            JarIdentification expected = identificationAnalysis.analyze(jarAnalyzer);
+            JarData expectedData = jarAnalyzer.getJarData();
+
+            assertEquals(expectedData.getNumEntries(), actual.getNumEntries(), sampleJar);
+            assertEquals(
+                    expectedData.getJarClasses().getClassNames(),
+                    actual.getJarClasses().getClassNames());
+            assertEquals(expectedData.getJdkRevision(), actual.getJdkRevision(), sampleJar);
+            JarIdentification identification = actual.getJarIdentification();
+            assertEquals(expected.getGroupId(), identification.getGroupId(), sampleJar);
+            assertEquals(expected.getArtifactId(), identification.getArtifactId(), sampleJar);
+            assertEquals(expected.getVersion(), identification.getVersion(), sampleJar);
+            assertEquals(expected.getVendor(), identification.getVendor(), sampleJar);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private byte[] sampleJar(String name) throws IOException {
+        return Files.readAllBytes(getSampleJar(name).toPath());
+    }
+
+    private static void addEntry(ZipOutputStream out, String name, byte[] content, int method) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.apache.maven.shared.jar.classes.ConstantPoolClassFileReader;
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.classes.JarVersionedRuntime;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the analysis of large {@link SyntheticJar synthetic JARs}.
+ */
+@PlexusTest
+class JarScalingTest {
+
+    @Inject
+    private JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    private JarIdentificationAnalysis identificationAnalysis;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void analyzeHundredThousandEntries() throws Exception {
+        SyntheticJar syntheticJar = new SyntheticJar().classes(2000).resources(98000);
+        File file = syntheticJar.write(tempDir.resolve("large.jar")).toFile();
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            assertEquals(100001, syntheticJar.getEntryCount());
+            assertEquals(syntheticJar.getEntryCount(), jarAnalyzer.getEntries().size());
+            assertEquals(2000, jarAnalyzer.getClassEntries().size());
+
+            JarClasses jarClasses = classesAnalysis.analyze(jarAnalyzer);
+            assertEquals(2000, jarClasses.getClassNames().size());
+            assertEquals(10, jarClasses.getPackages().size());
+            // the generated classes and their super class
+            assertEquals(2001, jarClasses.getImports().size());
+            assertEquals(2000 * 5, jarClasses.getMethods().size());
+            assertTrue(jarClasses.isDebugPresent());
+            assertEquals("1.8", jarClasses.getJdkRevision());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeDeepMultiReleaseTree() throws Exception {
+        int[] releases = new int[17];
+        for (int i = 0; i < releases.length; i++) {
+            releases[i] = 9 + i;
+        }
+        File file = new SyntheticJar()
+                .classes(50)
+                .releases(releases)
+                .write(tempDir.resolve("multi-release.jar"))
+                .toFile();
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            assertEquals("1.8", classesAnalysis.analyze(jarAnalyzer).getJdkRevision());
+
+            JarData jarData = jarAnalyzer.getJarData();
+            assertTrue(jarData.isMultiRelease());
+            Map<Integer, JarVersionedRuntime> runtimes =
+                    jarData.getVersionedRuntimes().getVersionedRuntimeMap();
+            assertArrayEquals(
+                    releases,
+                    runtimes.keySet().stream().mapToInt(Integer::intValue).toArray());
+            for (int release : releases) {
+                JarClasses jarClasses = runtimes.get(release).getJarClasses();
+                assertEquals(String.valueOf(release), jarClasses.getJdkRevision());
+                assertEquals(5, jarClasses.getClassNames().size());
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeHugeConstantPools() throws Exception {
+        File file = new SyntheticJar()
+                .classes(3)
+                .extraConstants(16000)
+                .debug(false)
+                .write(tempDir.resolve("constants.jar"))
+                .toFile();
+
+        JarClasses bcel = analyze(classesAnalysis, file);
+        JarClasses constantPool = analyze(new JarClassesAnalysis(new ConstantPoolClassFileReader()), file);
+
+        assertEquals(3, bcel.getClassNames().size());
+        assertEquals(bcel.getClassNames(), constantPool.getClassNames());
+        assertEquals(bcel.getImports(), constantPool.getImports());
+        assertEquals(bcel.getMethods(), constantPool.getMethods());
+        assertFalse(bcel.isDebugPresent());
+        assertFalse(constantPool.isDebugPresent());
+    }
+
+    @Test
+    void identifyEmbeddedPom() throws Exception {
+        File file = new SyntheticJar()
+                .pom("org.example.synthetic", "synthetic-lib", "1.2.3")
+                .write(tempDir.resolve("lib.jar"))
+                .toFile();
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            JarIdentification identification = identificationAnalysis.analyze(jarAnalyzer);
+            assertEquals("org.example.synthetic", identification.getGroupId());
+            assertEquals("synthetic-lib", identification.getArtifactId());
+            assertEquals("1.2.3", identification.getVersion());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void generatesDeterministicJars() throws Exception {
+        SyntheticJar syntheticJar =
+                new SyntheticJar().classes(20).releases(11).resources(5).pom("g", "a", "1");
+        Path first = syntheticJar.write(tempDir.resolve("first.jar"));
+        Path second = syntheticJar.write(tempDir.resolve("second.jar"));
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    private static JarClasses analyze(JarClassesAnalysis analysis, File file) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            return analysis.analyze(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.shared.jar.classes.JarClasses;
+import org.apache.maven.shared.jar.classes.JarClassesAnalysis;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.JarIdentificationAnalysis;
+import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the JarStreamAnalysis class gathers the same data as the analysis of a JAR file.
+ */
+@PlexusTest
+class JarStreamAnalysisTest extends AbstractJarAnalyzerTestCase {
+
+    @Inject
+    private JarStreamAnalysis streamAnalysis;
+
+    @Inject
+    private JarClassesAnalysis classesAnalysis;
+
+    @Inject
+    private JarIdentificationAnalysis identificationAnalysis;
+
+    @Inject
+    @Named("file")
+    private JarHashAnalyzer fileHashAnalyzer;
+
+    @Inject
+    @Named("bytecode")
+    private JarHashAnalyzer bytecodeHashAnalyzer;
+
+    @TempDir
+    Path tempDir;
+
+    static Stream<String> sampleJars() throws Exception {
+        File jarsDir = new File(
+                        JarStreamAnalysisTest.class.getResource("/jars/ant.jar").toURI())
+                .getParentFile();
+        return Arrays.stream(jarsDir.list((dir, name) -> name.endsWith(".jar") && !name.equals("invalid.jar")))
+                .sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("sampleJars")
+    void analyzeSameAsJarFile(String jarName) throws Exception {
+        assertSameAsJarFile(getSampleJar(jarName), false);
+    }
+
+    @Test
+    void analyzeSyntheticJarWithBytecodeHash() throws Exception {
+        Path synthetic = tempDir.resolve("synthetic.jar");
+        new SyntheticJar()
+                .classes(300)
+                .resources(20)
+                .releases(11)
+                .pom("gen", "synthetic", "1.0")
+                .write(synthetic);
+
+        // write the entries in the order of their names, as Maven does
+        Path jar = tempDir.resolve("synthetic-1.0.jar");
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(synthetic.toFile());
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (JarEntry entry : jarAnalyzer.getEntries()) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    IOUtil.copy(is, out);
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+        assertSameAsJarFile(jar.toFile(), true);
+    }
+
+    @Test
+    void classesOutOfOrderHaveNoBytecodeHash() throws Exception {
+        Path jar = tempDir.resolve("unordered.jar");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (String name : Arrays.asList("b/B.class", "a/A.class")) {
+                out.putNextEntry(new ZipEntry(name));
+                out.write(name.getBytes(UTF_8));
+            }
+        }
+        try (InputStream in = Files.newInputStream(jar)) {
+            JarData jarData = streamAnalysis.analyze(in, "unordered.jar");
+            assertNull(jarData.getBytecodeHash());
+            assertFalse(jarData.isBytecodeHashAvailable());
+            assertNotNull(jarData.getFileHash());
+            assertEquals(2, jarData.getNumEntries());
+        }
+    }
+
+    @Test
+    void rejectsStreamWithoutEntries() {
+        assertThrows(
+                ZipException.class,
+                () -> streamAnalysis.analyze(new ByteArrayInputStream("not a JAR".getBytes(UTF_8)), "invalid.jar"));
+    }
+
+    private void assertSameAsJarFile(File file, boolean expectBytecodeHash) throws Exception {
+        JarData actual;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            actual = streamAnalysis.analyze(in, file.getName());
+        }
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            JarClasses expectedClasses = classesAnalysis.analyze(jarAnalyzer);
+            JarIdentification expectedIdentification = identificationAnalysis.analyze(jarAnalyzer);
+            fileHashAnalyzer.computeHash(jarAnalyzer);
+            String expectedBytecodeHash = bytecodeHashAnalyzer.computeHash(jarAnalyzer);
+            JarData expected = jarAnalyzer.getJarData();
+            String name = file.getName();
+
+            assertEquals(expected.getNumEntries(), actual.getNumEntries(), name);
+            for (int i = 0; i < expected.getNumEntries(); i++) {
+                assertEquals(
+                        expected.getEntries().get(i).getName(),
+                        actual.getEntries().get(i).getName(),
+                        name);
+                assertEquals(
+                        expected.getEntries().get(i).getSize(),
+                        actual.getEntries().get(i).getSize(),
+                        name);
+            }
+            assertEquals(expected.getManifest(), actual.getManifest(), name);
+            assertEquals(expected.getFileHash(), actual.getFileHash(), name);
+            if (expectBytecodeHash || actual.getBytecodeHash() != null) {
+                assertEquals(expectedBytecodeHash, actual.getBytecodeHash(), name);
+            }
+
+            JarClasses actualClasses = actual.getJarClasses();
+            assertEquals(expectedClasses.getClassNames(), actualClasses.getClassNames(), name);
+            assertEquals(expectedClasses.getImports(), actualClasses.getImports(), name);
+            assertEquals(expectedClasses.getPackages(), actualClasses.getPackages(), name);
+            assertEquals(expectedClasses.getMethods(), actualClasses.getMethods(), name);
+            assertEquals(expectedClasses.getJdkRevision(), actualClasses.getJdkRevision(), name);
+            assertEquals(expected.isMultiRelease(), actual.isMultiRelease(), name);
+            if (expected.isMultiRelease()) {
+                assertEquals(expected.getNumRootEntries(), actual.getNumRootEntries(), name);
+                assertEquals(
+                        expected.getVersionedRuntimes().getVersionedRuntimeMap().keySet(),
+                        actual.getVersionedRuntimes().getVersionedRuntimeMap().keySet(),
+                        name);
+            }
+
+            JarIdentification actualIdentification = actual.getJarIdentification();
+            assertEquals(expectedIdentification.getGroupId(), actualIdentification.getGroupId(), name);
+            assertEquals(expectedIdentification.getArtifactId(), actualIdentification.getArtifactId(), name);
+            assertEquals(expectedIdentification.getVersion(), actualIdentification.getVersion(), name);
+            assertEquals(expectedIdentification.getName(), actualIdentification.getName(), name);
+            assertEquals(expectedIdentification.getVendor(), actualIdentification.getVendor(), name);
+            assertEquals(
+                    expectedIdentification.getPotentialVersions(), actualIdentification.getPotentialVersions(), name);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.apache.bcel.Const;
+import org.apache.bcel.generic.ClassGen;
+import org.apache.bcel.generic.ConstantPoolGen;
+import org.apache.bcel.generic.InstructionConst;
+import org.apache.bcel.generic.InstructionList;
+import org.apache.bcel.generic.MethodGen;
+import org.apache.bcel.generic.Type;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generator of synthetic JARs, to test and benchmark the analysis at scale. The generated JARs are deterministic: the
+ * same settings always produce the same bytes.
+ *
+ * The classes are named <code>gen.pkgP.ClassN</code>, spread over the packages in turn. Each class references the
+ * given number of other classes through its constant pool, and has the given number of methods. The classes of each
+ * <code>META-INF/versions/N</code> layer of a Multi-Release JAR are a copy of the first tenth of the root classes,
+ * compiled for release N.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class SyntheticJar {
+    /**
+     * The time of all the entries, 2000-01-01T00:00:00Z.
+     */
+    private static final long ENTRY_TIME = 946684800000L;
+
+    private int classes = 100;
+
+    private int packages = 10;
+
+    private int methodsPerClass = 5;
+
+    private int importFanOut = 10;
+
+    private int extraConstants;
+
+    private int resources;
+
+    private int classVersion = Const.MAJOR_1_8;
+
+    private boolean debug = true;
+
+    private int[] releases = new int[0];
+
+    private String[] pom;
+
+    /**
+     * @param classes the number of root classes, 100 by default
+     * @return this generator
+     */
+    public SyntheticJar classes(int classes) {
+        this.classes = classes;
+        return this;
+    }
+
+    /**
+     * @param packages the number of packages the classes are spread over, 10 by default
+     * @return this generator
+     */
+    public SyntheticJar packages(int packages) {
+        this.packages = packages;
+        return this;
+    }
+
+    /**
+     * @param methodsPerClass the number of methods of each class, 5 by default
+     * @return this generator
+     */
+    public SyntheticJar methodsPerClass(int methodsPerClass) {
+        this.methodsPerClass = methodsPerClass;
+        return this;
+    }
+
+    /**
+     * @param importFanOut the number of other classes each class references, 10 by default
+     * @return this generator
+     */
+    public SyntheticJar importFanOut(int importFanOut) {
+        this.importFanOut = importFanOut;
+        return this;
+    }
+
+    /**
+     * @param extraConstants the number of String constants added to the constant pool of each class, to make it larger.
+     *            Each takes two entries of the pool, and BCEL only generates pools of up to 32768 entries.
+     * @return this generator
+     */
+    public SyntheticJar extraConstants(int extraConstants) {
+        this.extraConstants = extraConstants;
+        return this;
+    }
+
+    /**
+     * @param resources the number of text resources, besides the classes
+     * @return this generator
+     */
+    public SyntheticJar resources(int resources) {
+        this.resources = resources;
+        return this;
+    }
+
+    /**
+     * @param classVersion the major class file version of the root classes, 52 (Java 8) by default
+     * @return this generator
+     */
+    public SyntheticJar classVersion(int classVersion) {
+        this.classVersion = classVersion;
+        return this;
+    }
+
+    /**
+     * @param debug whether the methods have a line number table, true by default
+     * @return this generator
+     */
+    public SyntheticJar debug(boolean debug) {
+        this.debug = debug;
+        return this;
+    }
+
+    /**
+     * @param releases the Java releases of the <code>META-INF/versions/N</code> layers, making it a Multi-Release JAR
+     * @return this generator
+     */
+    public SyntheticJar releases(int... releases) {
+        this.releases = releases.clone();
+        return this;
+    }
+
+    /**
+     * @param groupId the group id of the embedded POM
+     * @param artifactId the artifact id of the embedded POM
+     * @param version the version of the embedded POM
+     * @return this generator
+     */
+    public SyntheticJar pom(String groupId, String artifactId, String version) {
+        this.pom = new String[] {groupId, artifactId, version};
+        return this;
+    }
+
+    /**
+     * @return the number of classes in each <code>META-INF/versions/N</code> layer
+     */
+    public int getReleaseClasses() {
+        return Math.max(1, classes / 10);
+    }
+
+    /**
+     * @return the total number of entries of the generated JAR, including the manifest
+     */
+    public int getEntryCount() {
+        return 1 + classes + releases.length * getReleaseClasses() + resources + (pom == null ? 0 : 2);
+    }
+
+    /**
+     * Write the JAR.
+     *
+     * @param file the file to write to
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    public Path write(Path file) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (releases.length > 0) {
+            manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        }
+
+        try (OutputStream os = Files.newOutputStream(file);
+                JarOutputStream out = new JarOutputStream(new BufferedOutputStream(os))) {
+            putEntry(out, "META-INF/MANIFEST.MF");
+            manifest.write(out);
+
+            if (pom != null) {
+                String dir = "META-INF/maven/" + pom[0] + "/" + pom[1] + "/";
+                putEntry(out, dir + "pom.xml");
+                out.write(("<project>\n  <modelVersion>4.0.0</modelVersion>\n  <groupId>" + pom[0]
+                                + "</groupId>\n  <artifactId>" + pom[1] + "</artifactId>\n  <version>" + pom[2]
+                                + "</version>\n</project>\n")
+                        .getBytes(UTF_8));
+                putEntry(out, dir + "pom.properties");
+                out.write(("groupId=" + pom[0] + "\nartifactId=" + pom[1] + "\nversion=" + pom[2] + "\n")
+                        .getBytes(UTF_8));
+            }
+
+            for (int i = 0; i < classes; i++) {
+                putEntry(out, getClassName(i).replace('.', '/') + ".class");
+                out.write(generateClass(i, classVersion));
+            }
+
+            for (int release : releases) {
+                for (int i = 0; i < getReleaseClasses(); i++) {
+                    putEntry(
+                            out,
+                            "META-INF/versions/" + release + "/"
+                                    + getClassName(i).replace('.', '/') + ".class");
+                    out.write(generateClass(i, release + 44));
+                }
+            }
+
+            for (int i = 0; i < resources; i++) {
+                putEntry(out, "res/r" + (i % 100) + "/resource" + i + ".txt");
+                out.write(("resource " + i + "\n").getBytes(UTF_8));
+            }
+        }
+        return file;
+    }
+
+    private String getClassName(int index) {
+        return "gen.pkg" + (index % packages) + ".Class" + index;
+    }
+
+    private byte[] generateClass(int index, int major) {
+        String className = getClassName(index);
+        ClassGen classGen = new ClassGen(
+                className, "java.lang.Object", "Class" + index + ".java", Const.ACC_PUBLIC | Const.ACC_SUPER, null);
+        classGen.setMajor(major);
+        classGen.setMinor(0);
+        ConstantPoolGen constantPool = classGen.getConstantPool();
+
+        for (int i = 1; i <= importFanOut && i < classes; i++) {
+            constantPool.addClass(getClassName((index + i) % classes));
+        }
+        for (int i = 0; i < extraConstants; i++) {
+            constantPool.addString("constant " + i);
+        }
+
+        for (int i = 0; i < methodsPerClass; i++) {
+            InstructionList code = new InstructionList();
+            code.append(InstructionConst.RETURN);
+            MethodGen method = new MethodGen(
+                    Const.ACC_PUBLIC | Const.ACC_STATIC,
+                    Type.VOID,
+                    Type.NO_ARGS,
+                    null,
+                    "method" + i,
+                    className,
+                    code,
+                    constantPool);
+            if (debug) {
+                method.addLineNumber(code.getStart(), i + 1);
+            }
+            method.setMaxStack();
+            method.setMaxLocals();
+            classGen.addMethod(method.getMethod());
+        }
+
+        return classGen.getJavaClass().getBytes();
+    }
+
+    private static void putEntry(JarOutputStream out, String name) throws IOException {
+        JarEntry entry = new JarEntry(name);
+        entry.setTime(ENTRY_TIME);
+        out.putNextEntry(entry);
+    }
+}
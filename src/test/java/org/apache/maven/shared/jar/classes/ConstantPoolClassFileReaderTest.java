@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.stream.Stream;
+
+import org.apache.bcel.classfile.Attribute;
+import org.apache.bcel.classfile.ClassFormatException;
+import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Code;
+import org.apache.bcel.classfile.JavaClass;
+import org.apache.bcel.classfile.LineNumber;
+import org.apache.bcel.classfile.LineNumberTable;
+import org.apache.bcel.classfile.Method;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link ConstantPoolClassFileReader} gathers the same facts as the {@link BcelClassFileReader}.
+ */
+class ConstantPoolClassFileReaderTest extends AbstractJarAnalyzerTestCase {
+
+    private final ClassFileReader bcelReader = new BcelClassFileReader();
+
+    private final ClassFileReader constantPoolReader = new ConstantPoolClassFileReader();
+
+    static Stream<String> sampleJars() throws Exception {
+        File jarsDir = new File(ConstantPoolClassFileReaderTest.class
+                        .getResource("/jars/ant.jar")
+                        .toURI())
+                .getParentFile();
+        return Arrays.stream(jarsDir.list((dir, name) -> name.endsWith(".jar") && !name.equals("invalid.jar")))
+                .sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("sampleJars")
+    void readsSameDetailsAsBcel(String jarName) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                ClassDetails expected;
+                try {
+                    expected = read(bcelReader, jarAnalyzer, entry);
+                } catch (ClassFormatException | IOException e) {
+                    assertThrows(Exception.class, () -> read(constantPoolReader, jarAnalyzer, entry), entry.getName());
+                    continue;
+                }
+                ClassDetails actual = read(constantPoolReader, jarAnalyzer, entry);
+
+                String message = jarName + "!" + entry.getName();
+                assertEquals(expected.getClassName(), actual.getClassName(), message);
+                assertEquals(expected.getPackageName(), actual.getPackageName(), message);
+                assertEquals(expected.getClassVersion(), actual.getClassVersion(), message);
+                assertEquals(expected.isDebugPresent(), actual.isDebugPresent(), message);
+                assertEquals(expected.getMethods(), actual.getMethods(), message);
+                assertEquals(expected.getImports(), actual.getImports(), message);
+                assertFalse(actual.getClassName().isEmpty(), message);
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void emptyLineNumberTablesAreNoDebugInformation() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("jxr.jar"));
+        try {
+            JarEntry entry = jarAnalyzer.getClassEntries().get(0);
+            assertTrue(read(bcelReader, jarAnalyzer, entry).isDebugPresent());
+            JavaClass javaClass;
+            try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                javaClass = new ClassParser(is, entry.getName()).parse();
+            }
+
+            // keep the line number tables, without any line
+            for (Method method : javaClass.getMethods()) {
+                Code code = method.getCode();
+                if (code == null) {
+                    continue;
+                }
+                Attribute[] attributes = code.getAttributes();
+                for (int i = 0; i < attributes.length; i++) {
+                    if (attributes[i] instanceof LineNumberTable) {
+                        attributes[i] = new LineNumberTable(
+                                attributes[i].getNameIndex(), 2, new LineNumber[0], javaClass.getConstantPool());
+                    }
+                }
+                code.setAttributes(attributes);
+            }
+            byte[] bytes = javaClass.getBytes();
+
+            for (ClassFileReader reader : new ClassFileReader[] {bcelReader, constantPoolReader}) {
+                ClassDetails details =
+                        reader.read(new ByteArrayInputStream(bytes), entry.getName(), JarClassesOptions.all());
+                assertFalse(details.isDebugPresent(), reader.getClass().getSimpleName());
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static ClassDetails read(ClassFileReader reader, JarAnalyzer jarAnalyzer, JarEntry entry)
+            throws IOException {
+        try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+            return reader.read(is, entry.getName(), JarClassesOptions.all());
+        }
+    }
+}
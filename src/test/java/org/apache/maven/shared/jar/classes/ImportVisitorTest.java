@@ -22,17 +22,27 @@ import javax.tools.JavaCompiler;
 import javax.tools.ToolProvider;
 
 import java.io.File;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.jar.JarEntry;
 
+import org.apache.bcel.classfile.ClassFormatException;
 import org.apache.bcel.classfile.ClassParser;
+import org.apache.bcel.classfile.Constant;
+import org.apache.bcel.classfile.ConstantClass;
+import org.apache.bcel.classfile.ConstantPool;
+import org.apache.bcel.classfile.ConstantUtf8;
 import org.apache.bcel.classfile.DescendingVisitor;
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -158,4 +168,72 @@ class ImportVisitorTest extends AbstractJarAnalyzerTestCase {
                 importVisitor.getImports().contains("org.test.innertest.Outer$Inner"),
                 "imports should keep inner class references from the UTF-8 pool");
     }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "",
+                " ",
+                "java/lang/String",
+                " java/lang/String\t",
+                "[Ljava/lang/String;",
+                "(Ljava/lang/String;ILjava/util/List;)Ljava/lang/Object;",
+                "(La;Lb/c;LLd/e;)V",
+                "Ljava/util/List<Ljava/lang/String;>;",
+                "/java/lang/String",
+                "java//lang",
+                "java.lang.String",
+                "org/test/Outer$Inner",
+                "org/test/Outer.class",
+                "org/test/Outer/class",
+                "/class",
+                "La/b;Lc/d;",
+                "L1a/b;Lc/d;",
+                "(L)V/",
+                "a/b;",
+                "\u00e9/b"
+            })
+    void scannerMatchesRegexImplementation(String value) {
+        assertSameImports(value);
+    }
+
+    @ParameterizedTest
+    @MethodSource("org.apache.maven.shared.jar.classes.ConstantPoolClassFileReaderTest#sampleJars")
+    void scannerMatchesRegexImplementationOnSampleJars(String jarName) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            for (JarEntry entry : jarAnalyzer.getClassEntries()) {
+                JavaClass javaClass;
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    javaClass = new ClassParser(is, entry.getName()).parse();
+                } catch (ClassFormatException e) {
+                    continue;
+                }
+                ConstantPool constantPool = javaClass.getConstantPool();
+                for (Constant constant : constantPool.getConstantPool()) {
+                    if (constant instanceof ConstantClass) {
+                        assertSameImports(((ConstantClass) constant).getBytes(constantPool));
+                    } else if (constant instanceof ConstantUtf8) {
+                        assertSameImports(((ConstantUtf8) constant).getBytes());
+                    }
+                }
+            }
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static void assertSameImports(String value) {
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        RegexImports.addClassImport(value, expected);
+        ImportVisitor.addClassImport(value, actual);
+        assertEquals(expected, actual, "class constant " + value);
+
+        expected.clear();
+        actual.clear();
+        RegexImports.addUtf8Imports(value, expected);
+        ImportVisitor.addUtf8Imports(value, actual);
+        assertEquals(expected, actual, "UTF8 constant " + value);
+    }
 }
@@ -23,6 +23,7 @@ import javax.inject.Inject;
 import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.jar.JarEntry;
 
 import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
@@ -32,12 +33,14 @@ import org.codehaus.plexus.testing.PlexusTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -148,6 +151,102 @@ class JarClassesAnalyzerTest extends AbstractJarAnalyzerTestCase {
         assertEquals(expectedRevision, jclass.getJdkRevision());
     }
 
+    @ParameterizedTest
+    @MethodSource("testAnalyzeJarVersion")
+    void analyzeJdkRevisionFromHeaders(String jarName, String expectedRevision) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            JarClasses jclass = analyzer.analyzeJdkRevision(jarAnalyzer, false);
+
+            assertEquals(expectedRevision, jclass.getJdkRevision());
+            assertEquals(expectedRevision, jarAnalyzer.getJarData().getJdkRevision());
+            assertTrue(jclass.isHeaderOnly());
+            assertTrue(jclass.getClassNames().isEmpty());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeJdkRevisionThenFullAnalysis() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("multi-release-test-0.0.1.jar"));
+        try {
+            JarClasses headerOnly = analyzer.analyzeJdkRevision(jarAnalyzer, true);
+            assertEquals("1.8", headerOnly.getJdkRevision());
+            JarVersionedRuntimes jarVersionedRuntimes = jarAnalyzer.getJarData().getVersionedRuntimes();
+            assertEquals("9", jarVersionedRuntimes.getJarClasses(9).getJdkRevision());
+            assertEquals("11", jarVersionedRuntimes.getJarClasses(11).getJdkRevision());
+
+            // cached
+            assertSame(headerOnly, analyzer.analyzeJdkRevision(jarAnalyzer, true));
+
+            JarClasses jclass = analyzer.analyze(jarAnalyzer);
+            assertFalse(jclass.isHeaderOnly());
+            assertEquals("1.8", jclass.getJdkRevision());
+            assertFalse(jclass.getImports().isEmpty());
+            assertEquals(1, jclass.getClassNames().size());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeWithoutFacets() throws Exception {
+        JarData full = getJarData("jxr.jar");
+
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("jxr.jar"));
+        try {
+            JarClasses jclass = analyzer.analyze(jarAnalyzer, JarClassesOptions.of());
+            assertTrue(jclass.getFacets().isEmpty());
+            assertTrue(jclass.getImports().isEmpty());
+            assertTrue(jclass.getMethods().isEmpty());
+            assertTrue(jclass.getPackages().isEmpty());
+            assertFalse(jclass.isDebugPresent());
+            assertEquals(full.getJarClasses().getClassNames(), jclass.getClassNames());
+            assertEquals(full.getJarClasses().getJdkRevision(), jclass.getJdkRevision());
+
+            // cached, as it covers the requested facets
+            assertSame(jclass, analyzer.analyze(jarAnalyzer, JarClassesOptions.of()));
+
+            JarClasses imports = analyzer.analyze(jarAnalyzer, JarClassesOptions.of(JarClassesOptions.Facet.IMPORTS));
+            assertEquals(full.getJarClasses().getImports(), imports.getImports());
+            assertTrue(imports.getMethods().isEmpty());
+
+            assertJarClassesEquals(full.getJarClasses(), analyzer.analyze(jarAnalyzer));
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void analyzeWithNamePool() throws Exception {
+        NamePool namePool = new NamePool();
+        JarClassesAnalysis pooled = new JarClassesAnalysis(new BcelClassFileReader(), namePool);
+
+        JarClasses first = analyzeWith(pooled, "jxr.jar");
+        long firstHits = namePool.getHits();
+        JarClasses second = analyzeWith(pooled, "jxr.jar");
+        assertJarClassesEquals(getJarClasses("jxr.jar"), second);
+
+        for (int i = 0; i < first.getImports().size(); i++) {
+            assertSame(first.getImports().get(i), second.getImports().get(i));
+        }
+        for (int i = 0; i < first.getPackages().size(); i++) {
+            assertSame(first.getPackages().get(i), second.getPackages().get(i));
+        }
+        assertTrue(namePool.getHits() - firstHits >= first.getImports().size());
+        assertTrue(namePool.getSavedBytes() > 40 * namePool.getHits());
+    }
+
+    private JarClasses analyzeWith(JarClassesAnalysis analysis, String jarName) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            return analysis.analyze(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
     @Test
     void analyzeJarWithModuleInfoClass() throws Exception {
         JarData jarData = getJarData("tomcat-jni-9.0.75.jar");
@@ -346,6 +445,45 @@ class JarClassesAnalyzerTest extends AbstractJarAnalyzerTestCase {
                 "It should not raise an exception");
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"ant.jar", "jxr.jar", "invalid-class-file.jar", "multi-release-test-0.0.1.jar"})
+    void analyzeInParallelMatchesSequential(String jarName) throws Exception {
+        JarData sequential = getJarData(jarName);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(jarName));
+        try {
+            analyzer.analyze(jarAnalyzer, pool);
+        } finally {
+            jarAnalyzer.closeQuietly();
+            pool.shutdown();
+        }
+        JarData parallel = jarAnalyzer.getJarData();
+
+        assertJarClassesEquals(sequential.getJarClasses(), parallel.getJarClasses());
+        if (sequential.getVersionedRuntimes() != null) {
+            Map<Integer, JarVersionedRuntime> expected =
+                    sequential.getVersionedRuntimes().getVersionedRuntimeMap();
+            Map<Integer, JarVersionedRuntime> actual =
+                    parallel.getVersionedRuntimes().getVersionedRuntimeMap();
+            assertEquals(expected.keySet(), actual.keySet());
+            for (Integer version : expected.keySet()) {
+                assertJarClassesEquals(
+                        expected.get(version).getJarClasses(),
+                        actual.get(version).getJarClasses());
+            }
+        }
+    }
+
+    private void assertJarClassesEquals(JarClasses expected, JarClasses actual) {
+        assertEquals(expected.getClassNames(), actual.getClassNames());
+        assertEquals(expected.getPackages(), actual.getPackages());
+        assertEquals(expected.getImports(), actual.getImports());
+        assertEquals(expected.getMethods(), actual.getMethods());
+        assertEquals(expected.isDebugPresent(), actual.isDebugPresent());
+        assertEquals(expected.getJdkRevision(), actual.getJdkRevision());
+    }
+
     private void assertEntriesContains(List<JarEntry> list, final String entryToFind) {
         assertTrue(list.stream().anyMatch(entry -> entry.getName().equals(entryToFind)));
     }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The former regular expression based implementation of the {@link ImportVisitor}, kept as a reference for the
+ * scanner that replaced it.
+ */
+final class RegexImports {
+    private static final Pattern QUALIFIED_IMPORT_PATTERN = Pattern.compile("L([a-zA-Z][a-zA-Z0-9\\.$]+);");
+
+    private static final Pattern VALID_UTF8_PATTERN = Pattern.compile("^[\\(\\)\\[A-Za-z0-9;/;$]+$");
+
+    static void addClassImport(String name, List<String> imports) {
+        if (name.indexOf('/') == -1) {
+            return;
+        }
+
+        name = name.replace('/', '.');
+
+        if (name.endsWith(".class")) {
+            name = name.substring(0, name.length() - 6);
+        }
+
+        Matcher mat = QUALIFIED_IMPORT_PATTERN.matcher(name);
+        if (mat.find()) {
+            imports.add(mat.group(1));
+        } else {
+            imports.add(name);
+        }
+    }
+
+    static void addUtf8Imports(String value, List<String> imports) {
+        String ret = value.trim();
+        if (ret.length() <= 0
+                || !VALID_UTF8_PATTERN.matcher(ret).matches()
+                || ret.indexOf('/') == -1
+                || ret.charAt(0) == '/') {
+            return;
+        }
+
+        ret = ret.replace('/', '.');
+        if (ret.contains("..")) {
+            return;
+        }
+
+        Matcher mat = QUALIFIED_IMPORT_PATTERN.matcher(ret);
+        if (ret.charAt(0) == '(') {
+            while (mat.find()) {
+                imports.add(mat.group(1));
+            }
+        } else if (mat.find()) {
+            imports.add(mat.group(1));
+        } else {
+            imports.add(ret);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.classes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unique List Test
+ */
+class UniqueListTest {
+
+    @Test
+    void ignoresDuplicatesAndRetainsOrder() {
+        List<String> list = new UniqueList<>();
+        assertTrue(list.add("b"));
+        assertTrue(list.add("a"));
+        assertFalse(list.add("b"));
+        assertTrue(list.addAll(Arrays.asList("c", "a", null, "c")));
+        assertFalse(list.addAll(Arrays.asList("a", null)));
+
+        assertEquals(Arrays.asList("b", "a", "c", null), list);
+        assertEquals(1, list.indexOf("a"));
+        assertEquals(3, list.indexOf(null));
+        assertEquals(-1, list.indexOf("d"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(4));
+        assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+    }
+
+    @Test
+    void matchesLinkedHashSetWhenGrowing() {
+        List<String> list = new UniqueList<>();
+        Set<String> expected = new LinkedHashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            // collide on purpose, as "Aa" and "BB" have the same hash code
+            String value = (i % 3 == 0 ? "Aa" : "BB") + (i * 7919 % 5000);
+            assertEquals(expected.add(value), list.add(value));
+        }
+
+        assertEquals(new ArrayList<>(expected), list);
+        for (String value : expected) {
+            assertTrue(list.contains(value));
+        }
+    }
+}
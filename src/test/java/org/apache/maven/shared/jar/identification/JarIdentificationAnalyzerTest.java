@@ -19,17 +19,23 @@
 package org.apache.maven.shared.jar.identification;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
 import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarHashAnalyzer;
 import org.codehaus.plexus.testing.PlexusTest;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * JarAnalyzer Taxon Analyzer Test Case
@@ -41,6 +47,14 @@ class JarIdentificationAnalyzerTest extends AbstractJarAnalyzerTestCase {
     @Inject
     JarIdentificationAnalysis analyzer;
 
+    @Inject
+    @Named("file")
+    JarHashAnalyzer fileHashAnalyzer;
+
+    @Inject
+    @Named("bytecode")
+    JarHashAnalyzer bytecodeHashAnalyzer;
+
     private JarIdentification getJarTaxon(String filename) throws Exception {
         File jarfile = getSampleJar(filename);
         JarIdentification taxon = analyzer.analyze(new JarAnalyzer(jarfile));
@@ -95,4 +109,59 @@ class JarIdentificationAnalyzerTest extends AbstractJarAnalyzerTestCase {
 
         // TODO assert potentials too
     }
+
+    @Test
+    void taxonAnalyzerWithSeveralJars() throws Exception {
+        List<JarAnalyzer> jarAnalyzers = new ArrayList<>();
+        try {
+            for (String filename : new String[] {"jxr.jar", "codec.jar", "ant.jar"}) {
+                jarAnalyzers.add(new JarAnalyzer(getSampleJar(filename)));
+            }
+            JarIdentification cached = analyzer.analyze(jarAnalyzers.get(1));
+
+            List<JarIdentification> taxa = analyzer.analyze(jarAnalyzers);
+
+            assertEquals(3, taxa.size());
+            assertSame(cached, taxa.get(1));
+            assertEquals("maven-jxr", taxa.get(0).getArtifactId(), "identification.artifactId");
+            assertEquals("1.1-SNAPSHOT", taxa.get(0).getVersion(), "identification.version");
+            assertEquals("org.apache.tools.ant", taxa.get(2).getGroupId(), "identification.groupId");
+            assertEquals("1.6.5", taxa.get(2).getVersion(), "identification.version");
+            assertSame(taxa.get(2), jarAnalyzers.get(2).getJarData().getJarIdentification());
+        } finally {
+            for (JarAnalyzer jarAnalyzer : jarAnalyzers) {
+                jarAnalyzer.closeQuietly();
+            }
+        }
+    }
+
+    @Test
+    void taxonAnalyzerWithJarInMemory() throws Exception {
+        File jarfile = getSampleJar("jxr.jar");
+        JarAnalyzer fromFile = new JarAnalyzer(jarfile);
+        JarAnalyzer inMemory = new JarAnalyzer(jarfile.getName(), Files.readAllBytes(jarfile.toPath()));
+        try {
+            JarIdentification expected = analyzer.analyze(fromFile);
+            JarIdentification actual = analyzer.analyze(inMemory);
+
+            assertEquals(expected.getGroupId(), actual.getGroupId(), "identification.groupId");
+            assertEquals(expected.getArtifactId(), actual.getArtifactId(), "identification.artifactId");
+            assertEquals(expected.getVersion(), actual.getVersion(), "identification.version");
+            assertEquals(expected.getName(), actual.getName(), "identification.name");
+            assertEquals(expected.getVendor(), actual.getVendor(), "identification.vendor");
+            assertEquals(expected.getPotentialVersions(), actual.getPotentialVersions(), "potential versions");
+
+            fileHashAnalyzer.computeHash(fromFile);
+            fileHashAnalyzer.computeHash(inMemory);
+            assertEquals(
+                    fromFile.getJarData().getFileHash(), inMemory.getJarData().getFileHash(), "file hash");
+            assertEquals(
+                    bytecodeHashAnalyzer.computeHash(fromFile),
+                    bytecodeHashAnalyzer.computeHash(inMemory),
+                    "bytecode hash");
+        } finally {
+            fromFile.closeQuietly();
+            inMemory.closeQuietly();
+        }
+    }
 }
@@ -34,6 +34,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Tests for the {@link JarBytecodeHashAnalyzer}.
@@ -77,6 +78,19 @@ class JarBytecodeHashAnalyzerTest extends AbstractJarAnalyzerTestCase {
         }
     }
 
+    @Test
+    void computeHashSkipsUnavailableHash() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("codec.jar"));
+        try {
+            jarAnalyzer.getJarData().setBytecodeHashAvailable(false);
+
+            assertNull(analyzer.computeHash(jarAnalyzer));
+            assertNull(jarAnalyzer.getJarData().getBytecodeHash());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
     private File createJar(String... entryNames) throws IOException {
         File file = File.createTempFile("bytecode-hash-test", ".jar");
         file.deleteOnExit();
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the {@link JarFileDigestAnalyzer}.
+ */
+class JarFileDigestAnalyzerTest extends AbstractJarAnalyzerTestCase {
+
+    private final JarFileDigestAnalyzer analyzer = new JarFileDigestAnalyzer();
+
+    @Test
+    void computeDigestsOfMappedFile() throws Exception {
+        File file = getSampleJar("ant.jar");
+        byte[] content = Files.readAllBytes(file.toPath());
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            Map<String, String> digests = analyzer.computeDigests(jarAnalyzer);
+
+            assertEquals(
+                    Arrays.asList("SHA-1", "SHA-256", "SHA-512"),
+                    Arrays.asList(digests.keySet().toArray()));
+            assertEquals(DigestUtils.sha1Hex(content), digests.get("SHA-1"));
+            assertEquals(DigestUtils.sha256Hex(content), digests.get("SHA-256"));
+            assertEquals(DigestUtils.sha512Hex(content), digests.get("SHA-512"));
+            assertEquals(digests, jarAnalyzer.getJarData().getFileDigests());
+            assertEquals(DigestUtils.sha1Hex(content), jarAnalyzer.getJarData().getFileHash());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void computeDigestsOfJarInMemory() throws Exception {
+        byte[] content = Files.readAllBytes(getSampleJar("codec.jar").toPath());
+        JarAnalyzer jarAnalyzer = new JarAnalyzer("codec.jar", content);
+        try {
+            Map<String, String> digests = analyzer.computeDigests(jarAnalyzer);
+
+            assertEquals(DigestUtils.sha1Hex(content), digests.get("SHA-1"));
+            assertEquals(DigestUtils.sha256Hex(content), digests.get("SHA-256"));
+            assertEquals(DigestUtils.sha512Hex(content), digests.get("SHA-512"));
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void computeOnlyMissingDigests() throws Exception {
+        File file = getSampleJar("codec.jar");
+        byte[] content = Files.readAllBytes(file.toPath());
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(file);
+        try {
+            jarAnalyzer.getJarData().setFileDigests(Collections.singletonMap("SHA-256", "cached"));
+
+            Map<String, String> digests =
+                    new JarFileDigestAnalyzer(Arrays.asList("SHA-256", "SHA-384")).computeDigests(jarAnalyzer);
+
+            assertEquals("cached", digests.get("SHA-256"));
+            assertEquals(DigestUtils.sha384Hex(content), digests.get("SHA-384"));
+            assertEquals(2, jarAnalyzer.getJarData().getFileDigests().size());
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void rejectUnsupportedAlgorithm() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new JarFileDigestAnalyzer(Collections.singletonList("NO-SUCH-DIGEST")));
+        assertThrows(IllegalArgumentException.class, () -> new JarFileDigestAnalyzer(Collections.emptyList()));
+    }
+}
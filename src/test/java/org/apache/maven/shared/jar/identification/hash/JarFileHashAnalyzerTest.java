@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the {@link JarFileHashAnalyzer}.
+ */
+class JarFileHashAnalyzerTest extends AbstractJarAnalyzerTestCase {
+
+    private final JarFileHashAnalyzer analyzer = new JarFileHashAnalyzer();
+
+    @Test
+    void computeHashReturnsHashOnFirstCall() throws Exception {
+        File jar = getSampleJar("codec.jar");
+        String expected = DigestUtils.sha1Hex(Files.readAllBytes(jar.toPath()));
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(jar);
+        try {
+            assertEquals(expected, analyzer.computeHash(jarAnalyzer));
+            assertEquals(expected, jarAnalyzer.getJarData().getFileHash());
+            // cached
+            assertEquals(expected, analyzer.computeHash(jarAnalyzer));
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+}
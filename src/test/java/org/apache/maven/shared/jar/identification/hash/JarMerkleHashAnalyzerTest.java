@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.hash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the {@link JarMerkleHashAnalyzer}.
+ */
+class JarMerkleHashAnalyzerTest extends AbstractJarAnalyzerTestCase {
+
+    @Test
+    void computeDigestsOfEveryClassEntry() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("ant.jar"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            JarBytecodeDigests digests = new JarMerkleHashAnalyzer(executor).computeDigests(jarAnalyzer);
+
+            List<JarEntry> entries = jarAnalyzer.getClassEntries();
+            assertEquals(entries.size(), digests.getEntryNames().size());
+            ByteArrayOutputStream tree = new ByteArrayOutputStream();
+            for (JarEntry entry : entries) {
+                String digest;
+                try (InputStream is = jarAnalyzer.getEntryInputStream(entry)) {
+                    digest = DigestUtils.sha1Hex(is);
+                }
+                assertEquals(digest, digests.getEntryDigest(entry.getName()), entry.getName());
+                tree.write(entry.getName().getBytes(StandardCharsets.UTF_8));
+                tree.write(0);
+                tree.write(Hex.decodeHex(digest));
+            }
+            assertEquals(DigestUtils.sha1Hex(tree.toByteArray()), digests.getRootHash());
+            assertSame(digests, jarAnalyzer.getJarData().getBytecodeDigests());
+            assertEquals(digests.getRootHash(), new JarMerkleHashAnalyzer().computeHash(jarAnalyzer));
+        } finally {
+            executor.shutdown();
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    @Test
+    void parallelSameAsSequential() throws Exception {
+        File file = getSampleJar("ant.jar");
+        JarAnalyzer parallel = new JarAnalyzer(file);
+        JarAnalyzer sequential = new JarAnalyzer(file);
+        try {
+            JarBytecodeDigests expected = new JarMerkleHashAnalyzer(null).computeDigests(sequential);
+            JarBytecodeDigests actual = new JarMerkleHashAnalyzer().computeDigests(parallel);
+
+            assertEquals(expected.getRootHash(), actual.getRootHash());
+            assertEquals(expected.getEntryDigests(), actual.getEntryDigests());
+            assertEquals(Collections.emptySet(), expected.getDifferences(actual));
+        } finally {
+            parallel.closeQuietly();
+            sequential.closeQuietly();
+        }
+    }
+
+    @Test
+    void compareJarsClassByClass() throws Exception {
+        JarMerkleHashAnalyzer analyzer = new JarMerkleHashAnalyzer();
+        JarAnalyzer jarA = new JarAnalyzer(
+                createJar("org/foo/A.class", "A", "org/zshared/Y.class", "Y", "org/zshared/Z.class", "Z"));
+        JarAnalyzer jarB = new JarAnalyzer(
+                createJar("org/bar/B.class", "B", "org/zshared/Y.class", "Y", "org/zshared/Z.class", "Z2"));
+        try {
+            JarBytecodeDigests a = analyzer.computeDigests(jarA);
+            JarBytecodeDigests b = analyzer.computeDigests(jarB);
+
+            assertNotEquals(a.getRootHash(), b.getRootHash());
+            assertEquals(
+                    new HashSet<>(Arrays.asList("org/bar/B.class", "org/foo/A.class", "org/zshared/Z.class")),
+                    a.getDifferences(b));
+            assertEquals(a.getDifferences(b), b.getDifferences(a));
+        } finally {
+            jarA.closeQuietly();
+            jarB.closeQuietly();
+        }
+    }
+
+    @Test
+    void reuseDigestsOfUnchangedEntries() throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(createJar("org/foo/A.class", "A", "org/foo/B.class", "B2"));
+        try {
+            List<JarEntry> entries = jarAnalyzer.getClassEntries();
+            byte[] reused = new byte[20];
+            Arrays.fill(reused, (byte) 1);
+            JarBytecodeDigests previous = new JarBytecodeDigests(
+                    "previous",
+                    new String[] {"org/foo/A.class", "org/foo/B.class"},
+                    new long[] {entries.get(0).getCrc(), entries.get(1).getCrc()},
+                    new long[] {entries.get(0).getSize(), entries.get(1).getSize() + 1},
+                    new byte[][] {reused, reused});
+
+            JarBytecodeDigests digests = new JarMerkleHashAnalyzer().computeDigests(jarAnalyzer, previous);
+
+            assertEquals(previous.getEntryDigest("org/foo/A.class"), digests.getEntryDigest("org/foo/A.class"));
+            assertEquals(
+                    DigestUtils.sha1Hex("B2".getBytes(StandardCharsets.UTF_8)),
+                    digests.getEntryDigest("org/foo/B.class"));
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private File createJar(String... entries) throws IOException {
+        File file = File.createTempFile("merkle-hash-test", ".jar");
+        file.deleteOnExit();
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                jos.putNextEntry(new JarEntry(entries[i]));
+                jos.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link CachingRepositoryHashSearch}.
+ */
+@PlexusTest
+class CachingRepositoryHashSearchTest {
+
+    @Inject
+    RepositoryHashSearch defaultSearch;
+
+    private final CountingSearch delegate = new CountingSearch();
+
+    @Test
+    void cacheHitsAndMisses() {
+        CachingRepositoryHashSearch search = new CachingRepositoryHashSearch(delegate, 10, 10);
+
+        assertEquals("foo", search.searchFileHash("1").get(0).getArtifactId());
+        assertTrue(search.searchFileHash("2").isEmpty());
+        assertEquals("foo", search.searchFileHash("1").get(0).getArtifactId());
+        assertTrue(search.searchFileHash("2").isEmpty());
+        assertEquals(Arrays.asList("file:1", "file:2"), delegate.searches);
+        assertEquals(2, search.getHitCount());
+        assertEquals(2, search.getMissCount());
+        assertEquals(1, search.getHitCacheSize());
+        assertEquals(1, search.getMissCacheSize());
+
+        // the file and bytecode hashes are cached separately
+        assertEquals("foo", search.searchBytecodeHash("1").get(0).getArtifactId());
+        assertEquals(Arrays.asList("file:1", "file:2", "bytecode:1"), delegate.searches);
+
+        search.clear();
+        search.searchFileHash("1");
+        assertEquals(4, delegate.searches.size());
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        CachingRepositoryHashSearch search = new CachingRepositoryHashSearch(delegate, 2, 1);
+
+        search.searchFileHash("1");
+        search.searchFileHash("3");
+        search.searchFileHash("1");
+        search.searchFileHash("5");
+        search.searchFileHash("2");
+        search.searchFileHash("4");
+        assertEquals(2, search.getHitCacheSize());
+        assertEquals(1, search.getMissCacheSize());
+        delegate.searches.clear();
+
+        // misses do not evict hits, 3 is the least recently used hit
+        search.searchFileHash("1");
+        search.searchFileHash("5");
+        search.searchFileHash("4");
+        search.searchFileHash("3");
+        search.searchFileHash("2");
+        assertEquals(Arrays.asList("file:3", "file:2"), delegate.searches);
+    }
+
+    @Test
+    void searchOnlyUncachedHashes() {
+        CachingRepositoryHashSearch search = new CachingRepositoryHashSearch(delegate, 10, 10);
+        search.searchFileHash("1");
+        search.searchFileHash("2");
+
+        Map<String, List<Artifact>> results = search.searchFileHashes(Arrays.asList("1", "2", "3", "4", "3"));
+
+        assertEquals(Arrays.asList("1", "2", "3", "4"), new ArrayList<>(results.keySet()));
+        assertEquals(1, results.get("3").size());
+        assertTrue(results.get("4").isEmpty());
+        assertEquals(Arrays.asList("file:1", "file:2", "file:3,4"), delegate.searches);
+        assertEquals(2, search.getHitCount());
+        assertEquals(4, search.getMissCount());
+    }
+
+    @Test
+    void defaultRepositoryHashSearch() {
+        CachingRepositoryHashSearch search = assertInstanceOf(CachingRepositoryHashSearch.class, defaultSearch);
+        assertInstanceOf(EmptyRepositoryHashSearch.class, search.getDelegate());
+        assertTrue(search.searchFileHash("0000000000000000000000000000000000000000")
+                .isEmpty());
+    }
+
+    @Test
+    void chooseDelegate() {
+        CountingSearch first = new CountingSearch();
+        CountingSearch second = new CountingSearch();
+        EmptyRepositoryHashSearch empty = new EmptyRepositoryHashSearch();
+        Map<String, RepositoryHashSearch> searches = new LinkedHashMap<>();
+        searches.put("empty", empty);
+
+        CachingRepositoryHashSearch search = new CachingRepositoryHashSearch(searches, null, 10, 10);
+        searches.put("default", search);
+        assertSame(empty, search.getDelegate());
+
+        searches.put("first", first);
+        assertSame(first, new CachingRepositoryHashSearch(searches, null, 10, 10).getDelegate());
+
+        // ambiguous: the first one is chosen, with a warning
+        searches.put("second", second);
+        assertSame(first, new CachingRepositoryHashSearch(searches, null, 10, 10).getDelegate());
+        assertSame(second, new CachingRepositoryHashSearch(searches, "second", 10, 10).getDelegate());
+        assertSame(empty, new CachingRepositoryHashSearch(searches, "empty", 10, 10).getDelegate());
+
+        assertThrows(IllegalStateException.class, () -> new CachingRepositoryHashSearch(searches, "missing", 10, 10)
+                .getDelegate());
+        assertThrows(
+                IllegalArgumentException.class, () -> new CachingRepositoryHashSearch(searches, "default", 10, 10));
+    }
+
+    @Test
+    void configureWithSystemProperties() {
+        Map<String, RepositoryHashSearch> searches = new LinkedHashMap<>();
+        searches.put("first", new CountingSearch());
+        searches.put("second", delegate);
+        System.setProperty(CachingRepositoryHashSearch.DELEGATE_PROPERTY, "second");
+        System.setProperty(CachingRepositoryHashSearch.MAX_HITS_PROPERTY, "1");
+        System.setProperty(CachingRepositoryHashSearch.MAX_MISSES_PROPERTY, "2");
+        try {
+            CachingRepositoryHashSearch search = new CachingRepositoryHashSearch(searches);
+            assertSame(delegate, search.getDelegate());
+            for (String hash : new String[] {"1", "2", "3", "4", "5", "6"}) {
+                search.searchFileHash(hash);
+            }
+            assertEquals(1, search.getHitCacheSize());
+            assertEquals(2, search.getMissCacheSize());
+
+            System.setProperty(CachingRepositoryHashSearch.MAX_HITS_PROPERTY, "many");
+            assertThrows(IllegalStateException.class, () -> new CachingRepositoryHashSearch(searches));
+        } finally {
+            System.clearProperty(CachingRepositoryHashSearch.DELEGATE_PROPERTY);
+            System.clearProperty(CachingRepositoryHashSearch.MAX_HITS_PROPERTY);
+            System.clearProperty(CachingRepositoryHashSearch.MAX_MISSES_PROPERTY);
+        }
+    }
+
+    /**
+     * Finds an artifact for the odd hashes, and records the searches.
+     */
+    private static class CountingSearch implements RepositoryHashSearch {
+        private final List<String> searches = new ArrayList<>();
+
+        @Override
+        public List<Artifact> searchFileHash(String hash) {
+            return find(hash);
+        }
+
+        @Override
+        public List<Artifact> searchBytecodeHash(String hash) {
+            return find(hash);
+        }
+
+        @Override
+        public Map<String, List<Artifact>> searchFileHashes(Collection<String> hashes) {
+            searches.add("file:" + String.join(",", hashes));
+            return RepositoryHashSearch.super.searchFileHashes(hashes);
+        }
+
+        @Override
+        public Map<String, List<Artifact>> searchBytecodeHashes(Collection<String> hashes) {
+            searches.add("bytecode:" + String.join(",", hashes));
+            return RepositoryHashSearch.super.searchBytecodeHashes(hashes);
+        }
+
+        private static List<Artifact> find(String hash) {
+            if (Integer.parseInt(hash) % 2 == 0) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(
+                    RepositoryLayout.toArtifact("org/example/foo/" + hash + "/foo-" + hash + ".jar"));
+        }
+    }
+}
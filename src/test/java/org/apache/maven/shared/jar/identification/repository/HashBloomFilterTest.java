@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer;
+import org.apache.maven.shared.jar.identification.repository.LocalRepositoryIndex.IndexedFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link HashBloomFilter} and its use in the {@link LocalRepositoryIndex}.
+ */
+class HashBloomFilterTest {
+    private static final int HASHES = 20_000;
+
+    private static final int LOOKUPS = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.1, 0.01, 0.001})
+    void falsePositiveRate(double falsePositiveRate) throws Exception {
+        Random random = new Random(42);
+        List<byte[]> hashes = randomHashes(random, HASHES);
+        int wordCount = HashBloomFilter.getWordCount(HASHES, falsePositiveRate);
+        int hashCount = HashBloomFilter.getHashCount(falsePositiveRate);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HashBloomFilter.write(new DataOutputStream(bytes), hashes, wordCount, hashCount);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        HashBloomFilter filter = new HashBloomFilter(buffer, 0, wordCount, hashCount);
+
+        for (byte[] hash : hashes) {
+            ByteBuffer key = ByteBuffer.wrap(hash);
+            assertTrue(filter.mightContain(key.getLong(0), key.getLong(8)));
+        }
+
+        int falsePositives = 0;
+        for (byte[] hash : randomHashes(random, LOOKUPS)) {
+            ByteBuffer key = ByteBuffer.wrap(hash);
+            if (filter.mightContain(key.getLong(0), key.getLong(8))) {
+                falsePositives++;
+            }
+        }
+        double measured = (double) falsePositives / LOOKUPS;
+        assertTrue(
+                measured > falsePositiveRate / 2 && measured < falsePositiveRate * 1.5,
+                "measured false positive rate " + measured + " for " + falsePositiveRate);
+    }
+
+    @Test
+    void invalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> HashBloomFilter.getHashCount(0));
+        assertThrows(IllegalArgumentException.class, () -> HashBloomFilter.getHashCount(1));
+        assertThrows(IllegalArgumentException.class, () -> HashBloomFilter.getHashCount(Double.NaN));
+        assertThrows(
+                IllegalArgumentException.class, () -> new LocalRepositoryIndexer(new JarBytecodeHashAnalyzer(), 2));
+    }
+
+    @Test
+    void findThroughFilters() throws Exception {
+        Random random = new Random(7);
+        List<byte[]> hashes = randomHashes(random, 1000);
+        List<IndexedFile> files = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            byte[] bytecodeHash =
+                    i % 2 == 0 ? hashes.get(hashes.size() - 1 - i) : LocalRepositoryIndex.NO_BYTECODE_HASH;
+            files.add(new IndexedFile("g/a" + i + "/1/a" + i + "-1.jar", i, i, hashes.get(i), bytecodeHash));
+        }
+        Path indexFile = directory.resolve("index.idx");
+        LocalRepositoryIndex.write(indexFile, files, 0.05);
+
+        try (LocalRepositoryIndex index = LocalRepositoryIndex.open(indexFile)) {
+            for (int i = 0; i < hashes.size(); i++) {
+                String hash = Hex.encodeHexString(hashes.get(i));
+                assertEquals(1, index.findFiles(hash).size(), hash);
+                assertEquals(
+                        (hashes.size() - 1 - i) % 2 == 0 ? 1 : 0,
+                        index.findBytecodeFiles(hash).size(),
+                        hash);
+            }
+            for (byte[] hash : randomHashes(random, 1000)) {
+                assertTrue(index.findFiles(Hex.encodeHexString(hash)).isEmpty());
+            }
+            assertEquals(hashes.size(), index.getFiles().size());
+        }
+    }
+
+    private static List<byte[]> randomHashes(Random random, int count) {
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+}
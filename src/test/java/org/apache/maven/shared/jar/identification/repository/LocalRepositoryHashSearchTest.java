@@ -0,0 +1,421 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.jar.identification.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.jar.AbstractJarAnalyzerTestCase;
+import org.apache.maven.shared.jar.JarAnalyzer;
+import org.apache.maven.shared.jar.identification.JarIdentification;
+import org.apache.maven.shared.jar.identification.exposers.RepositorySearchExposer;
+import org.apache.maven.shared.jar.identification.hash.JarBytecodeHashAnalyzer;
+import org.apache.maven.shared.jar.identification.hash.JarFileHashAnalyzer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link LocalRepositoryHashSearch} and the {@link LocalRepositoryIndexer}.
+ */
+class LocalRepositoryHashSearchTest extends AbstractJarAnalyzerTestCase {
+
+    private final LocalRepositoryIndexer indexer = new LocalRepositoryIndexer();
+
+    @TempDir
+    Path repository;
+
+    private Path indexFile;
+
+    @BeforeEach
+    void createRepository() throws Exception {
+        install("ant.jar", "org/apache/ant/ant/1.6.5/ant-1.6.5.jar");
+        Path codec = install("codec.jar", "commons-codec/commons-codec/1.0/commons-codec-1.0.jar");
+        Files.write(
+                codec.resolveSibling(codec.getFileName() + ".sha1"),
+                (sha1(codec) + "  commons-codec-1.0.jar\n").getBytes(StandardCharsets.US_ASCII));
+        install("jxr.jar", "org/example/foo/1.0-SNAPSHOT/foo-1.0-20200101.123456-1-sources.jar");
+        install("test1.jar", "stray.jar");
+        indexFile = repository.resolve(".index/hashes.idx");
+    }
+
+    @Test
+    void searchFileHash() throws Exception {
+        assertEquals(3, indexer.update(repository, indexFile));
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(3, search.size());
+
+            List<Artifact> artifacts =
+                    search.searchFileHash(sha1(getSampleJar("ant.jar").toPath()));
+            assertEquals(1, artifacts.size());
+            assertArtifact("org.apache.ant", "ant", "1.6.5", null, artifacts.get(0));
+
+            artifacts = search.searchFileHash(sha1(getSampleJar("codec.jar").toPath()));
+            assertEquals(1, artifacts.size());
+            assertArtifact("commons-codec", "commons-codec", "1.0", null, artifacts.get(0));
+
+            artifacts =
+                    search.searchFileHash(sha1(getSampleJar("jxr.jar").toPath()).toUpperCase());
+            assertEquals(1, artifacts.size());
+            assertArtifact("org.example", "foo", "1.0-20200101.123456-1", "sources", artifacts.get(0));
+            assertEquals("1.0-SNAPSHOT", artifacts.get(0).getBaseVersion());
+
+            assertTrue(search.searchFileHash(sha1(getSampleJar("test1.jar").toPath()))
+                    .isEmpty());
+            assertTrue(search.searchFileHash("0000000000000000000000000000000000000000")
+                    .isEmpty());
+            assertTrue(search.searchFileHash("not a hash").isEmpty());
+            assertTrue(search.searchBytecodeHash(sha1(getSampleJar("ant.jar").toPath()))
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    void updateIncrementally() throws Exception {
+        indexer.update(repository, indexFile);
+        assertEquals(0, indexer.update(repository, indexFile));
+
+        install("ant.jar", "org/apache/ant/ant/1.7.0/ant-1.7.0.jar");
+        Path changed = install("codec.jar", "org/apache/ant/ant/1.6.5/ant-1.6.5.jar");
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertEquals(2, indexer.update(repository, indexFile));
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(4, search.size());
+            List<Artifact> artifacts =
+                    search.searchFileHash(sha1(getSampleJar("ant.jar").toPath()));
+            assertEquals(1, artifacts.size());
+            assertArtifact("org.apache.ant", "ant", "1.7.0", null, artifacts.get(0));
+            assertEquals(
+                    2,
+                    search.searchFileHash(sha1(getSampleJar("codec.jar").toPath()))
+                            .size());
+        }
+    }
+
+    @Test
+    void rebuildCorruptedIndex() throws Exception {
+        assertEquals(3, indexer.update(repository, indexFile));
+
+        // a file count whose records overflow the positions in int arithmetic
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x0A, (byte) 0xAA, (byte) 0xAA, (byte) 0xAB}), 8);
+        }
+        assertEquals(3, indexer.update(repository, indexFile));
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(3, search.size());
+        }
+    }
+
+    @Test
+    void skipUnreadableJar() throws Exception {
+        Path ant = repository.resolve("org/apache/ant/ant/1.6.5/ant-1.6.5.jar");
+        Path codec = repository.resolve("commons-codec/commons-codec/1.0/commons-codec-1.0.jar");
+        Path jxr = repository.resolve("org/example/foo/1.0-SNAPSHOT/foo-1.0-20200101.123456-1-sources.jar");
+        Files.delete(codec.resolveSibling(codec.getFileName() + ".sha1"));
+
+        JarBytecodeHashAnalyzer bytecodeHashAnalyzer = new JarBytecodeHashAnalyzer();
+        AtomicBoolean replaced = new AtomicBoolean();
+        LocalRepositoryIndexer replacingIndexer = new LocalRepositoryIndexer(jarAnalyzer -> {
+            if (!replaced.getAndSet(true)) {
+                // the JARs not read yet are replaced by directories, so they cannot be read
+                Path read = jarAnalyzer.getJarData().getFile().toPath();
+                for (Path jar : Arrays.asList(ant, codec, jxr)) {
+                    if (!jar.equals(read)) {
+                        try {
+                            Files.delete(jar);
+                            Files.createDirectory(jar);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+            }
+            return bytecodeHashAnalyzer.computeHash(jarAnalyzer);
+        });
+
+        assertEquals(3, replacingIndexer.update(repository, indexFile, true, 1));
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(1, search.size());
+        }
+
+        // the skipped JARs are read by the next update
+        String[] samples = {"ant.jar", "codec.jar", "jxr.jar"};
+        Path[] jars = {ant, codec, jxr};
+        for (int i = 0; i < jars.length; i++) {
+            if (Files.isDirectory(jars[i])) {
+                Files.delete(jars[i]);
+                install(samples[i], repository.relativize(jars[i]).toString());
+            }
+        }
+        assertEquals(2, replacingIndexer.update(repository, indexFile, true, 1));
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(3, search.size());
+            assertEquals(3, search.bytecodeHashCount());
+        }
+    }
+
+    @Test
+    void searchBytecodeHash() throws Exception {
+        Path resources = repository.resolve("org/example/resources/1.0/resources-1.0.jar");
+        Files.createDirectories(resources.getParent());
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(resources))) {
+            out.putNextEntry(new JarEntry("readme.txt"));
+            out.write("no classes".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(4, indexer.update(repository, indexFile));
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(0, search.bytecodeHashCount());
+        }
+
+        // the file hashes are kept, only the bytecode hashes are computed
+        assertEquals(4, indexer.update(repository, indexFile, true, 2));
+        assertEquals(0, indexer.update(repository, indexFile, true, 2));
+        // the bytecode hashes are kept when they are not requested
+        assertEquals(0, indexer.update(repository, indexFile));
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(4, search.size());
+            assertEquals(3, search.bytecodeHashCount());
+
+            List<Artifact> artifacts = search.searchBytecodeHash(bytecodeHash("ant.jar"));
+            assertEquals(1, artifacts.size());
+            assertArtifact("org.apache.ant", "ant", "1.6.5", null, artifacts.get(0));
+            artifacts = search.searchBytecodeHash(bytecodeHash("jxr.jar"));
+            assertEquals(1, artifacts.size());
+            assertArtifact("org.example", "foo", "1.0-20200101.123456-1", "sources", artifacts.get(0));
+
+            // the JAR without classes is not found by the hash of no bytecode
+            assertTrue(
+                    search.searchBytecodeHash(DigestUtils.sha1Hex(new byte[0])).isEmpty());
+            assertEquals(1, search.searchFileHash(sha1(resources)).size());
+            assertTrue(search.searchBytecodeHash(sha1(getSampleJar("ant.jar").toPath()))
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    void retryFailedBytecodeHash() throws Exception {
+        JarBytecodeHashAnalyzer bytecodeHashAnalyzer = new JarBytecodeHashAnalyzer();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        LocalRepositoryIndexer flakyIndexer = new LocalRepositoryIndexer(
+                jarAnalyzer -> failing.get() ? null : bytecodeHashAnalyzer.computeHash(jarAnalyzer));
+
+        assertEquals(3, flakyIndexer.update(repository, indexFile, true, 1));
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(3, search.size());
+            assertEquals(0, search.bytecodeHashCount());
+        }
+
+        // the failed bytecode hashes are computed again, the file hashes are kept
+        failing.set(false);
+        assertEquals(3, flakyIndexer.update(repository, indexFile, true, 1));
+        assertEquals(0, flakyIndexer.update(repository, indexFile, true, 1));
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            assertEquals(3, search.bytecodeHashCount());
+            assertEquals(1, search.searchBytecodeHash(bytecodeHash("ant.jar")).size());
+        }
+    }
+
+    @Test
+    void identifyWithRepositorySearchExposer() throws Exception {
+        indexer.update(repository, indexFile);
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            RepositorySearchExposer exposer =
+                    new RepositorySearchExposer(search, new JarFileHashAnalyzer(), new JarBytecodeHashAnalyzer());
+            JarIdentification identification = new JarIdentification();
+            JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar("ant.jar"));
+            try {
+                exposer.expose(identification, jarAnalyzer);
+            } finally {
+                jarAnalyzer.closeQuietly();
+            }
+
+            assertEquals("org.apache.ant", identification.getGroupId());
+            assertEquals("ant", identification.getArtifactId());
+            assertEquals("1.6.5", identification.getVersion());
+        }
+    }
+
+    @Test
+    void searchSeveralHashes() throws Exception {
+        indexer.update(repository, indexFile, true, 1);
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            List<String> hashes = Arrays.asList(
+                    sha1(getSampleJar("jxr.jar").toPath()),
+                    "not a hash",
+                    "0000000000000000000000000000000000000000",
+                    sha1(getSampleJar("ant.jar").toPath()),
+                    sha1(getSampleJar("codec.jar").toPath()),
+                    sha1(getSampleJar("ant.jar").toPath()));
+            Map<String, List<Artifact>> results = search.searchFileHashes(hashes);
+
+            assertEquals(new ArrayList<>(new LinkedHashSet<>(hashes)), new ArrayList<>(results.keySet()));
+            for (String hash : hashes) {
+                assertEquals(toIds(search.searchFileHash(hash)), toIds(results.get(hash)), hash);
+            }
+            assertEquals(1, results.get(hashes.get(3)).size());
+
+            String antHash = bytecodeHash("ant.jar");
+            results = search.searchBytecodeHashes(Arrays.asList(antHash, hashes.get(2)));
+            assertEquals(toIds(search.searchBytecodeHash(antHash)), toIds(results.get(antHash)));
+            assertTrue(results.get(hashes.get(2)).isEmpty());
+        }
+    }
+
+    @Test
+    void identifySeveralJarsWithOneSearch() throws Exception {
+        indexer.update(repository, indexFile);
+
+        try (LocalRepositoryHashSearch search = new LocalRepositoryHashSearch(indexFile)) {
+            int[] searches = new int[1];
+            RepositoryHashSearch counting = new RepositoryHashSearch() {
+                @Override
+                public List<Artifact> searchFileHash(String hash) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public List<Artifact> searchBytecodeHash(String hash) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Map<String, List<Artifact>> searchFileHashes(Collection<String> hashes) {
+                    searches[0]++;
+                    return search.searchFileHashes(hashes);
+                }
+
+                @Override
+                public Map<String, List<Artifact>> searchBytecodeHashes(Collection<String> hashes) {
+                    searches[0]++;
+                    return search.searchBytecodeHashes(hashes);
+                }
+            };
+            RepositorySearchExposer exposer =
+                    new RepositorySearchExposer(counting, new JarFileHashAnalyzer(), new JarBytecodeHashAnalyzer());
+            List<JarIdentification> identifications = new ArrayList<>();
+            List<JarAnalyzer> jarAnalyzers = new ArrayList<>();
+            try {
+                for (String sample : new String[] {"ant.jar", "codec.jar", "test1.jar"}) {
+                    identifications.add(new JarIdentification());
+                    jarAnalyzers.add(new JarAnalyzer(getSampleJar(sample)));
+                }
+                exposer.expose(identifications, jarAnalyzers);
+            } finally {
+                for (JarAnalyzer jarAnalyzer : jarAnalyzers) {
+                    jarAnalyzer.closeQuietly();
+                }
+            }
+
+            assertEquals(2, searches[0]);
+            assertEquals("ant", identifications.get(0).getArtifactId());
+            assertEquals("1.6.5", identifications.get(0).getVersion());
+            assertEquals("commons-codec", identifications.get(1).getGroupId());
+            assertNull(identifications.get(2).getArtifactId());
+        }
+    }
+
+    @Test
+    void parseRepositoryLayout() {
+        assertArtifact(
+                "org.apache.maven.shared",
+                "maven-shared-jar",
+                "3.2.0",
+                "tests",
+                RepositoryLayout.toArtifact(
+                        "org/apache/maven/shared/maven-shared-jar/3.2.0/maven-shared-jar-3.2.0-tests.jar"));
+        assertArtifact(
+                "foo",
+                "bar",
+                "1.0-SNAPSHOT",
+                null,
+                RepositoryLayout.toArtifact("foo/bar/1.0-SNAPSHOT/bar-1.0-SNAPSHOT.jar"));
+        assertNull(RepositoryLayout.toArtifact("foo/bar/1.0/baz-1.0.jar"));
+        assertNull(RepositoryLayout.toArtifact("foo/bar/1.0/bar-2.0.jar"));
+        assertNull(RepositoryLayout.toArtifact("foo/bar/1.0-SNAPSHOT/bar-1.0-other.jar"));
+        assertNull(RepositoryLayout.toArtifact("bar/1.0/bar-1.0.jar"));
+        assertNull(RepositoryLayout.toArtifact("foo/bar/1.0/bar-1.0.pom"));
+    }
+
+    private Path install(String sample, String path) throws Exception {
+        Path target = repository.resolve(path);
+        Files.createDirectories(target.getParent());
+        Files.copy(getSampleJar(sample).toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    private static String sha1(Path file) throws Exception {
+        return DigestUtils.sha1Hex(Files.readAllBytes(file));
+    }
+
+    private String bytecodeHash(String sample) throws Exception {
+        JarAnalyzer jarAnalyzer = new JarAnalyzer(getSampleJar(sample));
+        try {
+            return new JarBytecodeHashAnalyzer().computeHash(jarAnalyzer);
+        } finally {
+            jarAnalyzer.closeQuietly();
+        }
+    }
+
+    private static List<String> toIds(List<Artifact> artifacts) {
+        List<String> ids = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            ids.add(artifact.getId());
+        }
+        return ids;
+    }
+
+    private static void assertArtifact(
+            String groupId, String artifactId, String version, String classifier, Artifact artifact) {
+        assertEquals(groupId, artifact.getGroupId());
+        assertEquals(artifactId, artifact.getArtifactId());
+        assertEquals(version, artifact.getVersion());
+        assertEquals(classifier, artifact.getClassifier());
+        assertEquals("jar", artifact.getType());
+    }
+}